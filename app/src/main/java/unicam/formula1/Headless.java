@@ -0,0 +1,98 @@
+package unicam.formula1;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.utils.Printer;
+import unicam.formula1.utils.SnapshotRandom;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Launcher running races of default bots without any user interface, for batch jobs started as separate
+ * processes. Unlike {@link Start} it never loads a {@code javafx} class, so the process only pays for the
+ * classes of the simulator, which an AppCDS archive built by the {@code cdsArchive} Gradle task can provide
+ * already parsed and verified.
+ * <p>
+ * Once the first tick of the first race is played, the launcher prints the time elapsed since the process
+ * started on a line beginning with {@value #FIRST_TICK}, which {@link StartupBenchmark} waits for.
+ * <p>
+ * Usage: {@code Headless [track file] [races] [seed] [max ticks]}, the bundled track being used when no file
+ * is given or the file is {@code -}. The engine and every bot of a race derive their random generators from
+ * the seed, so runs with the same arguments play the same races.
+ */
+public class Headless {
+
+    /**
+     * Beginning of the line reporting the time to the first tick.
+     */
+    public static final String FIRST_TICK = "first tick";
+
+    /**
+     * Entry point of the launcher.
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the track cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        Track track = readTrack(args.length > 0 ? args[0] : "-");
+        int races = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+        int maxTicks = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        Printer.setEnabled(false);
+        LapCourse course = LapCourse.of(TrackGrid.of(track), track.getCourse());
+        int finished = 0;
+        long ticks = 0;
+        for (int race = 0; race < races; race++) {
+            List<Player<Cell>> players = new ArrayList<>();
+            for (Cell start : track.getStartPositions()) {
+                players.add(new BotPlayer("Bot " + (players.size() + 1), start, track, BotParameters.DEFAULT,
+                        new SnapshotRandom((seed + race) * 31 + players.size())));
+            }
+            GameEngine<Cell> engine = new GameEngine<>(players, seed + race);
+            engine.setCourse(course);
+            while (!engine.isTerminated() && engine.getTick() < maxTicks) {
+                engine.play();
+                if (race == 0 && engine.getTick() == 1) {
+                    System.out.println(FIRST_TICK + " " + sinceProcessStart() + " ms");
+                }
+            }
+            if (!engine.getClassification().isEmpty()) {
+                finished++;
+            }
+            ticks += engine.getTick();
+        }
+        System.out.println(races + " races, " + finished + " with a winner, " + ticks + " ticks");
+    }
+
+    private static Track readTrack(String file) throws IOException {
+        try (BufferedReader reader = file.equals("-")
+                ? new BufferedReader(new InputStreamReader(Headless.class.getResourceAsStream("/track.txt")))
+                : Files.newBufferedReader(Path.of(file))) {
+            return new CircuitParser().parseFile(reader);
+        }
+    }
+
+    /**
+     * Returns the milliseconds elapsed since the process started, or -1 if the platform does not tell.
+     */
+    private static long sinceProcessStart() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+    }
+}
@@ -8,20 +8,36 @@ import javafx.stage.Stage;
 import unicam.formula1.controller.RaceController;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 public class Main extends Application {
 
+    private RaceController controller;
+
     @Override
     public void start(Stage primaryStage) throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main.fxml"));
         Parent root = loader.load();
 
-        RaceController controller = loader.getController();
-        controller.initialize();
+        controller = loader.getController();
+        List<String> arguments = getParameters().getRaw();
+        if (arguments.isEmpty()) {
+            controller.initialize();
+        } else {
+            controller.initialize(Path.of(arguments.get(0)));
+        }
 
         Scene scene = new Scene(root);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Formula 1");
         primaryStage.show();
     }
+
+    @Override
+    public void stop() throws IOException {
+        if (controller != null) {
+            controller.close();
+        }
+    }
 }
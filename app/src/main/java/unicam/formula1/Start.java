@@ -4,6 +4,6 @@ import javafx.application.Application;
 
 public class Start {
     public static void main(String[] args) {
-        Application.launch(Main.class);
+        Application.launch(Main.class, args);
     }
 }
@@ -0,0 +1,89 @@
+package unicam.formula1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line tool measuring how long a fresh {@link Headless} process takes to play its first tick. Each
+ * configuration of JVM options is launched the given number of times with the class path of the benchmark,
+ * and the time from spawning the process to reading its {@value Headless#FIRST_TICK} line is reported as
+ * minimum, median and maximum. The configurations compare a plain JVM, the quick-start options used by the
+ * {@code runHeadless} Gradle task, and the same options with the AppCDS archive, when it exists.
+ * <p>
+ * Usage: {@code StartupBenchmark <runs> [archive] [track file]}
+ */
+public class StartupBenchmark {
+
+    /**
+     * JVM options favoring startup over peak speed, for short-lived processes.
+     */
+    private static final List<String> QUICK_START = List.of("-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC");
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args the command line arguments.
+     * @throws Exception if a process cannot be started or does not report its first tick.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: StartupBenchmark <runs> [archive] [track file]");
+            System.exit(1);
+        }
+        int runs = Integer.parseInt(args[0]);
+        Path archive = args.length > 1 ? Path.of(args[1]) : null;
+        String track = args.length > 2 ? args[2] : "-";
+        Map<String, List<String>> configurations = new LinkedHashMap<>();
+        configurations.put("plain", List.of());
+        configurations.put("quick start", QUICK_START);
+        if (archive != null && Files.exists(archive)) {
+            List<String> options = new ArrayList<>(QUICK_START);
+            options.add("-XX:SharedArchiveFile=" + archive);
+            configurations.put("quick start + AppCDS", options);
+        } else if (archive != null) {
+            System.err.println("No archive at " + archive + ", run the cdsArchive task first");
+        }
+        for (Map.Entry<String, List<String>> configuration : configurations.entrySet()) {
+            long[] millis = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                millis[run] = timeToFirstTick(configuration.getValue(), track);
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-22s min %4d ms  median %4d ms  max %4d ms%n", configuration.getKey(),
+                    millis[0], millis[runs / 2], millis[runs - 1]);
+        }
+    }
+
+    /**
+     * Starts a headless race and returns the milliseconds until it reports its first tick.
+     */
+    private static long timeToFirstTick(List<String> options, String track) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), Headless.class.getName(), track));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        long elapsed = -1;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (elapsed < 0 && line.startsWith(Headless.FIRST_TICK)) {
+                    elapsed = (System.nanoTime() - start) / 1_000_000;
+                }
+            }
+        }
+        if (process.waitFor() != 0 || elapsed < 0) {
+            throw new IOException("Headless race failed: " + String.join(" ", command));
+        }
+        return elapsed;
+    }
+}
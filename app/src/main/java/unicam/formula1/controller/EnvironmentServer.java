@@ -0,0 +1,202 @@
+package unicam.formula1.controller;
+
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.rl.RaceEnvironment;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Serves a {@link RaceEnvironment} to a trainer process on the same host, over a loopback TCP port or a
+ * Unix domain socket. All buffers are allocated once, so serving a step allocates no object.
+ * <p>
+ * Protocol, with every number in little-endian order:
+ * <ul>
+ *     <li>on connection the server sends the number of environments and the observation size, as two ints;</li>
+ *     <li>{@code 'R'}: resets all environments;</li>
+ *     <li>{@code 'S'} followed by one action byte per environment: steps all environments;</li>
+ *     <li>{@code 'Q'}: closes the connection.</li>
+ * </ul>
+ * Both reset and step are answered with the observations, then one float reward and one done byte per
+ * environment. Any other command is answered with the single byte {@code 'E'} and the connection is closed.
+ * Clients are served one at a time, and a client that fails or misbehaves never stops the server.
+ */
+public class EnvironmentServer implements Closeable {
+
+    private static final byte RESET = 'R';
+    private static final byte STEP = 'S';
+    private static final byte QUIT = 'Q';
+    private static final byte ERROR = 'E';
+
+    private final RaceEnvironment environment;
+    private final ServerSocketChannel server;
+    private final ByteBuffer command;
+    private final ByteBuffer actions;
+    private final ByteBuffer response;
+
+    /**
+     * Constructs a server bound to the given address.
+     *
+     * @param environment the environment to serve.
+     * @param address a loopback {@link InetSocketAddress} or a {@link UnixDomainSocketAddress}.
+     * @throws IOException if the address cannot be bound.
+     */
+    public EnvironmentServer(RaceEnvironment environment, SocketAddress address) throws IOException {
+        this.environment = environment;
+        this.server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        this.server.bind(address);
+        int count = environment.getEnvironmentCount();
+        this.command = ByteBuffer.allocateDirect(1);
+        this.actions = ByteBuffer.allocateDirect(count);
+        this.response = ByteBuffer.allocateDirect(count * (environment.getObservationSize() + Float.BYTES + 1))
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     *
+     * @return the bound address.
+     * @throws IOException if the server is closed.
+     */
+    public SocketAddress getAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Accepts clients and serves their commands until the server is closed.
+     *
+     * @throws IOException if the server socket fails.
+     */
+    public void serve() throws IOException {
+        while (server.isOpen()) {
+            SocketChannel accepted;
+            try {
+                accepted = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            try (SocketChannel client = accepted) {
+                if (client.getLocalAddress() instanceof InetSocketAddress) {
+                    client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                }
+                serve(client);
+            } catch (IOException e) {
+                // The client disconnected or failed, wait for the next one
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void serve(SocketChannel client) throws IOException {
+        ByteBuffer hello = ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(environment.getEnvironmentCount())
+                .putInt(environment.getObservationSize())
+                .flip();
+        writeFully(client, hello);
+        byte[] actionBytes = new byte[environment.getEnvironmentCount()];
+        while (true) {
+            command.clear();
+            readFully(client, command);
+            switch (command.get(0)) {
+                case RESET -> environment.reset();
+                case STEP -> {
+                    actions.clear();
+                    readFully(client, actions);
+                    actions.flip();
+                    actions.get(actionBytes);
+                    environment.step(actionBytes);
+                }
+                case QUIT -> {
+                    return;
+                }
+                default -> {
+                    writeFully(client, ByteBuffer.wrap(new byte[]{ERROR}));
+                    return;
+                }
+            }
+            writeResponse(client);
+        }
+    }
+
+    private void writeResponse(SocketChannel client) throws IOException {
+        response.clear();
+        response.put(environment.getObservations());
+        for (float reward : environment.getRewards()) {
+            response.putFloat(reward);
+        }
+        response.put(environment.getDones());
+        response.flip();
+        writeFully(client, response);
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Client disconnected");
+            }
+        }
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Starts a server from the command line.
+     * <p>
+     * Usage: {@code EnvironmentServer <track file> <port or socket path> <environments> [rivals] [patch radius]
+     * [max steps] [seed]}
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the track cannot be read or the server cannot start.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: EnvironmentServer <track file> <port or socket path> <environments> "
+                    + "[rivals] [patch radius] [max steps] [seed]");
+            System.exit(1);
+        }
+        TrackGrid grid;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]))) {
+            grid = TrackGrid.of(new CircuitParser().parseFile(reader));
+        }
+        RaceEnvironment environment = new RaceEnvironment(grid,
+                Integer.parseInt(args[2]),
+                args.length > 3 ? Integer.parseInt(args[3]) : 0,
+                args.length > 4 ? Integer.parseInt(args[4]) : 2,
+                args.length > 5 ? Integer.parseInt(args[5]) : 1000,
+                args.length > 6 ? Long.parseLong(args[6]) : 0L);
+        SocketAddress address = args[1].chars().allMatch(Character::isDigit)
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1]))
+                : UnixDomainSocketAddress.of(args[1]);
+        try (EnvironmentServer server = new EnvironmentServer(environment, address)) {
+            System.out.println("Serving " + environment.getEnvironmentCount() + " environments on "
+                    + server.getAddress());
+            server.serve();
+        }
+    }
+}
@@ -4,8 +4,12 @@ import unicam.formula1.model.*;
 import unicam.formula1.model.abstracts.IEngine;
 import unicam.formula1.model.abstracts.ITrack;
 import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.sim.TrackGrid;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,7 +21,8 @@ import java.util.List;
 public class GameController {
 
     private GameEngine<Cell> gameEngine;
-    private ITrack<Cell> track;
+    private Track track;
+    private TrackReloader reloader;
 
     /**
      * Returns the game engine associated with the game.
@@ -42,7 +47,7 @@ public class GameController {
      *
      * @return the track instance.
      */
-    public ITrack<Cell> getTrack() {
+    public Track getTrack() {
         return track;
     }
 
@@ -61,11 +66,42 @@ public class GameController {
             List<Player<Cell>> players = new ArrayList<>();
             initializeBots(players, track, track.getStartPositions().size());
             this.gameEngine = new GameEngine<>(players);
+            this.gameEngine.setCourse(LapCourse.of(TrackGrid.of(track), track.getCourse()));
         } catch (IOException e) {
             throw new IOException("Failed to initialize the game due to an input/output error.", e);
         }
     }
 
+    /**
+     * Initializes the game from a track file instead of the bundled track, and starts watching the file so
+     * that changes are reloaded while the race runs.
+     *
+     * @param trackFile the track file.
+     * @throws IOException if the file cannot be read or watched.
+     */
+    public void initialize(Path trackFile) throws IOException {
+        Track parsed;
+        try (BufferedReader reader = Files.newBufferedReader(trackFile)) {
+            parsed = new CircuitParser().parseFile(reader);
+        }
+        this.track = parsed;
+        List<Player<Cell>> players = new ArrayList<>();
+        initializeBots(players, track, track.getStartPositions().size());
+        this.gameEngine = new GameEngine<>(players);
+        this.reloader = new TrackReloader(trackFile, parsed);
+        this.gameEngine.setCourse(reloader.getCourse());
+        reloader.start();
+    }
+
+    /**
+     * Returns the reloader of the track file, if the game was initialized from a file.
+     *
+     * @return the reloader, or null for the bundled track.
+     */
+    public TrackReloader getReloader() {
+        return reloader;
+    }
+
     /**
      * Initializes bot players and assigns them to start positions on the track.
      *
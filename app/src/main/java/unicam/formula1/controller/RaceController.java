@@ -1,16 +1,27 @@
 package unicam.formula1.controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.layout.Pane;
 import unicam.formula1.model.Cell;
 import unicam.formula1.model.GameEngine;
-import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.HazardSpawner;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.TrackPatch;
 import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.model.stats.CellHeatmap;
+import unicam.formula1.model.stats.GhostLap;
 import unicam.formula1.view.TrackView;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Controls the race simulation and manages interactions between the game engine and the UI.
@@ -19,22 +30,63 @@ import java.util.List;
  */
 public class RaceController {
 
+    private static final int HEATMAP_RACES = 5000;
+    private static final int SIMULATION_MAX_TICKS = 1000;
+    private static final int GHOST_RACES = 2000;
+    private static final double OIL_PROBABILITY = 0.05;
+    private static final int OIL_LIFETIME = 40;
+
     @FXML
     private Button startButton;
 
+    @FXML
+    private Button heatmapButton;
+
+    @FXML
+    private Button oilButton;
+
     @FXML
     private Pane trackPane;
 
     private GameEngine<Cell> gameEngine;
     private TrackView trackView;
+    private Track track;
+    private TrackGrid grid;
+    private CellHeatmap heatmap;
+    private int heatmapMode;
+    private TrackReloader reloader;
+    private HazardSpawner hazards;
 
     /**
      * Simulates a single race step by invoking the game engine's play method,
      * updates the UI to reflect any changes in the game state, and checks if the race has terminated.
      * Disables the start button and notifies via console when the race is over.
+     * A reloaded track file is applied before the step, the overlays computed for the old track are dropped
+     * and the ghost lap is computed again. With oil enabled, spills appear and clear before the step too.
      */
     @FXML
     private void simulate() {
+        if (reloader != null) {
+            try {
+                if (reloader.applyPending(gameEngine)) {
+                    grid = reloader.getGrid();
+                    heatmap = null;
+                    heatmapMode = 0;
+                    trackView.hideHeatmap();
+                    trackView.setGhost(null);
+                    trackView.refreshTrack();
+                    computeGhost();
+                }
+            } catch (IOException e) {
+                System.err.println("Track reload rejected: " + e.getMessage());
+            }
+        }
+        if (hazards != null) {
+            TrackPatch patch = hazards.step(gameEngine.getPlayers());
+            if (!patch.changes().isEmpty()) {
+                trackView.refreshTrack();
+            }
+        }
         gameEngine.play();
         if (gameEngine.isTerminated()) {
             startButton.setDisable(true);
@@ -42,6 +94,96 @@ public class RaceController {
         this.trackView.update();
     }
 
+    /**
+     * Cycles the heatmap overlay between hidden, visits and crashes. The heatmap is simulated in the
+     * background the first time it is requested, and dropped if the track was reloaded meanwhile.
+     */
+    @FXML
+    private void toggleHeatmap() {
+        if (heatmap == null) {
+            heatmapButton.setDisable(true);
+            TrackGrid simulatedGrid = grid;
+            runInBackground("heatmap",
+                    () -> CellHeatmap.simulate(simulatedGrid, HEATMAP_RACES, SIMULATION_MAX_TICKS,
+                            System.nanoTime(), Runtime.getRuntime().availableProcessors()),
+                    simulated -> {
+                        heatmapButton.setDisable(false);
+                        if (simulatedGrid == grid) {
+                            this.heatmap = simulated;
+                            toggleHeatmap();
+                        }
+                    },
+                    () -> heatmapButton.setDisable(false));
+            return;
+        }
+        heatmapMode = (heatmapMode + 1) % 3;
+        switch (heatmapMode) {
+            case 1 -> trackView.showHeatmap(heatmap, false);
+            case 2 -> trackView.showHeatmap(heatmap, true);
+            default -> trackView.hideHeatmap();
+        }
+    }
+
+    /**
+     * Starts spilling oil on the track for the rest of the race. The cars see the oil through the track, so
+     * those driving onto it crash.
+     */
+    @FXML
+    private void enableOil() {
+        oilButton.setDisable(true);
+        hazards = new HazardSpawner(track, OIL_PROBABILITY, OIL_LIFETIME, new Random());
+    }
+
+    /**
+     * Computes the ghost lap of the current grid in the background, dropping it if the track was reloaded
+     * meanwhile.
+     */
+    private void computeGhost() {
+        TrackGrid simulatedGrid = grid;
+        runInBackground("ghost",
+                () -> GhostLap.fastest(simulatedGrid, GHOST_RACES, SIMULATION_MAX_TICKS, System.nanoTime()),
+                ghost -> {
+                    if (simulatedGrid == grid) {
+                        trackView.setGhost(ghost);
+                    }
+                },
+                () -> { });
+    }
+
+    /**
+     * Stops watching the track file, if any. Called when the application stops.
+     *
+     * @throws IOException if the watcher cannot be closed.
+     */
+    public void close() throws IOException {
+        if (reloader != null) {
+            reloader.close();
+        }
+    }
+
+    /**
+     * Computes a value on a daemon thread and hands it to the JavaFX application thread. If the computation
+     * fails, the failure is reported and {@code onFailure} runs on the application thread instead.
+     */
+    private static <T> void runInBackground(String name, Supplier<T> task, Consumer<T> onDone,
+                                            Runnable onFailure) {
+        Thread worker = new Thread(() -> {
+            T result;
+            try {
+                result = task.get();
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> {
+                    System.err.println("Computing the " + name + " failed: " + e);
+                    onFailure.run();
+                });
+                return;
+            }
+            Platform.runLater(() -> onDone.accept(result));
+        }, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
     /**
      * Initializes the race controller, setting up the game environment by loading the track,
      * players, and integrating them into the TrackView for visualization.
@@ -52,13 +194,35 @@ public class RaceController {
     public void initialize() throws IOException {
         GameController gameController = new GameController();
         gameController.initialize();
+        setUp(gameController);
+    }
+
+    /**
+     * Initializes the race controller with a track file, which is reloaded whenever it changes.
+     *
+     * @param trackFile the track file.
+     * @throws IOException if the track file cannot be read or watched.
+     */
+    public void initialize(Path trackFile) throws IOException {
+        GameController gameController = new GameController();
+        gameController.initialize(trackFile);
+        this.reloader = gameController.getReloader();
+        setUp(gameController);
+    }
 
-        ITrack<Cell> track = gameController.getTrack();
+    /**
+     * Builds the view and the engine of the race prepared by a game controller.
+     */
+    private void setUp(GameController gameController) {
+        this.track = gameController.getTrack();
         List<Player<Cell>> players = gameController.getPlayers();
 
         this.trackView = new TrackView(track, players);
         this.trackPane.getChildren().add(trackView);
         this.trackView.update();
         this.gameEngine = new GameEngine<>(players);
+        this.grid = reloader != null ? reloader.getGrid() : TrackGrid.of(track);
+        this.gameEngine.setCourse(reloader != null ? reloader.getCourse() : LapCourse.of(grid, track.getCourse()));
+        computeGhost();
     }
 }
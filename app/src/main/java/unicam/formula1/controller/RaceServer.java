@@ -0,0 +1,311 @@
+package unicam.formula1.controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.utils.Printer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP server hosting many independent races in one process. Every request and every race runs on
+ * its own virtual thread, so thousands of sessions cost little more than their state. Uploaded tracks are
+ * parsed once and shared, read-only, by all the races on them.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code POST /tracks} with a track file as body: returns the id of the track;</li>
+ *     <li>{@code POST /races?track=<id>[&seed=<n>][&tickMillis=<n>]}: starts a race of bots and returns its id;</li>
+ *     <li>{@code GET /races}: lists the races;</li>
+ *     <li>{@code GET /races/<id>}: summary of a race;</li>
+ *     <li>{@code GET /races/<id>/stream}: streams one JSON frame per line until the race is over;</li>
+ *     <li>{@code DELETE /races/<id>}: stops and forgets a race.</li>
+ * </ul>
+ * A finished race gives up its engine and players and only its summary and final frame are kept, for the
+ * {@value #RECENT_RACES} most recently finished races, so a long-running server holds a bounded amount of
+ * memory for races that are over.
+ * Position updates are streamed as newline-delimited JSON over a chunked response; slow clients skip frames
+ * rather than slowing their race down, as described in {@link RaceSession}.
+ */
+public class RaceServer implements Closeable {
+
+    private static final long POLL_MILLIS = 1000;
+    private static final int RECENT_RACES = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Track> tracks;
+    private final Map<String, LapCourse> courses;
+    private final Map<String, RaceSession> races;
+    private final Map<String, FinishedRace> finishedRaces;
+    private final AtomicLong nextRace;
+
+    /**
+     * What is kept of a race that is over.
+     */
+    private record FinishedRace(String summary, String lastFrame) {
+    }
+
+    /**
+     * Constructs a server bound to a loopback port.
+     *
+     * @param port the port, 0 to pick a free one.
+     * @throws IOException if the port cannot be bound.
+     */
+    public RaceServer(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.tracks = new ConcurrentHashMap<>();
+        this.courses = new ConcurrentHashMap<>();
+        this.races = new ConcurrentHashMap<>();
+        this.finishedRaces = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FinishedRace> eldest) {
+                return size() > RECENT_RACES;
+            }
+        });
+        this.nextRace = new AtomicLong();
+        this.server.setExecutor(executor);
+        this.server.createContext("/tracks", this::handleTracks);
+        this.server.createContext("/races", this::handleRaces);
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server and cancels every race.
+     */
+    @Override
+    public void close() {
+        races.values().forEach(RaceSession::cancel);
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleTracks(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                send(exchange, 405, "{\"error\":\"method not allowed\"}");
+                return;
+            }
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Track track;
+            try {
+                track = new CircuitParser().parseFile(new BufferedReader(new StringReader(body)));
+            } catch (IOException | RuntimeException e) {
+                send(exchange, 400, "{\"error\":\"invalid track\"}");
+                return;
+            }
+            String id = trackId(body);
+            if (tracks.putIfAbsent(id, track) == null) {
+                courses.put(id, LapCourse.of(TrackGrid.of(track), track.getCourse()));
+            }
+            send(exchange, 201, "{\"track\":\"" + id + "\"}");
+        }
+    }
+
+    private void handleRaces(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            // a race may finish between two lookups, so each map is read once
+            RaceSession race = path.length >= 3 ? races.get(path[2]) : null;
+            FinishedRace finishedRace = path.length >= 3 && race == null ? finishedRaces.get(path[2]) : null;
+            if (path.length == 2 && method.equals("POST")) {
+                createRace(exchange);
+            } else if (path.length == 2 && method.equals("GET")) {
+                StringBuilder list = new StringBuilder("[");
+                races.values().forEach(session -> list.append(list.length() > 1 ? "," : "")
+                        .append(session.summary()));
+                synchronized (finishedRaces) {
+                    finishedRaces.values().forEach(finished -> list.append(list.length() > 1 ? "," : "")
+                            .append(finished.summary()));
+                }
+                send(exchange, 200, list.append(']').toString());
+            } else if (race != null) {
+                if (path.length == 3 && method.equals("GET")) {
+                    send(exchange, 200, race.summary());
+                } else if (path.length == 3 && method.equals("DELETE")) {
+                    // A race retiring meanwhile is already in the finished ones and must be forgotten there
+                    if (races.remove(path[2], race)) {
+                        race.cancel();
+                    } else {
+                        finishedRaces.remove(path[2]);
+                    }
+                    send(exchange, 200, race.summary());
+                } else if (path.length == 4 && path[3].equals("stream") && method.equals("GET")) {
+                    stream(exchange, race);
+                } else {
+                    send(exchange, 405, "{\"error\":\"method not allowed\"}");
+                }
+            } else if (finishedRace != null) {
+                if (path.length == 3 && method.equals("GET")) {
+                    send(exchange, 200, finishedRace.summary());
+                } else if (path.length == 3 && method.equals("DELETE")) {
+                    finishedRaces.remove(path[2]);
+                    send(exchange, 200, finishedRace.summary());
+                } else if (path.length == 4 && path[3].equals("stream") && method.equals("GET")) {
+                    send(exchange, 200, finishedRace.lastFrame() + "\n", "application/x-ndjson");
+                } else {
+                    send(exchange, 405, "{\"error\":\"method not allowed\"}");
+                }
+            } else {
+                send(exchange, 404, "{\"error\":\"not found\"}");
+            }
+        }
+    }
+
+    private void createRace(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI());
+        Track track = tracks.get(query.getOrDefault("track", ""));
+        if (track == null) {
+            send(exchange, 404, "{\"error\":\"unknown track\"}");
+            return;
+        }
+        long seed;
+        long tickMillis;
+        try {
+            seed = query.containsKey("seed") ? Long.parseLong(query.get("seed")) : System.nanoTime();
+            tickMillis = Long.parseLong(query.getOrDefault("tickMillis", "0"));
+        } catch (NumberFormatException e) {
+            send(exchange, 400, "{\"error\":\"invalid number\"}");
+            return;
+        }
+        String id = Long.toString(nextRace.incrementAndGet());
+        String trackId = query.get("track");
+        RaceSession race = new RaceSession(id, trackId, track, courses.get(trackId), seed, Math.max(0, tickMillis),
+                this::retire);
+        races.put(id, race);
+        race.start();
+        send(exchange, 201, race.summary());
+    }
+
+    /**
+     * Replaces a race that is over by its summary and final frame, unless it was deleted meanwhile. The
+     * summary is stored first so that the race is never missing from both maps.
+     */
+    private void retire(RaceSession race) {
+        finishedRaces.put(race.getId(), new FinishedRace(race.summary(), race.getLastFrame()));
+        if (!races.remove(race.getId(), race)) {
+            finishedRaces.remove(race.getId());
+        }
+    }
+
+    /**
+     * Streams the frames of a race to a client until the race is over or the client disconnects.
+     */
+    private void stream(HttpExchange exchange, RaceSession race) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        RaceSession.Subscriber subscriber = race.subscribe();
+        try (OutputStream out = exchange.getResponseBody()) {
+            while (!subscriber.isDone()) {
+                String frame = subscriber.next(POLL_MILLIS);
+                if (frame != null) {
+                    out.write(frame.getBytes(StandardCharsets.UTF_8));
+                    out.write('\n');
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            race.unsubscribe(subscriber);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, json, "application/json");
+    }
+
+    private static void send(HttpExchange exchange, int status, String content, String type) throws IOException {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(pair.substring(0, equals), pair.substring(equals + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Identifies a track by the SHA-256 digest of its file, so that uploading the same track twice shares it
+     * while different files never collide.
+     */
+    private static String trackId(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Starts a server from the command line.
+     * <p>
+     * Usage: {@code RaceServer [port]}
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the server cannot start.
+     */
+    public static void main(String[] args) throws IOException {
+        Printer.setEnabled(false);
+        RaceServer server = new RaceServer(args.length > 0 ? Integer.parseInt(args[0]) : 8080);
+        server.start();
+        System.out.println("Serving races on http://localhost:" + server.getPort());
+    }
+}
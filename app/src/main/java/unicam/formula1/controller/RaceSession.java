@@ -0,0 +1,263 @@
+package unicam.formula1.controller;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.utils.SnapshotRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * One race hosted by the {@link RaceServer}: a {@link GameEngine} of bots on a shared track, run on its own
+ * virtual thread and publishing a JSON frame with the positions of the players after every tick.
+ * <p>
+ * The race never waits for its clients. Every subscriber has a bounded queue of frames; when a slow client
+ * lets it fill up, the oldest frame is dropped, which is harmless because each frame holds the complete
+ * positions. The final frame, holding the classification, is always delivered.
+ * <p>
+ * Once the race is over, the session calls back its owner so that the engine and the players can be dropped.
+ */
+public class RaceSession {
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final String id;
+    private final String trackId;
+    private final long seed;
+    private final long tickMillis;
+    private final GameEngine<Cell> engine;
+    private final List<Player<Cell>> roster;
+    private final List<Subscriber> subscribers;
+    private final LongAdder droppedFrames;
+    private final Consumer<RaceSession> onFinish;
+    private volatile int tick;
+    private volatile String lastFrame;
+    private volatile boolean finished;
+    private volatile Thread thread;
+
+    /**
+     * Constructs a race of bots, one on each start position of the track.
+     *
+     * @param id the identifier of the race.
+     * @param trackId the identifier of the track.
+     * @param track the shared parsed track, which the race only reads.
+     * @param course the compiled course of the track.
+     * @param seed the seed from which the engine and every bot derive their random generators.
+     * @param tickMillis the pause between two ticks, 0 to race as fast as possible.
+     * @param onFinish called on the race thread once the race is over and the final frame is published.
+     */
+    public RaceSession(String id, String trackId, Track track, LapCourse course, long seed, long tickMillis,
+                       Consumer<RaceSession> onFinish) {
+        this.id = id;
+        this.trackId = trackId;
+        this.seed = seed;
+        this.tickMillis = tickMillis;
+        List<Player<Cell>> players = new ArrayList<>();
+        List<Cell> starts = track.getStartPositions();
+        for (int i = 0; i < starts.size(); i++) {
+            players.add(new BotPlayer("Bot " + (i + 1), starts.get(i), track, BotParameters.DEFAULT,
+                    new SnapshotRandom(seed + i + 1)));
+        }
+        this.roster = List.copyOf(players);
+        this.engine = new GameEngine<>(players, seed);
+        this.engine.setCourse(course);
+        this.engine.setFullClassification(true);
+        this.subscribers = new CopyOnWriteArrayList<>();
+        this.droppedFrames = new LongAdder();
+        this.onFinish = onFinish;
+        this.lastFrame = frame();
+    }
+
+    /**
+     * Starts the race on a new virtual thread.
+     */
+    public void start() {
+        thread = Thread.ofVirtual().name("race-" + id).start(this::run);
+    }
+
+    /**
+     * Stops the race; subscribers receive the final frame.
+     */
+    public void cancel() {
+        Thread running = thread;
+        if (running != null) {
+            running.interrupt();
+        }
+    }
+
+    /**
+     * Registers a client receiving the frames of the race, starting from the latest one.
+     *
+     * @return the subscription, to be drained by the client.
+     */
+    public Subscriber subscribe() {
+        Subscriber subscriber = new Subscriber();
+        subscribers.add(subscriber);
+        subscriber.offer(lastFrame);
+        if (finished) {
+            subscriber.close();
+            subscribers.remove(subscriber);
+        }
+        return subscriber;
+    }
+
+    /**
+     * Removes a client.
+     *
+     * @param subscriber the subscription of the client.
+     */
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Returns the identifier of the race.
+     *
+     * @return the race id.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the latest frame of the race, the final one once the race is over.
+     *
+     * @return the JSON frame.
+     */
+    public String getLastFrame() {
+        return lastFrame;
+    }
+
+    /**
+     * Returns a one-line JSON summary of the race. Safe to call from any thread.
+     *
+     * @return the summary.
+     */
+    public String summary() {
+        return "{\"id\":\"" + id + "\",\"track\":\"" + trackId + "\",\"seed\":" + seed
+                + ",\"tick\":" + tick + ",\"finished\":" + finished
+                + ",\"subscribers\":" + subscribers.size() + ",\"droppedFrames\":" + droppedFrames.sum() + "}";
+    }
+
+    /**
+     * Returns whether the race is over.
+     *
+     * @return true once the race has ended or been cancelled.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private void run() {
+        try {
+            while (!engine.isTerminated() && !Thread.currentThread().isInterrupted()) {
+                engine.play();
+                tick = engine.getTick();
+                publish(frame());
+                if (tickMillis > 0) {
+                    Thread.sleep(tickMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Cancelled: fall through to the final frame
+        } finally {
+            finished = true;
+            publish(frame());
+            for (Subscriber subscriber : subscribers) {
+                subscriber.close();
+            }
+            subscribers.clear();
+            onFinish.accept(this);
+        }
+    }
+
+    private void publish(String frame) {
+        lastFrame = frame;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+    }
+
+    /**
+     * Builds the JSON frame of the current tick: the position of every player still racing, and the
+     * classification once the race is over.
+     */
+    private String frame() {
+        StringBuilder json = new StringBuilder("{\"race\":\"").append(id)
+                .append("\",\"tick\":").append(engine.getTick())
+                .append(",\"players\":[");
+        List<Player<Cell>> racing = engine.getPlayers();
+        for (int i = 0; i < racing.size(); i++) {
+            Cell position = racing.get(i).getCurrentPosition();
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"").append(racing.get(i).getName())
+                    .append("\",\"x\":").append(position.getX())
+                    .append(",\"y\":").append(position.getY()).append('}');
+        }
+        json.append(']');
+        if (finished) {
+            json.append(",\"classification\":[");
+            List<Player<Cell>> classification = engine.getClassification();
+            for (int i = 0; i < classification.size(); i++) {
+                json.append(i == 0 ? "" : ",").append("{\"name\":\"").append(classification.get(i).getName())
+                        .append("\",\"tick\":").append(engine.getFinishTick(classification.get(i))).append('}');
+            }
+            json.append("],\"crashed\":").append(roster.stream().filter(Player::hasCrashed).count());
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Bounded queue of frames for one client.
+     */
+    public class Subscriber {
+
+        private final BlockingQueue<String> frames = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean closed;
+
+        /**
+         * Enqueues a frame, dropping the oldest one if the client is behind.
+         */
+        private void offer(String frame) {
+            while (!frames.offer(frame)) {
+                if (frames.poll() != null) {
+                    droppedFrames.increment();
+                }
+            }
+        }
+
+        private void close() {
+            closed = true;
+        }
+
+        /**
+         * Waits for the next frame.
+         *
+         * @param timeoutMillis the maximum time to wait.
+         * @return the next frame, or null if none arrived in time or the race is over and every frame was taken.
+         * @throws InterruptedException if the waiting thread is interrupted.
+         */
+        public String next(long timeoutMillis) throws InterruptedException {
+            return frames.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Returns whether every frame has been taken and no more will come.
+         *
+         * @return true once the race is over and the queue is empty.
+         */
+        public boolean isDone() {
+            return closed && frames.isEmpty();
+        }
+    }
+}
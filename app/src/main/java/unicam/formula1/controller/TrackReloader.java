@@ -0,0 +1,189 @@
+package unicam.formula1.controller;
+
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.Course;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.TrackPatch;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reloads a track while a race is running whenever its file changes. A daemon thread watches the directory of
+ * the file and reads every new version, only the latest one being kept if several arrive between two ticks.
+ * The thread running the race calls {@link #applyPending(GameEngine)} between ticks: the new version is
+ * compared with the current grid, only the changed cells are rebuilt and relinked, and the grid and the
+ * compiled course are updated on those cells, so the race never sees a half-updated track.
+ * <p>
+ * The size of the track, the number of laps and the number of gates cannot change during a race, since
+ * positions and lap progress would lose their meaning; such versions are rejected.
+ */
+public class TrackReloader implements Closeable {
+
+    private final Path file;
+    private final Track track;
+    private final CircuitParser parser;
+    private final AtomicReference<String> pending;
+    private TrackGrid grid;
+    private LapCourse course;
+    private WatchService watcher;
+
+    /**
+     * Constructs a reloader for a track parsed from a file.
+     *
+     * @param file the track file.
+     * @param track the track parsed from the file, updated in place by reloads.
+     */
+    public TrackReloader(Path file, Track track) {
+        this.file = file.toAbsolutePath();
+        this.track = track;
+        this.parser = new CircuitParser();
+        this.pending = new AtomicReference<>();
+        this.grid = TrackGrid.of(track);
+        this.course = LapCourse.of(grid, track.getCourse());
+    }
+
+    /**
+     * Starts watching the track file.
+     *
+     * @throws IOException if the directory of the file cannot be watched.
+     */
+    public void start() throws IOException {
+        watcher = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(this::watch, "track-reloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the grid of the current version of the track.
+     *
+     * @return the current grid.
+     */
+    public TrackGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the compiled course of the current version of the track.
+     *
+     * @return the current compiled course.
+     */
+    public LapCourse getCourse() {
+        return course;
+    }
+
+    /**
+     * Applies the latest version of the file read since the previous call, if any. Must be called by the
+     * thread running the race, between two ticks. Players standing on changed cells are moved onto the new
+     * cells, those whose cell became a wall or oil are eliminated, and the engine gets the updated course.
+     *
+     * @param engine the engine racing on the track.
+     * @return true if the track changed.
+     * @throws IOException if the new version is malformed or changes the size or lap structure of the track,
+     *         in which case the track is left unchanged.
+     */
+    public boolean applyPending(GameEngine<Cell> engine) throws IOException {
+        String content = pending.getAndSet(null);
+        if (content == null) {
+            return false;
+        }
+        TrackPatch patch = parser.parsePatch(new BufferedReader(new StringReader(content)), grid);
+        Course previous = track.getCourse();
+        if (patch.course().laps() != previous.laps() || patch.course().gates().size() != previous.gates().size()) {
+            throw new IOException("The laps or gates of the course changed, restart to load them");
+        }
+        if (patch.changes().isEmpty() && patch.course().equals(previous)) {
+            return false;
+        }
+        if (!patch.course().equals(previous)) {
+            try {
+                LapCourse.of(grid, patch.course());
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        track.apply(patch);
+        grid = grid.with(track, patch);
+        course = patch.course().equals(previous) ? course.with(grid, patch) : LapCourse.of(grid, patch.course());
+        for (Player<Cell> player : engine.getPlayers()) {
+            Cell position = player.getCurrentPosition();
+            if (position != null && grid.index(position.getX(), position.getY()) != TrackGrid.NO_CELL) {
+                Cell current = track.getCell(position.getX(), position.getY());
+                if (current != position) {
+                    player.restore(current, player.getLastMove());
+                }
+            }
+        }
+        engine.eliminateCrashed();
+        engine.setCourse(course);
+        return true;
+    }
+
+    /**
+     * Reads every new version of the file until the reloader is closed.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        read();
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed by close()
+        }
+    }
+
+    /**
+     * Reads the file, skipping the empty file left by editors that truncate it before writing.
+     */
+    private void read() {
+        try {
+            String content = Files.readString(file);
+            if (!content.isBlank()) {
+                pending.set(content);
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot read track " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops watching the track file.
+     *
+     * @throws IOException if the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+}
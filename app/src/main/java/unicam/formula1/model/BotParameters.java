@@ -0,0 +1,59 @@
+package unicam.formula1.model;
+
+import unicam.formula1.model.sim.MoveModel;
+
+/**
+ * Behavior parameters of a {@link BotPlayer}, which can also be handled as a vector of doubles
+ * by optimizers tuning bots for a circuit.
+ *
+ * @param crashProbability the probability that an adjacent move ends in a crash.
+ * @param mainMoveProbability the probability that the engine asks the bot for its main move
+ *                            rather than an adjacent move.
+ */
+public record BotParameters(double crashProbability, double mainMoveProbability) {
+
+    /**
+     * Parameters of the original bot: one crash every 40 adjacent moves and an even main/adjacent split.
+     */
+    public static final BotParameters DEFAULT =
+            new BotParameters(MoveModel.DEFAULT_CRASH_PROBABILITY, MoveModel.DEFAULT_MAIN_PROBABILITY);
+
+    /**
+     * Number of parameters in the vector form.
+     */
+    public static final int SIZE = 2;
+
+    /**
+     * Validates the parameters.
+     *
+     * @throws IllegalArgumentException if a probability is outside [0, 1].
+     */
+    public BotParameters {
+        if (!(crashProbability >= 0 && crashProbability <= 1)
+                || !(mainMoveProbability >= 0 && mainMoveProbability <= 1)) {
+            throw new IllegalArgumentException("Probabilities must be between 0 and 1");
+        }
+    }
+
+    /**
+     * Builds parameters from their vector form.
+     *
+     * @param vector the parameters, in the order of {@link #toVector()}.
+     * @return the parameters.
+     */
+    public static BotParameters fromVector(double[] vector) {
+        if (vector.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE + " parameters");
+        }
+        return new BotParameters(vector[0], vector[1]);
+    }
+
+    /**
+     * Returns the vector form of the parameters.
+     *
+     * @return the crash probability followed by the main move probability.
+     */
+    public double[] toVector() {
+        return new double[]{crashProbability, mainMoveProbability};
+    }
+}
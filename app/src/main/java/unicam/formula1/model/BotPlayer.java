@@ -3,7 +3,10 @@ package unicam.formula1.model;
 import unicam.formula1.model.abstracts.CellType;
 import unicam.formula1.model.abstracts.ITrack;
 import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.utils.SnapshotRandom;
+
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.Random;
 
 /**
@@ -13,6 +16,7 @@ import java.util.Random;
 public class BotPlayer extends Player<Cell> {
 
     private final Random random;
+    private final BotParameters parameters;
 
     /**
      * Constructs a new BotPlayer with a specified name, starting position, and associated track.
@@ -22,8 +26,69 @@ public class BotPlayer extends Player<Cell> {
      * @param track the track on which the bot will race.
      */
     public BotPlayer(String name, Cell startPosition, ITrack<Cell> track) {
+        this(name, startPosition, track, BotParameters.DEFAULT, new SnapshotRandom());
+    }
+
+    /**
+     * Constructs a new BotPlayer with the given behavior parameters and source of randomness.
+     *
+     * @param name the name of the bot player.
+     * @param startPosition the starting position of the bot on the track.
+     * @param track the track on which the bot will race.
+     * @param parameters the behavior parameters of the bot.
+     * @param random the source of randomness, which can be seeded to replay a race; a {@link SnapshotRandom}
+     *               also lets the bot be checkpointed and resumed.
+     */
+    public BotPlayer(String name, Cell startPosition, ITrack<Cell> track, BotParameters parameters, Random random) {
         super(name, startPosition, track);
-        this.random = new Random();
+        this.random = random;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Returns the behavior parameters of the bot.
+     *
+     * @return the bot parameters.
+     */
+    public BotParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the state of the random generator of the bot, if it is a {@link SnapshotRandom}.
+     *
+     * @return the random generator state, or an empty value.
+     */
+    @Override
+    public OptionalLong getRandomState() {
+        return random instanceof SnapshotRandom snapshotRandom
+                ? OptionalLong.of(snapshotRandom.getState())
+                : OptionalLong.empty();
+    }
+
+    /**
+     * Restores the state of the random generator of the bot.
+     *
+     * @param state the random generator state.
+     * @throws UnsupportedOperationException if the random generator is not a {@link SnapshotRandom}.
+     */
+    @Override
+    public void setRandomState(long state) {
+        if (!(random instanceof SnapshotRandom snapshotRandom)) {
+            super.setRandomState(state);
+            return;
+        }
+        snapshotRandom.setState(state);
+    }
+
+    /**
+     * Returns the probability that the engine asks this bot for its main move.
+     *
+     * @return the main move probability of the bot parameters.
+     */
+    @Override
+    public double getMainMoveProbability() {
+        return parameters.mainMoveProbability();
     }
 
     /**
@@ -40,7 +105,7 @@ public class BotPlayer extends Player<Cell> {
                 .filter(n -> n.getCellType().equals(CellType.TRACK) || n.getCellType().equals(CellType.FINISH))
                 .toList();
         // Random chance of making a move that results in a crash
-        if (random.nextInt(40) == 0)
+        if (random.nextDouble() < parameters.crashProbability())
             return new Cell(-1, -1, CellType.OFF_TRACK);
 
         // Return a randomly chosen safe neighbor if no crash occurs
@@ -65,9 +130,9 @@ public class BotPlayer extends Player<Cell> {
         if (mainX < 0 || mainY < 0 || mainX >= getTrack().getWidth() || mainY >= getTrack().getHeight()) {
             return adjacentMove();
         } else {
-            Cell potentialCell = getTrack().getCell(mainX, mainY);
-            if (potentialCell != null && potentialCell.getCellType().equals(CellType.TRACK)) {
-                return potentialCell;
+            // Checking the type first avoids creating a cell object for off-track targets
+            if (getTrack().getCellType(mainX, mainY) == CellType.TRACK) {
+                return getTrack().getCell(mainX, mainY);
             }
         }
         return adjacentMove();
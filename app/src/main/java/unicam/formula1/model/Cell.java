@@ -83,4 +83,11 @@ public class Cell implements ICell<Cell> {
     public void addNeighbor(Cell neighbor) {
         this.neighbors.add(neighbor);
     }
+
+    /**
+     * Removes every neighbor of this cell, before linking it again after the track changed.
+     */
+    public void clearNeighbors() {
+        this.neighbors.clear();
+    }
 }
@@ -1,14 +1,24 @@
 package unicam.formula1.model;
 
 import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.utils.metrics.EngineMetrics;
+import unicam.formula1.utils.metrics.TrackParseEvent;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Handles parsing of a track configuration file and constructs a {@link Track} object based on the file content.
  * This parser reads the dimensions and cell types from a file to create the track and set up its structure,
- * including the cells and their neighbors.
+ * including the cells and their neighbors. OFF_TRACK cells are only recorded as such, without a cell object.
+ * <p>
+ * The rows of cells may be followed by the {@link Course} of the track, one directive per line:
+ * {@code laps <count>} sets the number of laps and each {@code gate <x1> <y1> <x2> <y2>} adds the next
+ * checkpoint gate, covering the rectangle between the two corners. The same directives can be kept in a
+ * separate file and read with {@link #parseCourse(BufferedReader, int, int)}.
  */
 public class CircuitParser {
 
@@ -23,6 +33,30 @@ public class CircuitParser {
      *         the dimensions are missing, or the cell rows are incorrect in length.
      */
     public Track parseFile(BufferedReader br) throws IOException {
+        TrackParseEvent event = new TrackParseEvent();
+        event.begin();
+        long start = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+        Track track = parseTrack(br);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.PARSE_NANOS.record(System.nanoTime() - start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.width = track.getWidth();
+            event.height = track.getHeight();
+            event.commit();
+        }
+        return track;
+    }
+
+    /**
+     * Reads the dimensions and the cell rows of a track and links the neighbors of its cells.
+     *
+     * @param br the BufferedReader that reads from the configuration file.
+     * @return the parsed track.
+     * @throws IOException if the file is empty, incomplete or malformed.
+     */
+    private Track parseTrack(BufferedReader br) throws IOException {
         String line = br.readLine();
         if (line == null) {
             throw new IOException("Configuration file is empty or invalid");
@@ -39,40 +73,99 @@ public class CircuitParser {
             }
             for (int x = 0; x < width; x++) {
                 CellType cellType = CellType.fromSymbol(line.charAt(x));
-                Cell cell = new Cell(x, y, cellType);
-                track.addCell(cell);
+                if (cellType == CellType.OFF_TRACK) {
+                    track.addOffTrack(x, y);
+                } else {
+                    track.addCell(new Cell(x, y, cellType));
+                }
+            }
+            if ((y + 1) % TiledCells.TILE_SIZE == 0 || y == height - 1) {
+                track.compactRow(y);
             }
         }
 
-        setNeighbors(track);
+        track.linkAll();
+        track.setCourse(parseCourse(br, width, height));
         return track;
     }
 
     /**
-     * Sets the neighboring cells for each cell in the track.
-     * Neighbors are determined based on the adjacent cells in all eight directions (vertical, horizontal, and diagonal).
+     * Parses a new version of a track file against the current grid of the track, creating cells only where
+     * the type changed instead of building and linking a whole new track.
      *
-     * @param track the Track object for which neighbors are to be set.
+     * @param br the BufferedReader that reads the new version of the file.
+     * @param current the grid of the current version of the track.
+     * @return the patch turning the current track into the new version.
+     * @throws IOException if the file is incomplete or malformed, or the dimensions of the track changed.
      */
-    private void setNeighbors(Track track) {
-        int[][] directions = {
-                {-1, 0}, {1, 0}, {0, -1}, {0, 1},
-                {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
-        };
-        for (int y = 0; y < track.getHeight(); y++) {
-            for (int x = 0; x < track.getWidth(); x++) {
-                Cell cell = track.getCell(x, y);
-                if (cell == null) continue;
-                for (int[] dir : directions) {
-                    int nx = x + dir[0];
-                    int ny = y + dir[1];
-                    Cell neighbor = track.getCell(nx, ny);
-                    if (neighbor != null) {
-                        cell.addNeighbor(neighbor);
-                    }
+    public TrackPatch parsePatch(BufferedReader br, TrackGrid current) throws IOException {
+        String line = br.readLine();
+        if (line == null) {
+            throw new IOException("Configuration file is empty or invalid");
+        }
+        String[] dimensions = line.split(" ");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        if (width != current.getWidth() || height != current.getHeight()) {
+            throw new IOException("Track size changed from " + current.getWidth() + "x" + current.getHeight()
+                    + " to " + width + "x" + height + ", restart to load it");
+        }
+        List<TrackPatch.Change> changes = new ArrayList<>();
+        for (int y = 0; y < height; y++) {
+            line = br.readLine();
+            if (line == null || line.length() != width) {
+                throw new IOException("Line dimension is invalid or file is incomplete");
+            }
+            for (int x = 0; x < width; x++) {
+                CellType cellType = CellType.fromSymbol(line.charAt(x));
+                if (cellType != current.type(current.index(x, y))) {
+                    changes.add(new TrackPatch.Change(x, y, cellType));
                 }
             }
         }
+        return new TrackPatch(changes, parseCourse(br, width, height));
     }
 
+    /**
+     * Parses course directives until the end of the input.
+     *
+     * @param br the BufferedReader that reads the directives.
+     * @param width the width of the track the course belongs to.
+     * @param height the height of the track the course belongs to.
+     * @return the course, a single lap without gates if there is no directive.
+     * @throws IOException if a directive is malformed or a gate lies outside the track.
+     */
+    public Course parseCourse(BufferedReader br, int width, int height) throws IOException {
+        int laps = 1;
+        List<Course.Gate> gates = new ArrayList<>();
+        String line;
+        while ((line = br.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+            try {
+                if (tokens[0].equals("laps") && tokens.length == 2) {
+                    laps = Integer.parseInt(tokens[1]);
+                } else if (tokens[0].equals("gate") && tokens.length == 5) {
+                    Course.Gate gate = new Course.Gate(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]),
+                            Integer.parseInt(tokens[3]), Integer.parseInt(tokens[4]));
+                    if (Math.min(gate.x1(), gate.x2()) < 0 || Math.max(gate.x1(), gate.x2()) >= width
+                            || Math.min(gate.y1(), gate.y2()) < 0 || Math.max(gate.y1(), gate.y2()) >= height) {
+                        throw new IOException("Gate outside the track: " + line);
+                    }
+                    gates.add(gate);
+                } else {
+                    throw new IOException("Invalid course directive: " + line);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid number in course directive: " + line, e);
+            }
+        }
+        try {
+            return new Course(laps, gates);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package unicam.formula1.model;
+
+import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.abstracts.Player;
+
+/**
+ * Represents a bot player following the route planned for it by its {@link CooperativeTeam}, which keeps
+ * the routes of all members from crossing. Main and adjacent moves both follow the plan, the rules of
+ * {@link BotPlayer} deciding whether the move risks a crash.
+ */
+public class CooperativeBotPlayer extends Player<Cell> {
+
+    private final CooperativeTeam team;
+    private final int id;
+
+    /**
+     * Constructs a new CooperativeBotPlayer, see {@link CooperativeTeam#join(String, Cell)}.
+     *
+     * @param name the name of the bot player.
+     * @param startPosition the starting position of the bot on the track.
+     * @param track the track on which the bot will race.
+     * @param team the team planning the route of the bot.
+     * @param id the index of the bot in its team.
+     */
+    CooperativeBotPlayer(String name, Cell startPosition, ITrack<Cell> track, CooperativeTeam team, int id) {
+        super(name, startPosition, track);
+        this.team = team;
+        this.id = id;
+    }
+
+    /**
+     * Returns the index of the bot in its team.
+     *
+     * @return the team index.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Follows the planned route.
+     *
+     * @return the next cell of the route, or an off-track cell if the bot crashes.
+     */
+    @Override
+    public Cell mainMove() {
+        return team.move(this);
+    }
+
+    /**
+     * Follows the planned route.
+     *
+     * @return the next cell of the route, or an off-track cell if the bot crashes.
+     */
+    @Override
+    public Cell adjacentMove() {
+        return team.move(this);
+    }
+}
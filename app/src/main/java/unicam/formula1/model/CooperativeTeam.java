@@ -0,0 +1,157 @@
+package unicam.formula1.model;
+
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.sim.CooperativePlanner;
+import unicam.formula1.model.sim.DistanceField;
+import unicam.formula1.model.sim.MoveModel;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.model.sim.TransitionGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Group of {@link CooperativeBotPlayer}s sharing one {@link CooperativePlanner}, so that their routes
+ * avoid each other instead of colliding or queuing. The engine asks every player for one move per tick,
+ * and the first request of a tick replans the whole team from the positions of that tick whenever half the
+ * window has been used or a racing car has run out of plan. The other requests of the tick only read the
+ * plans. Moves follow the rules of {@link BotPlayer}: only repeating the last move onto a TRACK cell is
+ * free from the chance of crashing.
+ * <p>
+ * The planner heads for the nearest FINISH cell, so teams suit single-lap courses.
+ */
+public class CooperativeTeam {
+
+    private final ITrack<Cell> track;
+    private final TrackGrid grid;
+    private final int window;
+    private final Random random;
+    private final List<CooperativeBotPlayer> members;
+    private CooperativePlanner planner;
+    private int[] moves;
+    private int tick;
+    private int lastReplan;
+    private int replans;
+
+    /**
+     * Constructs an empty team.
+     *
+     * @param track the track the team races on.
+     * @param window the number of ticks planned ahead.
+     * @param random the random generator deciding crashes.
+     */
+    public CooperativeTeam(ITrack<Cell> track, int window, Random random) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.track = track;
+        this.grid = TrackGrid.of(track);
+        this.window = window;
+        this.random = random;
+        this.members = new ArrayList<>();
+        this.tick = -1;
+        this.lastReplan = -1;
+    }
+
+    /**
+     * Creates a member of the team. Every member must join before the race starts.
+     *
+     * @param name the name of the player.
+     * @param start the start position of the player.
+     * @return the new player.
+     * @throws IllegalStateException if the team has already started planning.
+     */
+    public CooperativeBotPlayer join(String name, Cell start) {
+        if (planner != null) {
+            throw new IllegalStateException("Players must join before the race starts");
+        }
+        CooperativeBotPlayer player = new CooperativeBotPlayer(name, start, track, this, members.size());
+        members.add(player);
+        return player;
+    }
+
+    /**
+     * Returns the number of times the team was replanned.
+     *
+     * @return the replan count.
+     */
+    public int getReplans() {
+        return replans;
+    }
+
+    /**
+     * Chooses the move of a member for the current tick.
+     */
+    Cell move(CooperativeBotPlayer player) {
+        if (planner == null) {
+            planner = new CooperativePlanner(grid, members.size(), window);
+            moves = new int[members.size()];
+        }
+        int car = player.getId();
+        int carTick = moves[car]++;
+        if (carTick > tick) {
+            tick = carTick;
+            if (tick - lastReplan >= Math.max(1, window / 2) || hasRacingCarWithoutPlan()) {
+                replan();
+            }
+        }
+        int cell = grid.indexOf(player.getCurrentPosition());
+        int velocity = MoveModel.velocity(grid, player.getLastMove());
+        int target = planner.next(car, carTick);
+        if (target == TrackGrid.NO_CELL || MoveModel.velocity(grid, cell, target) == MoveModel.NO_VELOCITY) {
+            target = closestNeighbor(cell);
+        }
+        if (target == TrackGrid.NO_CELL || (MoveModel.mainTarget(grid, cell, velocity) != target
+                && random.nextInt(MoveModel.CRASH_CHANCE) == 0)) {
+            return new Cell(-1, -1, CellType.OFF_TRACK);
+        }
+        return grid.cell(target);
+    }
+
+    private boolean hasRacingCarWithoutPlan() {
+        for (CooperativeBotPlayer member : members) {
+            if (isRacing(member) && planner.next(member.getId(), tick) == TrackGrid.NO_CELL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRacing(CooperativeBotPlayer member) {
+        return moves[member.getId()] >= tick && !member.hasCrashed() && !member.hasFinished();
+    }
+
+    private void replan() {
+        int[] positions = new int[members.size()];
+        int[] velocities = new int[members.size()];
+        for (CooperativeBotPlayer member : members) {
+            int car = member.getId();
+            positions[car] = isRacing(member) ? grid.indexOf(member.getCurrentPosition()) : TrackGrid.NO_CELL;
+            velocities[car] = MoveModel.velocity(grid, member.getLastMove());
+        }
+        planner.replan(tick, positions, velocities);
+        lastReplan = tick;
+        replans++;
+    }
+
+    /**
+     * Falls back to the safe neighbor closest to the finish, or {@link TrackGrid#NO_CELL} if there is none.
+     */
+    private int closestNeighbor(int cell) {
+        if (cell == TrackGrid.NO_CELL) {
+            return TrackGrid.NO_CELL;
+        }
+        TransitionGraph graph = grid.transitions();
+        DistanceField distances = planner.getDistances();
+        int best = TrackGrid.NO_CELL;
+        for (int edge = graph.begin(cell), end = graph.end(cell); edge < end; edge++) {
+            int target = graph.target(edge);
+            if (best == TrackGrid.NO_CELL || distances.distance(target) < distances.distance(best)) {
+                best = target;
+            }
+        }
+        return best;
+    }
+}
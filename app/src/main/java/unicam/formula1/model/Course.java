@@ -0,0 +1,53 @@
+package unicam.formula1.model;
+
+import java.util.List;
+
+/**
+ * Lap structure of a race: the number of laps and the ordered checkpoint gates a car must cross on every lap
+ * before reaching the finish line. Each gate is a rectangle of cells, usually a line across the road.
+ * The default course is a single lap without gates, where touching a FINISH cell wins the race.
+ *
+ * @param laps the number of laps.
+ * @param gates the checkpoint gates, in the order they must be crossed.
+ */
+public record Course(int laps, List<Gate> gates) {
+
+    /**
+     * Course of a single lap without checkpoint gates.
+     */
+    public static final Course SINGLE_LAP = new Course(1, List.of());
+
+    /**
+     * Validates the course and copies the gate list.
+     *
+     * @throws IllegalArgumentException if the lap count is not positive.
+     */
+    public Course {
+        if (laps <= 0) {
+            throw new IllegalArgumentException("A course needs at least one lap");
+        }
+        gates = List.copyOf(gates);
+    }
+
+    /**
+     * Checkpoint gate covering the cells between two corners, both included.
+     *
+     * @param x1 the x coordinate of the first corner.
+     * @param y1 the y coordinate of the first corner.
+     * @param x2 the x coordinate of the opposite corner.
+     * @param y2 the y coordinate of the opposite corner.
+     */
+    public record Gate(int x1, int y1, int x2, int y2) {
+
+        /**
+         * Checks whether the gate covers a cell.
+         *
+         * @param x the x coordinate of the cell.
+         * @param y the y coordinate of the cell.
+         * @return true if the cell belongs to the gate.
+         */
+        public boolean contains(int x, int y) {
+            return x >= Math.min(x1, x2) && x <= Math.max(x1, x2) && y >= Math.min(y1, y2) && y <= Math.max(y1, y2);
+        }
+    }
+}
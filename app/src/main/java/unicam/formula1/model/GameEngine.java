@@ -1,11 +1,24 @@
 package unicam.formula1.model;
 
 import unicam.formula1.model.abstracts.*;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.snapshot.RaceSnapshot;
+import unicam.formula1.model.snapshot.SnapshotWriter;
 import unicam.formula1.utils.Printer;
+import unicam.formula1.utils.SnapshotRandom;
+import unicam.formula1.utils.metrics.EngineMetrics;
+import unicam.formula1.utils.metrics.PlayerEliminatedEvent;
+import unicam.formula1.utils.metrics.RaceTickEvent;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -16,9 +29,24 @@ import java.util.stream.Collectors;
  */
 public class GameEngine<T extends ICell<T>> implements IEngine<T> {
 
+    /**
+     * Value of {@link #getFinishTick(Player)} for a player that has not finished.
+     */
+    public static final int NOT_FINISHED = -1;
+
     private final List<Player<T>> players;
+    private final List<Player<T>> roster;
+    private final Map<Player<T>, Integer> rosterIndex;
+    private final int[] progress;
+    private final int[] finishTicks;
+    private LapCourse course;
+    private boolean fullClassification;
+    private int finishedCount;
     private boolean raceOn;
-    private final Random random;
+    private final SnapshotRandom random;
+    private int tick;
+    private SnapshotWriter checkpointWriter;
+    private int checkpointInterval;
 
     /**
      * Constructs a GameEngine with a list of players.
@@ -26,9 +54,31 @@ public class GameEngine<T extends ICell<T>> implements IEngine<T> {
      * @param players the list of players participating in the game.
      */
     public GameEngine(List<Player<T>> players) {
+        this(players, new SnapshotRandom());
+    }
+
+    /**
+     * Constructs a GameEngine with a list of players and a seed for its random choices.
+     *
+     * @param players the list of players participating in the game.
+     * @param seed the seed of the random generator choosing between main and adjacent moves.
+     */
+    public GameEngine(List<Player<T>> players, long seed) {
+        this(players, new SnapshotRandom(seed));
+    }
+
+    private GameEngine(List<Player<T>> players, SnapshotRandom random) {
         this.players = players;
+        this.roster = List.copyOf(players);
+        this.rosterIndex = new IdentityHashMap<>();
+        for (int i = 0; i < roster.size(); i++) {
+            rosterIndex.put(roster.get(i), i);
+        }
+        this.progress = new int[roster.size()];
+        this.finishTicks = new int[roster.size()];
+        Arrays.fill(finishTicks, NOT_FINISHED);
         this.raceOn = true;
-        this.random = new Random();
+        this.random = random;
     }
 
     /**
@@ -38,19 +88,299 @@ public class GameEngine<T extends ICell<T>> implements IEngine<T> {
     @Override
     public void play() {
         if (!isTerminated()) {
-            players.forEach(player -> {
-                T newPosition = random.nextBoolean() ? player.mainMove() : player.adjacentMove();
+            RaceTickEvent event = new RaceTickEvent();
+            event.begin();
+            long tickStart = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+            int mainMoves = 0;
+            for (Player<T> player : players) {
+                boolean main = random.nextDouble() < player.getMainMoveProbability();
+                T newPosition = main ? mainMove(player) : adjacentMove(player);
+                if (main) {
+                    mainMoves++;
+                }
                 player.setPosition(newPosition);
                 Printer.printPlayerPosition(player);
-                if (player.hasFinished()) {
-                    Printer.printPlayerVictory(player);
-                    raceOn = false;
+                if (hasFinished(player)) {
+                    recordFinish(player);
                 }
-            });
-            deletePlayers(players.stream().filter(Player::hasCrashed).toList());
+            }
+            int moved = players.size();
+            List<Player<T>> crashed = players.stream().filter(Player::hasCrashed).toList();
+            deletePlayers(crashed);
+            if (fullClassification) {
+                players.removeIf(player -> finishTicks[rosterIndex.get(player)] != NOT_FINISHED);
+            }
+            if (EngineMetrics.ENABLED) {
+                EngineMetrics.TICKS.increment();
+                EngineMetrics.CRASHES.add(crashed.size());
+                EngineMetrics.TICK_NANOS.record(System.nanoTime() - tickStart);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.players = moved;
+                event.mainMoves = mainMoves;
+                event.adjacentMoves = moved - mainMoves;
+                event.crashes = crashed.size();
+                event.commit();
+            }
+            tick++;
+            if (checkpointWriter != null && (tick % checkpointInterval == 0 || isTerminated())) {
+                checkpointWriter.submit(snapshot());
+            }
         }
     }
 
+    /**
+     * Records the move of a player along the course and checks whether it completed the race.
+     * Without a course, reaching a FINISH cell completes the race.
+     */
+    private boolean hasFinished(Player<T> player) {
+        if (course == null) {
+            return player.hasFinished();
+        }
+        T position = player.getCurrentPosition();
+        if (!onTrack(player, position)) {
+            return false;
+        }
+        int index = rosterIndex.get(player);
+        progress[index] = course.advance(progress[index], position.getX(), position.getY());
+        return course.isComplete(progress[index]);
+    }
+
+    /**
+     * Records the finishing tick of a player and announces its result. Without full classification the
+     * first finisher ends the race.
+     */
+    private void recordFinish(Player<T> player) {
+        int index = rosterIndex.get(player);
+        if (finishTicks[index] != NOT_FINISHED) {
+            return;
+        }
+        finishTicks[index] = tick + 1;
+        finishedCount++;
+        if (finishedCount == 1) {
+            Printer.printPlayerVictory(player);
+        } else {
+            Printer.printPlayerFinish(player, finishedCount);
+        }
+        if (!fullClassification) {
+            raceOn = false;
+        }
+    }
+
+    /**
+     * Chooses whether the race goes on after the first player finishes. With full classification the race
+     * lasts until every player has finished or crashed, and finished players leave the list of players
+     * moved every tick. The mode must be set before the race starts.
+     *
+     * @param fullClassification true to race until every player has finished or crashed.
+     */
+    public void setFullClassification(boolean fullClassification) {
+        this.fullClassification = fullClassification;
+    }
+
+    /**
+     * Returns the players that have finished, in finishing order. Players finishing in the same tick are
+     * ordered as the engine moved them.
+     *
+     * @return the classification of the race.
+     */
+    public List<Player<T>> getClassification() {
+        List<Player<T>> classification = new ArrayList<>();
+        for (int i = 0; i < roster.size(); i++) {
+            if (finishTicks[i] != NOT_FINISHED) {
+                classification.add(roster.get(i));
+            }
+        }
+        classification.sort(Comparator.comparingInt(player -> finishTicks[rosterIndex.get(player)]));
+        return classification;
+    }
+
+    /**
+     * Returns the tick at which a player finished, the first tick being 1.
+     *
+     * @param player a player of the race.
+     * @return the finishing tick, or {@link #NOT_FINISHED}.
+     */
+    public int getFinishTick(Player<T> player) {
+        Integer index = rosterIndex.get(player);
+        return index == null ? NOT_FINISHED : finishTicks[index];
+    }
+
+    /**
+     * Sets the lap structure of the race. The race is won by the first player completing every lap, crossing
+     * the checkpoint gates in order, instead of the first player touching a FINISH cell. The course must be
+     * set before the race starts.
+     *
+     * @param course the compiled course of the track, or null to end the race on the first FINISH cell.
+     */
+    public void setCourse(LapCourse course) {
+        this.course = course;
+    }
+
+    /**
+     * Returns the number of laps a player has completed.
+     *
+     * @param player a player of the race.
+     * @return the completed laps, 0 without a course.
+     */
+    public int getLap(Player<T> player) {
+        Integer index = rosterIndex.get(player);
+        return course == null || index == null ? 0 : course.lap(progress[index]);
+    }
+
+    /**
+     * Returns the number of rounds played.
+     *
+     * @return the tick count.
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Enables periodic checkpoints: every {@code interval} ticks, and when the race ends, a snapshot is
+     * captured and handed to the writer, which stores it in the background.
+     *
+     * @param writer the writer storing the snapshots, or null to disable checkpoints.
+     * @param interval the number of ticks between two checkpoints.
+     */
+    public void setCheckpoints(SnapshotWriter writer, int interval) {
+        if (writer != null && interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.checkpointWriter = writer;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Captures the state of the race between two ticks. Eliminated players are included, so the snapshot
+     * describes every player the engine was constructed with.
+     *
+     * @return the snapshot of the race.
+     */
+    public RaceSnapshot snapshot() {
+        List<RaceSnapshot.PlayerState> states = new ArrayList<>(roster.size());
+        Set<Player<T>> alive = Collections.newSetFromMap(new IdentityHashMap<>());
+        alive.addAll(players);
+        for (int i = 0; i < roster.size(); i++) {
+            Player<T> player = roster.get(i);
+            T position = player.getCurrentPosition();
+            Move<T> lastMove = player.getLastMove();
+            T lastStart = lastMove == null ? null : lastMove.getStart();
+            OptionalLong playerRandom = player.getRandomState();
+            states.add(new RaceSnapshot.PlayerState(player.getName(),
+                    alive.contains(player), finishTicks[i] != NOT_FINISHED, finishTicks[i], progress[i],
+                    x(player, position), y(player, position),
+                    lastMove != null, x(player, lastStart), y(player, lastStart),
+                    playerRandom.isPresent(), playerRandom.orElse(0)));
+        }
+        return new RaceSnapshot(tick, raceOn, random.getState(), states);
+    }
+
+    /**
+     * Resumes the race from a snapshot. The engine must have been constructed with the same players,
+     * in the same order, and the same course as the engine the snapshot was taken from; positions, last
+     * moves, lap progress, random generators and the tick count are restored and eliminated players are
+     * removed, so that the race continues exactly as it would have without interruption.
+     *
+     * @param snapshot the snapshot to resume from.
+     * @throws IllegalArgumentException if the snapshot was taken with different players.
+     */
+    public void restore(RaceSnapshot snapshot) {
+        List<RaceSnapshot.PlayerState> states = snapshot.players();
+        if (states.size() != roster.size()) {
+            throw new IllegalArgumentException("Snapshot has " + states.size() + " players, engine has "
+                    + roster.size());
+        }
+        for (int i = 0; i < states.size(); i++) {
+            if (!states.get(i).name().equals(roster.get(i).getName())) {
+                throw new IllegalArgumentException("Snapshot player " + states.get(i).name() + " does not match "
+                        + roster.get(i).getName());
+            }
+        }
+        players.clear();
+        for (int i = 0; i < states.size(); i++) {
+            RaceSnapshot.PlayerState state = states.get(i);
+            Player<T> player = roster.get(i);
+            T position = cell(player, state.x(), state.y());
+            Move<T> lastMove = state.hasLastMove()
+                    ? new Move<>(cell(player, state.lastX(), state.lastY()), position) : null;
+            player.restore(position, lastMove);
+            if (state.hasRandom()) {
+                player.setRandomState(state.randomState());
+            }
+            progress[i] = state.progress();
+            finishTicks[i] = state.finishTick();
+            if (state.alive()) {
+                players.add(player);
+            }
+        }
+        this.finishedCount = (int) Arrays.stream(finishTicks).filter(t -> t != NOT_FINISHED).count();
+        this.tick = snapshot.tick();
+        this.raceOn = snapshot.raceOn();
+        this.random.setState(snapshot.randomState());
+    }
+
+    /**
+     * Returns the x coordinate of a cell, or {@link RaceSnapshot#NO_COORDINATE} for a missing cell or a
+     * cell outside the track, such as the one returned by a crashing bot.
+     */
+    private static int x(Player<?> player, ICell<?> cell) {
+        return onTrack(player, cell) ? cell.getX() : RaceSnapshot.NO_COORDINATE;
+    }
+
+    private static int y(Player<?> player, ICell<?> cell) {
+        return onTrack(player, cell) ? cell.getY() : RaceSnapshot.NO_COORDINATE;
+    }
+
+    private static boolean onTrack(Player<?> player, ICell<?> cell) {
+        return cell != null && cell.getX() >= 0 && cell.getY() >= 0
+                && cell.getX() < player.getTrack().getWidth() && cell.getY() < player.getTrack().getHeight();
+    }
+
+    private static <T extends ICell<T>> T cell(Player<T> player, int x, int y) {
+        return x == RaceSnapshot.NO_COORDINATE ? null : player.getTrack().getCell(x, y);
+    }
+
+    /**
+     * Asks a player for its main move, timing the call when metrics are enabled.
+     */
+    private T mainMove(Player<T> player) {
+        if (!EngineMetrics.ENABLED) {
+            return player.mainMove();
+        }
+        long start = System.nanoTime();
+        T move = player.mainMove();
+        EngineMetrics.MAIN_MOVE_NANOS.record(System.nanoTime() - start);
+        return move;
+    }
+
+    /**
+     * Asks a player for its adjacent move, timing the call when metrics are enabled.
+     */
+    private T adjacentMove(Player<T> player) {
+        if (!EngineMetrics.ENABLED) {
+            return player.adjacentMove();
+        }
+        long start = System.nanoTime();
+        T move = player.adjacentMove();
+        EngineMetrics.ADJACENT_MOVE_NANOS.record(System.nanoTime() - start);
+        return move;
+    }
+
+    /**
+     * Eliminates the players standing on a cell that cannot be driven on, which happens when the track changed
+     * under them between two ticks. Must be called between two ticks.
+     *
+     * @return the eliminated players.
+     */
+    public List<Player<T>> eliminateCrashed() {
+        List<Player<T>> crashed = players.stream().filter(Player::hasCrashed).toList();
+        deletePlayers(crashed);
+        return crashed;
+    }
+
     /**
      * Returns the list of players currently in the game.
      *
@@ -63,12 +393,16 @@ public class GameEngine<T extends ICell<T>> implements IEngine<T> {
 
     /**
      * Determines whether the game has ended, either because the race condition is false
-     * or there is only one or no player remaining.
+     * or there is only one or no player remaining. With full classification the game ends when no player
+     * is left racing.
      *
      * @return true if the game is over, false otherwise.
      */
     @Override
     public boolean isTerminated() {
+        if (fullClassification) {
+            return players.isEmpty();
+        }
         return !this.raceOn || players.size() <= 1;
     }
 
@@ -81,5 +415,16 @@ public class GameEngine<T extends ICell<T>> implements IEngine<T> {
     private void deletePlayers(List<Player<T>> playersToRemove) {
         this.players.removeAll(playersToRemove);
         playersToRemove.forEach(Printer::printPlayerElimination);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.ELIMINATIONS.add(playersToRemove.size());
+        }
+        for (Player<T> player : playersToRemove) {
+            PlayerEliminatedEvent event = new PlayerEliminatedEvent();
+            if (event.shouldCommit()) {
+                event.player = player.getName();
+                event.crashed = player.hasCrashed();
+                event.commit();
+            }
+        }
     }
 }
@@ -0,0 +1,109 @@
+package unicam.formula1.model;
+
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Spills OIL on the track while a race runs and clears it after a fixed number of ticks. Oil only lands on
+ * free TRACK cells, so start positions, the finish line and cars are never covered, and cleared cells go back
+ * to TRACK unless something else, such as a reload of the track file, changed them meanwhile. Every step
+ * returns the {@link TrackPatch} it applied to the track, which data derived from the
+ * track, such as a {@link unicam.formula1.model.sim.DistanceField}, can apply in turn.
+ * <p>
+ * Spill sites are drawn from the TRACK cells of the track when the spawner is built, and the cells currently
+ * covered are kept in a set, so a step costs time in proportion to its changes whatever the size of the
+ * track. Steps must run between two ticks, on the thread running the race.
+ */
+public class HazardSpawner {
+
+    private static final int ATTEMPTS = 8;
+
+    private final Track track;
+    private final double spillProbability;
+    private final int lifetime;
+    private final Random random;
+    private final ArrayDeque<int[]> spills;
+    private final Set<Integer> covered;
+    private final TrackGrid grid;
+    private final int[] sites;
+    private int tick;
+
+    /**
+     * Constructs a spawner.
+     *
+     * @param track the track receiving the oil.
+     * @param spillProbability the probability that a step spills oil on a new cell.
+     * @param lifetime the number of steps an oil spill lasts.
+     * @param random the random generator choosing when and where oil is spilled.
+     */
+    public HazardSpawner(Track track, double spillProbability, int lifetime, Random random) {
+        if (!(spillProbability >= 0 && spillProbability <= 1) || lifetime <= 0) {
+            throw new IllegalArgumentException("Invalid spill probability or lifetime");
+        }
+        this.track = track;
+        this.spillProbability = spillProbability;
+        this.lifetime = lifetime;
+        this.random = random;
+        this.spills = new ArrayDeque<>();
+        this.covered = new HashSet<>();
+        this.grid = TrackGrid.of(track);
+        this.sites = grid.cellsOf(CellType.TRACK);
+    }
+
+    /**
+     * Clears the spills that reached their lifetime and possibly spills oil on a free TRACK cell.
+     *
+     * @param players the players racing, whose cells stay free of oil.
+     * @return the patch applied to the track, without changes if nothing happened.
+     */
+    public TrackPatch step(Collection<? extends Player<Cell>> players) {
+        tick++;
+        List<TrackPatch.Change> changes = new ArrayList<>();
+        while (!spills.isEmpty() && spills.peek()[1] <= tick) {
+            int cell = spills.poll()[0];
+            covered.remove(cell);
+            if (track.getCellType(grid.x(cell), grid.y(cell)) == CellType.OIL) {
+                changes.add(new TrackPatch.Change(grid.x(cell), grid.y(cell), CellType.TRACK));
+            }
+        }
+        if (sites.length > 0 && random.nextDouble() < spillProbability) {
+            Set<Integer> occupied = new HashSet<>();
+            for (Player<Cell> player : players) {
+                occupied.add(grid.indexOf(player.getCurrentPosition()));
+            }
+            for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+                int cell = sites[random.nextInt(sites.length)];
+                if (!covered.contains(cell) && !occupied.contains(cell)
+                        && track.getCellType(grid.x(cell), grid.y(cell)) == CellType.TRACK) {
+                    changes.add(new TrackPatch.Change(grid.x(cell), grid.y(cell), CellType.OIL));
+                    spills.add(new int[]{cell, tick + lifetime});
+                    covered.add(cell);
+                    break;
+                }
+            }
+        }
+        TrackPatch patch = new TrackPatch(changes, track.getCourse());
+        if (!changes.isEmpty()) {
+            track.apply(patch);
+        }
+        return patch;
+    }
+
+    /**
+     * Returns the cells currently covered by oil.
+     *
+     * @return the indices of the covered cells in the grid of the track, in the order they were spilled.
+     */
+    public int[] getSpills() {
+        return spills.stream().mapToInt(spill -> spill[0]).toArray();
+    }
+}
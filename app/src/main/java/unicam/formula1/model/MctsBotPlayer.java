@@ -0,0 +1,199 @@
+package unicam.formula1.model;
+
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.policy.DecisionCache;
+import unicam.formula1.model.sim.MctsSearch;
+import unicam.formula1.model.sim.MoveModel;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Represents a bot player that chooses its moves with Monte Carlo Tree Search.
+ * For every decision the bot captures the race in a {@link RaceState} and runs rollouts, where rival cars
+ * move like {@link BotPlayer}, on several threads until its time budget expires. The move visited the most
+ * across all searches is played, regardless of whether the engine asks for a main or an adjacent move.
+ * <p>
+ * Searches of every bot run on one shared pool of daemon threads, which grows with the searches running at
+ * once and lets idle threads end, so bots need no closing and races that create bots leave no threads behind.
+ */
+public class MctsBotPlayer extends Player<Cell> {
+
+    private static final long DEFAULT_BUDGET_MILLIS = 20;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int MAX_DEPTH = 200;
+    private static final int MIN_ITERATIONS = 64;
+    private static final ExecutorService SEARCHES = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "Mcts search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TrackGrid grid;
+    private final long budgetNanos;
+    private final int threads;
+    private final Random random;
+    private List<Player<Cell>> race;
+    private DecisionCache cache;
+
+    /**
+     * Constructs a new MctsBotPlayer using a default time budget and all available processors.
+     *
+     * @param name the name of the bot player.
+     * @param startPosition the starting position of the bot on the track.
+     * @param track the track on which the bot will race.
+     */
+    public MctsBotPlayer(String name, Cell startPosition, ITrack<Cell> track) {
+        this(name, startPosition, track, DEFAULT_BUDGET_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new MctsBotPlayer with the given search settings.
+     *
+     * @param name the name of the bot player.
+     * @param startPosition the starting position of the bot on the track.
+     * @param track the track on which the bot will race.
+     * @param budgetMillis the time spent searching for each move, in milliseconds.
+     * @param threads the number of threads searching in parallel.
+     */
+    public MctsBotPlayer(String name, Cell startPosition, ITrack<Cell> track, long budgetMillis, int threads) {
+        super(name, startPosition, track);
+        if (budgetMillis <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Budget and threads must be positive");
+        }
+        this.grid = TrackGrid.of(track);
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.threads = threads;
+        this.random = new Random();
+    }
+
+    /**
+     * Sets the players of the race, so that rival cars are taken into account by the search.
+     * Without a race the bot plans as if it were alone on the track.
+     *
+     * @param players the players of the race, in the order the engine moves them, including this bot.
+     */
+    public void setRace(List<Player<Cell>> players) {
+        this.race = players;
+    }
+
+    /**
+     * Sets a cache of decisions shared with other bots racing on the same track. Once a decision for a
+     * (cell, velocity) state is cached it is reused without searching, whatever the position of the rivals.
+     *
+     * @param cache the decision cache, or null to search every move.
+     */
+    public void setDecisionCache(DecisionCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the move chosen by the search.
+     *
+     * @return the {@link Cell} the bot moves to.
+     */
+    @Override
+    public Cell mainMove() {
+        return bestMove();
+    }
+
+    /**
+     * Returns the move chosen by the search.
+     *
+     * @return the {@link Cell} the bot moves to.
+     */
+    @Override
+    public Cell adjacentMove() {
+        return bestMove();
+    }
+
+    /**
+     * Searches the best move from the current position. If no safe neighbor exists the bot crashes,
+     * and if only one exists it is played without searching.
+     *
+     * @return the cell the bot moves to.
+     */
+    private Cell bestMove() {
+        int cell = grid.indexOf(getCurrentPosition());
+        int mask = cell == TrackGrid.NO_CELL ? 0 : MoveModel.safeDirections(grid, cell);
+        if (mask == 0) {
+            return new Cell(-1, -1, CellType.OFF_TRACK);
+        }
+        if (Integer.bitCount(mask) == 1) {
+            return grid.cell(grid.neighbor(cell, Integer.numberOfTrailingZeros(mask)));
+        }
+        int best = cache == null
+                ? searchDirection(mask)
+                : cache.computeIfAbsent(DecisionCache.key(cell, MoveModel.velocity(grid, getLastMove())),
+                        key -> searchDirection(mask));
+        return grid.cell(grid.neighbor(cell, best));
+    }
+
+    /**
+     * Searches the race from the current state and returns the safe direction visited the most.
+     */
+    private int searchDirection(int mask) {
+        List<Player<Cell>> players = race != null && race.contains(this) ? race : List.of(this);
+        RaceState root = RaceState.of(grid, players);
+        long[] visits = search(root, players.indexOf(this));
+        int best = Integer.numberOfTrailingZeros(mask);
+        for (int d = 0; d < TrackGrid.DIRECTIONS; d++) {
+            if ((mask & (1 << d)) != 0 && visits[d] > visits[best]) {
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Runs one search per thread until the time budget expires and sums the visits of the root moves.
+     */
+    private long[] search(RaceState root, int car) {
+        long deadline = System.nanoTime() + budgetNanos;
+        List<Callable<long[]>> searches = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom seed = new SplittableRandom(random.nextLong());
+            searches.add(() -> {
+                MctsSearch search = new MctsSearch(root, car, EXPLORATION, MAX_DEPTH);
+                // A few iterations always run, so a cold start cannot leave the decision unexplored
+                search.run(Long.MAX_VALUE, MIN_ITERATIONS, seed);
+                search.run(deadline, Integer.MAX_VALUE, seed);
+                return search.rootVisits();
+            });
+        }
+        long[] visits = new long[TrackGrid.DIRECTIONS];
+        try {
+            if (threads == 1) {
+                merge(visits, searches.get(0).call());
+            } else {
+                for (Future<long[]> result : SEARCHES.invokeAll(searches)) {
+                    merge(visits, result.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException("Search failed", e);
+        }
+        return visits;
+    }
+
+    private static void merge(long[] total, long[] visits) {
+        for (int d = 0; d < total.length; d++) {
+            total[d] += visits[d];
+        }
+    }
+}
@@ -72,8 +72,8 @@ public class Move<T extends ICell<T>> implements IMove<T> {
      * @return true if the move is valid, false otherwise.
      */
     public boolean isValid(ITrack<Cell> track) {
-        Cell cell = track.getCell(end.getX(), end.getY());
-        return cell != null && cell.getCellType() != CellType.OFF_TRACK && cell.getCellType() != CellType.OIL;
+        CellType type = track.getCellType(end.getX(), end.getY());
+        return type != null && type != CellType.OFF_TRACK && type != CellType.OIL;
     }
 
 }
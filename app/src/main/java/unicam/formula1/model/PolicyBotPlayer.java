@@ -0,0 +1,91 @@
+package unicam.formula1.model;
+
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.policy.PolicyTable;
+import unicam.formula1.model.sim.MoveModel;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.util.Random;
+
+/**
+ * Represents a bot player that follows a precomputed {@link PolicyTable}, so every decision is a single
+ * table lookup. The bot keeps the move rules of {@link BotPlayer}: repeating the last move onto a TRACK cell
+ * is always safe, while any other move has the same random chance of ending in a crash.
+ */
+public class PolicyBotPlayer extends Player<Cell> {
+
+    private final TrackGrid grid;
+    private final PolicyTable policy;
+    private final Random random;
+
+    /**
+     * Constructs a new PolicyBotPlayer.
+     *
+     * @param name the name of the bot player.
+     * @param startPosition the starting position of the bot on the track.
+     * @param track the track on which the bot will race.
+     * @param policy the policy table computed for the track.
+     * @throws IllegalArgumentException if the policy was computed for a different track.
+     */
+    public PolicyBotPlayer(String name, Cell startPosition, ITrack<Cell> track, PolicyTable policy) {
+        this(name, startPosition, TrackGrid.of(track), track, policy);
+    }
+
+    /**
+     * Constructs a new PolicyBotPlayer sharing an already compiled grid of the track, which avoids
+     * compiling the track again for every bot.
+     *
+     * @param name the name of the bot player.
+     * @param startPosition the starting position of the bot on the track.
+     * @param grid the compiled grid of the track.
+     * @param track the track on which the bot will race.
+     * @param policy the policy table computed for the track.
+     * @throws IllegalArgumentException if the policy was computed for a different track.
+     */
+    public PolicyBotPlayer(String name, Cell startPosition, TrackGrid grid, ITrack<Cell> track, PolicyTable policy) {
+        super(name, startPosition, track);
+        if (!policy.matches(grid)) {
+            throw new IllegalArgumentException("Policy was computed for a different track");
+        }
+        this.grid = grid;
+        this.policy = policy;
+        this.random = new Random();
+    }
+
+    /**
+     * Returns the move stored in the policy for the current state.
+     *
+     * @return the {@link Cell} the bot moves to.
+     */
+    @Override
+    public Cell mainMove() {
+        return policyMove();
+    }
+
+    /**
+     * Returns the move stored in the policy for the current state.
+     *
+     * @return the {@link Cell} the bot moves to.
+     */
+    @Override
+    public Cell adjacentMove() {
+        return policyMove();
+    }
+
+    private Cell policyMove() {
+        int cell = grid.indexOf(getCurrentPosition());
+        int velocity = MoveModel.velocity(grid, getLastMove());
+        int action = cell == TrackGrid.NO_CELL ? PolicyTable.NO_ACTION : policy.action(cell, velocity);
+        if (action == PolicyTable.NO_ACTION) {
+            return new Cell(-1, -1, CellType.OFF_TRACK);
+        }
+        int target = grid.neighbor(cell, action);
+        // Only repeating the last move is free from the chance of crashing
+        if (MoveModel.mainTarget(grid, cell, velocity) != target && random.nextInt(MoveModel.CRASH_CHANCE) == 0) {
+            return new Cell(-1, -1, CellType.OFF_TRACK);
+        }
+        return grid.cell(target);
+    }
+}
@@ -0,0 +1,179 @@
+package unicam.formula1.model;
+
+import unicam.formula1.model.abstracts.CellType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse storage of the cells of a {@link Track}, split into square tiles of {@link #TILE_SIZE} cells a side.
+ * <p>
+ * Every tile has a type layer of one byte per cell. Tiles with identical types share one array once their
+ * row is compacted with {@link #compactRow(int)}, and so do all the tiles that are entirely off-track or
+ * entirely empty, which share one sentinel array. Shared arrays are copied before being written. Cell
+ * objects are only kept for cells that are not OFF_TRACK, in per-tile arrays that are allocated on the first
+ * such cell. Memory therefore follows the drivable part of the track rather than its bounding box, and every
+ * access is two array reads.
+ */
+final class TiledCells {
+
+    /**
+     * Number of cells along each side of a tile.
+     */
+    static final int TILE_SIZE = 16;
+
+    private static final int TILE_SHIFT = 4;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final byte NO_CELL = -1;
+    private static final byte OFF_TRACK = (byte) CellType.OFF_TRACK.ordinal();
+    private static final CellType[] TYPES = CellType.values();
+    private static final byte[] EMPTY_TILE = filledTile(NO_CELL);
+    private static final byte[] OFF_TRACK_TILE = filledTile(OFF_TRACK);
+
+    private final int tilesX;
+    private final byte[][] types;
+    private final boolean[] owned;
+    private final Cell[][] cells;
+    private final Map<TileKey, byte[]> interned;
+
+    /**
+     * Constructs an empty storage.
+     *
+     * @param width the width of the track.
+     * @param height the height of the track.
+     */
+    TiledCells(int width, int height) {
+        this.tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        int tiles = tilesX * ((height + TILE_MASK) >> TILE_SHIFT);
+        this.types = new byte[tiles][];
+        this.owned = new boolean[tiles];
+        this.cells = new Cell[tiles][];
+        this.interned = new HashMap<>();
+        Arrays.fill(types, EMPTY_TILE);
+        interned.put(new TileKey(EMPTY_TILE), EMPTY_TILE);
+        interned.put(new TileKey(OFF_TRACK_TILE), OFF_TRACK_TILE);
+    }
+
+    private static byte[] filledTile(byte type) {
+        byte[] tile = new byte[TILE_SIZE * TILE_SIZE];
+        Arrays.fill(tile, type);
+        return tile;
+    }
+
+    private int tile(int x, int y) {
+        return (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+    }
+
+    private static int offset(int x, int y) {
+        return (y & TILE_MASK) << TILE_SHIFT | (x & TILE_MASK);
+    }
+
+    /**
+     * Returns the cell object stored at in-bounds coordinates, null if there is none.
+     */
+    Cell get(int x, int y) {
+        Cell[] tileCells = cells[tile(x, y)];
+        return tileCells == null ? null : tileCells[offset(x, y)];
+    }
+
+    /**
+     * Returns the type of the cell at in-bounds coordinates, null if the cell was never set.
+     */
+    CellType type(int x, int y) {
+        byte type = types[tile(x, y)][offset(x, y)];
+        return type == NO_CELL ? null : TYPES[type];
+    }
+
+    /**
+     * Stores a cell object.
+     */
+    void put(Cell cell) {
+        int x = cell.getX();
+        int y = cell.getY();
+        int tile = tile(x, y);
+        write(tile, offset(x, y), (byte) cell.getCellType().ordinal());
+        if (cells[tile] == null) {
+            cells[tile] = new Cell[TILE_SIZE * TILE_SIZE];
+        }
+        cells[tile][offset(x, y)] = cell;
+    }
+
+    /**
+     * Marks a cell as OFF_TRACK without keeping an object for it.
+     */
+    void putOffTrack(int x, int y) {
+        int tile = tile(x, y);
+        write(tile, offset(x, y), OFF_TRACK);
+        if (cells[tile] != null) {
+            cells[tile][offset(x, y)] = null;
+        }
+    }
+
+    /**
+     * Writes a type, copying the tile first if its type array is shared.
+     */
+    private void write(int tile, int offset, byte type) {
+        if (types[tile][offset] == type) {
+            return;
+        }
+        if (!owned[tile]) {
+            types[tile] = types[tile].clone();
+            owned[tile] = true;
+        }
+        types[tile][offset] = type;
+    }
+
+    /**
+     * Shares the type arrays of identical tiles in the row of tiles containing a row of cells, and drops
+     * the cell arrays of that row left without cells. A parser calls it once a row of tiles is complete,
+     * so only one row of tiles is ever held in private arrays.
+     *
+     * @param y a row of cells.
+     */
+    void compactRow(int y) {
+        int first = (y >> TILE_SHIFT) * tilesX;
+        for (int tile = first; tile < first + tilesX; tile++) {
+            types[tile] = interned.computeIfAbsent(new TileKey(types[tile]), TileKey::types);
+            owned[tile] = false;
+            if (cells[tile] != null && Arrays.stream(cells[tile]).allMatch(cell -> cell == null)) {
+                cells[tile] = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tiles holding cell objects.
+     */
+    int cellTiles() {
+        return (int) Arrays.stream(cells).filter(tile -> tile != null).count();
+    }
+
+    /**
+     * Returns the number of type arrays actually allocated for the tiles.
+     */
+    int typeArrays() {
+        Set<byte[]> arrays = Collections.newSetFromMap(new IdentityHashMap<>());
+        arrays.addAll(Arrays.asList(types));
+        return arrays.size();
+    }
+
+    /**
+     * Key comparing type arrays by content.
+     */
+    private record TileKey(byte[] types) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TileKey key && Arrays.equals(types, key.types);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(types);
+        }
+    }
+}
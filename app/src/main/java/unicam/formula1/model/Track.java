@@ -2,20 +2,27 @@ package unicam.formula1.model;
 
 import unicam.formula1.model.abstracts.CellType;
 import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.sim.TrackGrid;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Represents the racetrack in the Formula 1 simulation game, encapsulating the dimensions of the track
  * and managing the cells that constitute the track's layout.
+ * <p>
+ * Cells are kept in a sparse tiled grid, so looking a cell up takes constant time. Parsed tracks keep no
+ * object for their OFF_TRACK cells: {@link #getCell(int, int)} returns a new, unlinked OFF_TRACK cell for
+ * them, so code running every tick asks {@link #getCellType(int, int)} instead, neighbor lists only link
+ * cells that are not OFF_TRACK, and {@link #getCellsAsMatrix()} leaves them null. Memory therefore grows
+ * with the drivable part of a circuit rather than with its bounding box.
  */
 public class Track implements ITrack<Cell> {
 
-    private final List<Cell> cells;
+    private final TiledCells cells;
     private final int width;
     private final int height;
+    private Course course;
 
     /**
      * Constructs a Track with specified dimensions.
@@ -26,17 +33,61 @@ public class Track implements ITrack<Cell> {
     public Track(int width, int height) {
         this.width = width;
         this.height = height;
-        this.cells = new ArrayList<>();
+        this.cells = new TiledCells(width, height);
+        this.course = Course.SINGLE_LAP;
+    }
+
+    /**
+     * Returns the lap structure of races on this track.
+     *
+     * @return the course of the track.
+     */
+    @Override
+    public Course getCourse() {
+        return course;
+    }
+
+    /**
+     * Sets the lap structure of races on this track.
+     *
+     * @param course the course of the track.
+     */
+    public void setCourse(Course course) {
+        this.course = course;
     }
 
     /**
      * Adds a cell to the track. This method is primarily used during the initialization phase to populate the track.
      *
      * @param cell the cell to be added to the track.
+     * @throws IllegalArgumentException if the cell lies outside the track.
      */
     @Override
     public void addCell(Cell cell) {
-        cells.add(cell);
+        if (!contains(cell.getX(), cell.getY())) {
+            throw new IllegalArgumentException("Cell outside the track: " + cell.getX() + ", " + cell.getY());
+        }
+        cells.put(cell);
+    }
+
+    /**
+     * Marks a cell as OFF_TRACK without keeping an object for it, as the parser does for the off-track part
+     * of a circuit.
+     *
+     * @param x the x-coordinate of the cell.
+     * @param y the y-coordinate of the cell.
+     */
+    void addOffTrack(int x, int y) {
+        cells.putOffTrack(x, y);
+    }
+
+    /**
+     * Shares the storage of identical tiles in the row of tiles holding a completed row of cells.
+     *
+     * @param y the row of cells just completed.
+     */
+    void compactRow(int y) {
+        cells.compactRow(y);
     }
 
     /**
@@ -44,17 +95,36 @@ public class Track implements ITrack<Cell> {
      *
      * @param x the x-coordinate of the cell to retrieve.
      * @param y the y-coordinate of the cell to retrieve.
-     * @return the cell at the given coordinates, or null if no cell exists at those coordinates.
+     * @return the cell at the given coordinates, a new unlinked cell for OFF_TRACK cells without an object,
+     *         or null if no cell exists at those coordinates.
      */
     @Override
     public Cell getCell(int x, int y) {
-        if (x < 0 || x >= width || y < 0 || y >= height) {
+        if (!contains(x, y)) {
             return null;  // Return null for coordinates outside the track boundaries.
         }
-        return cells.stream()
-                .filter(cell -> cell.getX() == x && cell.getY() == y)
-                .findFirst()
-                .orElse(null);
+        Cell cell = cells.get(x, y);
+        if (cell == null && cells.type(x, y) == CellType.OFF_TRACK) {
+            return new Cell(x, y, CellType.OFF_TRACK);
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the type of the cell at the given coordinates without creating any cell object, which keeps
+     * scans of large tracks cheap.
+     *
+     * @param x the x-coordinate of the cell.
+     * @param y the y-coordinate of the cell.
+     * @return the type of the cell, or null if no cell exists at those coordinates.
+     */
+    @Override
+    public CellType getCellType(int x, int y) {
+        return contains(x, y) ? cells.type(x, y) : null;
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
     }
 
     /**
@@ -78,31 +148,124 @@ public class Track implements ITrack<Cell> {
     }
 
     /**
-     * Retrieves a list of cells designated as start positions on the track.
+     * Retrieves a list of cells designated as start positions on the track, in row-major order.
      *
      * @return a list of cells marked as starting positions.
      */
     @Override
     public List<Cell> getStartPositions() {
-        return cells.stream()
-                .filter(cell -> cell.getCellType() == CellType.START)
-                .toList();
+        List<Cell> starts = new ArrayList<>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Cell cell = cells.get(x, y);
+                if (cell != null && cell.getCellType() == CellType.START) {
+                    starts.add(cell);
+                }
+            }
+        }
+        return starts;
     }
 
     /**
-     * Converts the list of cells into a two-dimensional array, reflecting the layout of the track.
-     * This can be useful for visualization or more structured access.
+     * Converts the cells into a two-dimensional array, reflecting the layout of the track.
+     * This can be useful for visualization or more structured access. OFF_TRACK cells without an object
+     * are left null.
      *
      * @return a 2D array of cells representing the track.
      */
     @Override
     public Cell[][] getCellsAsMatrix() {
         Cell[][] matrix = new Cell[this.height][this.width];
-        for (Cell cell : cells) {
-            if (cell != null) {
-                matrix[cell.getY()][cell.getX()] = cell;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                matrix[y][x] = cells.get(x, y);
             }
         }
         return matrix;
     }
+
+    /**
+     * Returns the number of tiles of the track holding cell objects, a measure of its memory use.
+     *
+     * @return the number of tiles with cells.
+     */
+    public int getCellTileCount() {
+        return cells.cellTiles();
+    }
+
+    /**
+     * Returns the number of distinct tile type arrays of the track, identical tiles sharing one array.
+     *
+     * @return the number of type arrays.
+     */
+    public int getTypeTileCount() {
+        return cells.typeArrays();
+    }
+
+    /**
+     * Links every cell object of the track to its neighbors.
+     */
+    void linkAll() {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Cell cell = cells.get(x, y);
+                if (cell != null) {
+                    link(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Links a cell to its neighbors that have a cell object, in the direction order of {@link TrackGrid}.
+     *
+     * @param cell the cell to link, whose previous links are dropped.
+     */
+    void link(Cell cell) {
+        cell.clearNeighbors();
+        for (int direction = 0; direction < TrackGrid.DIRECTIONS; direction++) {
+            int nx = cell.getX() + TrackGrid.deltaX(direction);
+            int ny = cell.getY() + TrackGrid.deltaY(direction);
+            Cell neighbor = contains(nx, ny) ? cells.get(nx, ny) : null;
+            if (neighbor != null) {
+                cell.addNeighbor(neighbor);
+            }
+        }
+    }
+
+    /**
+     * Applies a patch to the track: every changed cell is replaced by a new cell of its new type, or by no
+     * object if it becomes OFF_TRACK, and the changed cells and their neighbors are linked again. Cells away
+     * from the changes are left untouched, so the cost depends only on the size of the patch.
+     *
+     * @param patch the patch to apply.
+     * @throws IllegalArgumentException if a change lies outside the track.
+     */
+    public void apply(TrackPatch patch) {
+        for (TrackPatch.Change change : patch.changes()) {
+            if (!contains(change.x(), change.y())) {
+                throw new IllegalArgumentException("Change outside the track: " + change);
+            }
+        }
+        for (TrackPatch.Change change : patch.changes()) {
+            if (change.type() == CellType.OFF_TRACK) {
+                cells.putOffTrack(change.x(), change.y());
+            } else {
+                cells.put(new Cell(change.x(), change.y(), change.type()));
+            }
+        }
+        for (TrackPatch.Change change : patch.changes()) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int x = change.x() + dx;
+                    int y = change.y() + dy;
+                    Cell cell = contains(x, y) ? cells.get(x, y) : null;
+                    if (cell != null) {
+                        link(cell);
+                    }
+                }
+            }
+        }
+        this.course = patch.course();
+    }
 }
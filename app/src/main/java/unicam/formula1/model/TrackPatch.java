@@ -0,0 +1,33 @@
+package unicam.formula1.model;
+
+import unicam.formula1.model.abstracts.CellType;
+
+import java.util.List;
+
+/**
+ * Difference between a track and a new version of its file: the cells whose type changed and the course of
+ * the new version. A patch is applied with {@link Track#apply(TrackPatch)}, which only rebuilds the changed
+ * cells and the neighbor links around them.
+ *
+ * @param changes the changed cells, in row-major order.
+ * @param course the course of the new version.
+ */
+public record TrackPatch(List<Change> changes, Course course) {
+
+    /**
+     * Copies the list of changes.
+     */
+    public TrackPatch {
+        changes = List.copyOf(changes);
+    }
+
+    /**
+     * New type of a cell.
+     *
+     * @param x the x coordinate of the cell.
+     * @param y the y coordinate of the cell.
+     * @param type the new type of the cell.
+     */
+    public record Change(int x, int y, CellType type) {
+    }
+}
@@ -64,4 +64,15 @@ public enum CellType {
         }
         return OFF_TRACK;
     }
+
+    /**
+     * Checks whether a car can drive onto a cell of this type without crashing, that is the cell is a TRACK
+     * or FINISH cell. OIL can appear on and clear from TRACK cells during a race, so this is the property that
+     * changes when hazards move.
+     *
+     * @return true if the cell type is drivable.
+     */
+    public boolean isDrivable() {
+        return this == TRACK || this == FINISH;
+    }
 }
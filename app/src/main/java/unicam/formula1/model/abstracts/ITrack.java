@@ -1,6 +1,7 @@
 package unicam.formula1.model.abstracts;
 
 import unicam.formula1.model.Cell;
+import unicam.formula1.model.Course;
 import java.util.List;
 
 /**
@@ -28,6 +29,19 @@ public interface ITrack<T extends ICell<T>> {
      */
     T getCell(int x, int y);
 
+    /**
+     * Retrieves the type of the cell at the given coordinates. Tracks that keep no object for some cells
+     * override it to answer without creating one.
+     *
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     * @return The type of the cell, or null if no cell exists at those coordinates.
+     */
+    default CellType getCellType(int x, int y) {
+        T cell = getCell(x, y);
+        return cell == null ? null : cell.getCellType();
+    }
+
     /**
      * Gets the width of the track, typically measured in the number of cells along the x-axis.
      *
@@ -52,8 +66,18 @@ public interface ITrack<T extends ICell<T>> {
     /**
      * Provides a two-dimensional array representation of the cells that make up the track.
      * This can be useful for visualizations or algorithms that require a matrix form of the track.
+     * Tracks that keep no object for their OFF_TRACK cells leave them null.
      *
      * @return A 2D array of {@link Cell} objects representing the layout of the track.
      */
     Cell[][] getCellsAsMatrix();
+
+    /**
+     * Returns the lap structure of races on this track.
+     *
+     * @return the course of the track, a single lap without gates unless the track defines one.
+     */
+    default Course getCourse() {
+        return Course.SINGLE_LAP;
+    }
 }
@@ -3,6 +3,8 @@ package unicam.formula1.model.abstracts;
 import unicam.formula1.model.Cell;
 import unicam.formula1.model.Move;
 
+import java.util.OptionalLong;
+
 /**
  * Abstract class representing a player in the Formula 1 simulation game.
  * This class provides the basic framework for player operations including movement tracking, position updating,
@@ -77,6 +79,37 @@ public abstract class Player<T extends ICell<T>> implements IPlayer<T> {
         this.currentPosition = newPosition;
     }
 
+    /**
+     * Restores the position and last move of the player, typically from a snapshot.
+     *
+     * @param position the position of the player.
+     * @param lastMove the last move of the player, or null if the player has not moved yet.
+     */
+    public void restore(T position, Move<T> lastMove) {
+        this.currentPosition = position;
+        this.lastMove = lastMove;
+    }
+
+    /**
+     * Returns the state of the random generator driving the decisions of the player, if it can be captured.
+     * Players without random decisions, or whose generator cannot be captured, return an empty value.
+     *
+     * @return the random generator state, or an empty value.
+     */
+    public OptionalLong getRandomState() {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Restores a state returned by {@link #getRandomState()}.
+     *
+     * @param state the random generator state.
+     * @throws UnsupportedOperationException if the player random generator cannot be restored.
+     */
+    public void setRandomState(long state) {
+        throw new UnsupportedOperationException(name + " has no restorable random generator");
+    }
+
     /**
      * Determines whether the player has crashed based on the current cell type.
      * A player is considered to have crashed if they are on a cell type that is either OFF_TRACK or OIL.
@@ -101,6 +134,16 @@ public abstract class Player<T extends ICell<T>> implements IPlayer<T> {
         return this.currentPosition.getCellType().equals(CellType.FINISH);
     }
 
+    /**
+     * Returns the probability that the engine asks this player for its main move rather than an adjacent move.
+     * Players are asked for either move with equal probability unless a subclass says otherwise.
+     *
+     * @return a probability between 0 and 1.
+     */
+    public double getMainMoveProbability() {
+        return 0.5;
+    }
+
     /**
      * Abstract method to calculate the main move from the player's current position.
      * Subclasses must define this method to implement specific movement logic.
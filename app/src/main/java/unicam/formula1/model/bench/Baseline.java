@@ -0,0 +1,154 @@
+package unicam.formula1.model.bench;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Reference measurements of the {@link RegressionSuite}, kept in a properties file under version control.
+ * Every scenario has its outcome digest, which must match exactly, and its metrics, which may drift within
+ * a tolerance: throughput may drop, and parse time, peak heap and allocation may grow, by the given
+ * fraction of the reference. Parse time and heap also get an absolute slack, since they are too small or
+ * too dependent on the garbage collector on small tracks to be compared by ratio alone. Tolerances are read
+ * from {@code tolerance.<metric>} keys, with defaults for missing ones.
+ */
+public final class Baseline {
+
+    private static final double PARSE_SLACK_MILLIS = 2;
+    private static final double HEAP_SLACK_MB = 32;
+
+    private final Properties properties;
+
+    private Baseline(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Reads a baseline.
+     *
+     * @param reader the reader of the properties.
+     * @return the baseline.
+     * @throws IOException if the properties cannot be read.
+     */
+    public static Baseline read(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        return new Baseline(properties);
+    }
+
+    /**
+     * Reads a baseline file.
+     *
+     * @param file the baseline file.
+     * @return the baseline.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Baseline read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Writes measurements as the new baseline of a file, keeping its tolerances and the scenarios not
+     * measured.
+     *
+     * @param file the baseline file.
+     * @param measurements the new reference measurements.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void record(Path file, List<RegressionSuite.Measurement> measurements) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            properties = read(file).properties;
+        }
+        for (RegressionSuite.Measurement measurement : measurements) {
+            String prefix = measurement.scenario() + ".";
+            properties.setProperty(prefix + "digest", measurement.digest());
+            properties.setProperty(prefix + "ticksPerSecond", format(measurement.ticksPerSecond()));
+            properties.setProperty(prefix + "parseMillis", format(measurement.parseMillis()));
+            properties.setProperty(prefix + "peakHeapMb", format(measurement.peakHeapMb()));
+            properties.setProperty(prefix + "bytesPerTick", format(measurement.bytesPerTick()));
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, "Regression suite baseline, recorded with RegressionSuite <file> record");
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Returns the digest of the outcomes of a scenario.
+     *
+     * @param scenario the scenario name.
+     * @return the digest, or null if the baseline has none.
+     */
+    public String getDigest(String scenario) {
+        return properties.getProperty(scenario + ".digest");
+    }
+
+    /**
+     * Compares a measurement against the baseline.
+     *
+     * @param measurement the measurement.
+     * @return a description of every regression, empty if there is none.
+     * @throws IllegalArgumentException if the baseline has no reference for the scenario.
+     */
+    public List<String> compare(RegressionSuite.Measurement measurement) {
+        String scenario = measurement.scenario();
+        if (getDigest(scenario) == null) {
+            throw new IllegalArgumentException("No baseline for scenario " + scenario);
+        }
+        List<String> regressions = new ArrayList<>();
+        if (!getDigest(scenario).equals(measurement.digest())) {
+            regressions.add(scenario + ": outcomes changed, digest " + measurement.digest() + " instead of "
+                    + getDigest(scenario));
+        }
+        double ticks = reference(scenario, "ticksPerSecond");
+        double ticksLimit = ticks * (1 - tolerance("ticksPerSecond", 0.3));
+        if (measurement.ticksPerSecond() < ticksLimit) {
+            regressions.add(describe(scenario, "ticksPerSecond", measurement.ticksPerSecond(), ticks, ticksLimit));
+        }
+        check(regressions, scenario, "parseMillis", measurement.parseMillis(), 0.5, PARSE_SLACK_MILLIS);
+        check(regressions, scenario, "peakHeapMb", measurement.peakHeapMb(), 0.25, HEAP_SLACK_MB);
+        check(regressions, scenario, "bytesPerTick", measurement.bytesPerTick(), 0.2, 0);
+        return regressions;
+    }
+
+    /**
+     * Checks a metric that must not grow beyond its tolerance and slack.
+     */
+    private void check(List<String> regressions, String scenario, String metric, double value,
+                       double defaultTolerance, double slack) {
+        double reference = reference(scenario, metric);
+        double limit = Math.max(reference * (1 + tolerance(metric, defaultTolerance)), reference + slack);
+        if (value > limit) {
+            regressions.add(describe(scenario, metric, value, reference, limit));
+        }
+    }
+
+    private static String describe(String scenario, String metric, double value, double reference, double limit) {
+        return String.format(Locale.ROOT, "%s: %s is %.3f against %.3f, limit %.3f", scenario, metric, value,
+                reference, limit);
+    }
+
+    private double reference(String scenario, String metric) {
+        String value = properties.getProperty(scenario + "." + metric);
+        if (value == null) {
+            throw new IllegalArgumentException("No baseline for " + scenario + "." + metric);
+        }
+        return Double.parseDouble(value);
+    }
+
+    private double tolerance(String metric, double defaultTolerance) {
+        return Double.parseDouble(properties.getProperty("tolerance." + metric, String.valueOf(defaultTolerance)));
+    }
+}
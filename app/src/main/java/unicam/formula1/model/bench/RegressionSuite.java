@@ -0,0 +1,239 @@
+package unicam.formula1.model.bench;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.utils.Printer;
+import unicam.formula1.utils.SnapshotRandom;
+import com.sun.management.ThreadMXBean;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Macro-benchmark suite racing default bots with fixed seeds on generated tracks of growing size, used to
+ * catch performance regressions and any change of race outcomes. For every {@link Scenario} it measures:
+ * <ul>
+ *     <li>the outcome digest, a hash of the finishing tick, final cell and state of every car of every
+ *     race, which must stay bit-identical for the golden seeds;</li>
+ *     <li>the throughput of the engine, in ticks per second, as the best of several runs of the races
+ *     after a warm-up run;</li>
+ *     <li>the best parse time of the track file;</li>
+ *     <li>the peak live heap of the scenario, sampled after a full collection once the track is parsed and
+ *     once the races are run, so that it does not depend on when the collector happens to run;</li>
+ *     <li>the bytes allocated per tick by the thread running the races.</li>
+ * </ul>
+ * The measurements are compared against a {@link Baseline}, and the tool exits with status 1 when a
+ * scenario regresses. With {@code record}, the measurements become the new baseline instead.
+ * <p>
+ * Usage: {@code RegressionSuite <baseline file> [record] [scenario...]}
+ */
+public class RegressionSuite {
+
+    /**
+     * The scenarios of the suite.
+     */
+    public static final List<Scenario> SCENARIOS = List.of(
+            new Scenario("small", 40, 30, 200, 0x5EED),
+            new Scenario("medium", 400, 300, 20, 0x5EED),
+            new Scenario("huge", 2000, 2000, 3, 0x5EED));
+
+    private static final int MAX_TICKS = 1000;
+    private static final int PARSES = 5;
+    private static final int RUNS = 3;
+
+    /**
+     * A set of races on a generated track.
+     *
+     * @param name the name of the scenario in reports and baselines.
+     * @param width the width of the track.
+     * @param height the height of the track.
+     * @param races the number of races.
+     * @param seed the seed of the first race, race {@code i} using {@code seed + i}.
+     */
+    public record Scenario(String name, int width, int height, int races, long seed) {
+
+        /**
+         * Parses the generated track of the scenario.
+         *
+         * @return the track.
+         * @throws IOException if the generated track cannot be parsed.
+         */
+        public Track track() throws IOException {
+            return parse(TrackGenerator.generate(width, height));
+        }
+    }
+
+    /**
+     * The measurements of a scenario.
+     *
+     * @param scenario the scenario name.
+     * @param digest the hexadecimal digest of the race outcomes.
+     * @param ticksPerSecond the engine throughput.
+     * @param parseMillis the best parse time of the track.
+     * @param peakHeapMb the peak live heap, in MiB.
+     * @param bytesPerTick the bytes allocated per tick.
+     */
+    public record Measurement(String scenario, String digest, double ticksPerSecond, double parseMillis,
+                              double peakHeapMb, double bytesPerTick) {
+
+        /**
+         * Formats the measurement as a line of the report.
+         *
+         * @return the report line.
+         */
+        public String report() {
+            return String.format(Locale.ROOT, "%-8s %s %12.0f ticks/s %9.3f ms parse %8.1f MiB heap %10.0f B/tick",
+                    scenario, digest, ticksPerSecond, parseMillis, peakHeapMb, bytesPerTick);
+        }
+    }
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the baseline cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: RegressionSuite <baseline file> [record] [scenario...]");
+            System.exit(1);
+        }
+        Path file = Path.of(args[0]);
+        boolean record = args.length > 1 && args[1].equals("record");
+        List<String> names = Arrays.asList(args).subList(record ? 2 : 1, args.length);
+        Printer.setEnabled(false);
+        List<Measurement> measurements = new ArrayList<>();
+        for (Scenario scenario : SCENARIOS) {
+            if (names.isEmpty() || names.contains(scenario.name())) {
+                Measurement measurement = measure(scenario);
+                System.out.println(measurement.report());
+                measurements.add(measurement);
+            }
+        }
+        if (record) {
+            Baseline.record(file, measurements);
+            System.out.println("Baseline recorded in " + file);
+            return;
+        }
+        Baseline baseline = Baseline.read(file);
+        List<String> regressions = new ArrayList<>();
+        for (Measurement measurement : measurements) {
+            regressions.addAll(baseline.compare(measurement));
+        }
+        regressions.forEach(System.out::println);
+        if (!regressions.isEmpty()) {
+            System.exit(1);
+        }
+        System.out.println("No regression");
+    }
+
+    /**
+     * Runs a scenario and measures it.
+     *
+     * @param scenario the scenario.
+     * @return the measurements.
+     * @throws IOException if the generated track cannot be parsed.
+     */
+    public static Measurement measure(Scenario scenario) throws IOException {
+        long baseHeap = liveHeap();
+        String content = TrackGenerator.generate(scenario.width(), scenario.height());
+        long bestParse = Long.MAX_VALUE;
+        Track track = null;
+        for (int i = 0; i < PARSES; i++) {
+            long start = System.nanoTime();
+            track = parse(content);
+            bestParse = Math.min(bestParse, System.nanoTime() - start);
+        }
+        content = null;
+        long peak = liveHeap();
+        String digest = digest(track, scenario);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bestRun = Long.MAX_VALUE;
+        long allocated = 0;
+        long[] ticks = new long[1];
+        for (int run = 0; run < RUNS; run++) {
+            ticks[0] = 0;
+            allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            String rerun = race(track, scenario, ticks);
+            bestRun = Math.min(bestRun, System.nanoTime() - start);
+            allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            if (!rerun.equals(digest)) {
+                throw new IllegalStateException("Races of " + scenario.name() + " are not reproducible");
+            }
+        }
+        peak = Math.max(peak, liveHeap());
+        return new Measurement(scenario.name(), digest, ticks[0] * 1e9 / bestRun, bestParse / 1e6,
+                Math.max(0, peak - baseHeap) / (double) (1 << 20), allocated / (double) Math.max(1, ticks[0]));
+    }
+
+    /**
+     * Returns the heap used after a full collection.
+     */
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Runs the races of a scenario and returns the digest of their outcomes.
+     *
+     * @param track the track of the scenario.
+     * @param scenario the scenario.
+     * @return the hexadecimal digest.
+     */
+    public static String digest(Track track, Scenario scenario) {
+        return race(track, scenario, new long[1]);
+    }
+
+    /**
+     * Runs the races of a scenario, adding the ticks played to {@code ticks[0]}, and returns the digest.
+     */
+    private static String race(Track track, Scenario scenario, long[] ticks) {
+        long digest = 1125899906842597L;
+        for (int race = 0; race < scenario.races(); race++) {
+            long seed = scenario.seed() + race;
+            List<Player<Cell>> players = new ArrayList<>();
+            for (Cell start : track.getStartPositions()) {
+                players.add(new BotPlayer("Bot " + (players.size() + 1), start, track, BotParameters.DEFAULT,
+                        new SnapshotRandom(seed * 31 + players.size())));
+            }
+            List<Player<Cell>> roster = List.copyOf(players);
+            GameEngine<Cell> engine = new GameEngine<>(players, seed);
+            engine.setFullClassification(true);
+            while (!engine.isTerminated() && engine.getTick() < MAX_TICKS) {
+                engine.play();
+            }
+            ticks[0] += engine.getTick();
+            digest = mix(digest, engine.getTick());
+            for (Player<Cell> player : roster) {
+                Cell position = player.getCurrentPosition();
+                digest = mix(digest, engine.getFinishTick(player));
+                digest = mix(digest, position == null ? -1 : position.getX());
+                digest = mix(digest, position == null ? -1 : position.getY());
+                digest = mix(digest, player.hasCrashed() ? 1 : 0);
+            }
+        }
+        return String.format("%016x", digest);
+    }
+
+    private static long mix(long digest, long value) {
+        return (digest ^ value) * 0x100000001B3L;
+    }
+
+    private static Track parse(String content) throws IOException {
+        return new CircuitParser().parseFile(new BufferedReader(new StringReader(content)));
+    }
+}
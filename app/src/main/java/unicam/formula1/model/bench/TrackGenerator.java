@@ -0,0 +1,56 @@
+package unicam.formula1.model.bench;
+
+/**
+ * Generates ring-shaped circuits of any size for benchmarks, always the same for the same size. The road
+ * runs along the walls of the track with a width of a tenth of its smaller side, and at least three cells.
+ * The start line crosses the road halfway down the left side and the finish line crosses it in the
+ * middle of the bottom side, so the cars race through a quarter of the ring.
+ */
+public final class TrackGenerator {
+
+    private TrackGenerator() {
+    }
+
+    /**
+     * Returns the content of a track file, in the format read by
+     * {@link unicam.formula1.model.CircuitParser#parseFile(java.io.BufferedReader)}.
+     *
+     * @param width the width of the track.
+     * @param height the height of the track.
+     * @return the track file content.
+     * @throws IllegalArgumentException if the track is too small to hold a ring.
+     */
+    public static String generate(int width, int height) {
+        int road = Math.max(3, Math.min(width, height) / 10);
+        if (width < 2 * road + 3 || height < 2 * road + 3) {
+            throw new IllegalArgumentException("Track too small for a ring: " + width + "x" + height);
+        }
+        StringBuilder content = new StringBuilder((width + 1) * height + 16);
+        content.append(width).append(' ').append(height).append('\n');
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                content.append(symbol(x, y, width, height, road));
+            }
+            content.append('\n');
+        }
+        return content.toString();
+    }
+
+    private static char symbol(int x, int y, int width, int height, int road) {
+        if (x == 0 || y == 0 || x == width - 1 || y == height - 1) {
+            return '#';
+        }
+        boolean left = x <= road;
+        boolean bottom = y >= height - 1 - road;
+        if (!left && !bottom && x < width - 1 - road && y > road) {
+            return '#';
+        }
+        if (left && y == height / 2) {
+            return 'S';
+        }
+        if (bottom && x == width / 2) {
+            return 'F';
+        }
+        return '.';
+    }
+}
@@ -0,0 +1,290 @@
+package unicam.formula1.model.policy;
+
+import unicam.formula1.model.sim.MoveModel;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Thread-safe, size-bounded cache of bot decisions keyed by packed primitive state, such as the
+ * (cell, velocity) index returned by {@link #key(int, int)}. A cache should only be shared by bots racing
+ * on the same track.
+ * <p>
+ * Entries are spread over lock-striped segments. Each segment stores keys and values in primitive arrays,
+ * indexed by an open-addressing hash table, and evicts with the CLOCK algorithm: every hit sets a reference
+ * bit, and the clock hand evicts the first entry whose bit is clear, clearing bits as it passes.
+ * Hit, miss and eviction counters help sizing the cache for a circuit.
+ */
+public final class DecisionCache {
+
+    /**
+     * Value returned by {@link #get(int)} when the key is not cached.
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final Segment[] segments;
+    private final int stripeMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a cache with the default number of stripes.
+     *
+     * @param capacity the maximum number of cached decisions.
+     */
+    public DecisionCache(int capacity) {
+        this(capacity, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param capacity the maximum number of cached decisions.
+     * @param stripes the number of independently locked segments, rounded up to a power of two.
+     */
+    public DecisionCache(int capacity, int stripes) {
+        if (capacity <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("Capacity and stripes must be positive");
+        }
+        int count = Integer.highestOneBit(Math.min(stripes, capacity) - 1) << 1;
+        count = Math.max(1, Math.min(count, Integer.highestOneBit(capacity)));
+        this.segments = new Segment[count];
+        this.stripeMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            // Spread the capacity so that the segments hold exactly the requested total
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Packs a (cell, velocity) state into a cache key.
+     *
+     * @param cell the cell index.
+     * @param velocity the velocity, as defined by {@link MoveModel}.
+     * @return the key of the state.
+     */
+    public static int key(int cell, int velocity) {
+        return cell * MoveModel.VELOCITIES + velocity;
+    }
+
+    /**
+     * Returns the decision cached for a key.
+     *
+     * @param key the state key.
+     * @return the cached decision, or {@link #MISSING}.
+     */
+    public int get(int key) {
+        int hash = mix(key);
+        int value = segments[hash & stripeMask].get(key, hash);
+        (value == MISSING ? misses : hits).increment();
+        return value;
+    }
+
+    /**
+     * Caches a decision, evicting another entry if the segment is full.
+     *
+     * @param key the state key.
+     * @param value the decision, which must not be {@link #MISSING}.
+     */
+    public void put(int key, int value) {
+        if (value == MISSING) {
+            throw new IllegalArgumentException("Cannot cache the MISSING value");
+        }
+        int hash = mix(key);
+        if (segments[hash & stripeMask].put(key, hash, value)) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Returns the decision cached for a key, computing and caching it on a miss. The decision is computed
+     * without holding any lock, so concurrent misses on the same key may compute it more than once.
+     *
+     * @param key the state key.
+     * @param decide the function computing the decision of a key.
+     * @return the cached or computed decision.
+     */
+    public int computeIfAbsent(int key, IntUnaryOperator decide) {
+        int value = get(key);
+        if (value == MISSING) {
+            value = decide.applyAsInt(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of cached decisions.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of lookups that found a decision.
+     *
+     * @return the hit count.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no decision.
+     *
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of decisions evicted to make room for new ones.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the fraction of lookups that found a decision.
+     *
+     * @return the hit rate, or 0 if no lookup was made.
+     */
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A locked portion of the cache holding entries in slots, found through a linear-probing index.
+     */
+    private static final class Segment {
+
+        private static final int EMPTY = -1;
+
+        private final int[] keys;
+        private final int[] values;
+        private final boolean[] referenced;
+        private final int[] index;
+        private final int indexMask;
+        private int size;
+        private int hand;
+
+        private Segment(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new int[capacity];
+            this.referenced = new boolean[capacity];
+            int indexSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+            this.index = new int[indexSize];
+            this.indexMask = indexSize - 1;
+            Arrays.fill(index, EMPTY);
+        }
+
+        private synchronized int get(int key, int hash) {
+            int position = find(key, hash);
+            if (position < 0) {
+                return MISSING;
+            }
+            int slot = index[position];
+            referenced[slot] = true;
+            return values[slot];
+        }
+
+        /**
+         * Stores a value and returns whether an entry was evicted to make room for it.
+         */
+        private synchronized boolean put(int key, int hash, int value) {
+            int position = find(key, hash);
+            if (position >= 0) {
+                values[index[position]] = value;
+                return false;
+            }
+            boolean evicted = false;
+            int slot;
+            if (size < keys.length) {
+                slot = size++;
+            } else {
+                slot = evict();
+                evicted = true;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            referenced[slot] = false;
+            position = (hash >>> 8) & indexMask;
+            while (index[position] != EMPTY) {
+                position = (position + 1) & indexMask;
+            }
+            index[position] = slot;
+            return evicted;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Returns the index position holding the key, or -1 if it is not cached.
+         */
+        private int find(int key, int hash) {
+            int position = (hash >>> 8) & indexMask;
+            while (index[position] != EMPTY) {
+                if (keys[index[position]] == key) {
+                    return position;
+                }
+                position = (position + 1) & indexMask;
+            }
+            return -1;
+        }
+
+        /**
+         * Advances the clock hand to the first unreferenced slot and removes its entry from the index.
+         */
+        private int evict() {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % keys.length;
+            }
+            int slot = hand;
+            hand = (hand + 1) % keys.length;
+            int key = keys[slot];
+            remove(find(key, mix(key)));
+            return slot;
+        }
+
+        /**
+         * Removes an index position, shifting back the following entries of its probe sequence.
+         */
+        private void remove(int position) {
+            int hole = position;
+            int next = (hole + 1) & indexMask;
+            while (index[next] != EMPTY) {
+                int home = (mix(keys[index[next]]) >>> 8) & indexMask;
+                // Move the entry into the hole unless its home lies cyclically in (hole, next]
+                if (((next - home) & indexMask) >= ((next - hole) & indexMask)) {
+                    index[hole] = index[next];
+                    hole = next;
+                }
+                next = (next + 1) & indexMask;
+            }
+            index[hole] = EMPTY;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package unicam.formula1.model.policy;
+
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line tool that parses a track file, solves its optimal policy with {@link ValueIteration}
+ * and writes it as a {@link PolicyTable} file.
+ * <p>
+ * Usage: {@code PolicyCompiler <track file> <policy file> [max sweeps]}
+ */
+public class PolicyCompiler {
+
+    private static final int DEFAULT_MAX_SWEEPS = 100_000;
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args the track file, the output file and optionally the maximum number of sweeps.
+     * @throws IOException if the track cannot be read or the policy cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PolicyCompiler <track file> <policy file> [max sweeps]");
+            System.exit(1);
+        }
+        int maxSweeps = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_SWEEPS;
+        Track track;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]))) {
+            track = new CircuitParser().parseFile(reader);
+        }
+        TrackGrid grid = TrackGrid.of(track);
+        long start = System.nanoTime();
+        ValueIteration solver = new ValueIteration(grid, maxSweeps);
+        byte[] policy = solver.solve();
+        PolicyTable.write(Path.of(args[1]), grid, policy);
+        System.out.println("Policy of " + policy.length + " states written to " + args[1] + " after "
+                + solver.getSweeps() + " sweeps in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,132 @@
+package unicam.formula1.model.policy;
+
+import unicam.formula1.model.sim.MoveModel;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only table holding the best move of every (cell, velocity) state of a track, stored in a compact
+ * binary file and memory-mapped at runtime. Lookups are a single byte read, so any number of bots
+ * can share one table from any thread.
+ * <p>
+ * The file starts with a header (magic, version, width, height, velocities, grid checksum) followed by one
+ * byte per state holding a direction, or {@link #NO_ACTION}.
+ */
+public final class PolicyTable {
+
+    /**
+     * Action stored for states from which no safe move exists.
+     */
+    public static final int NO_ACTION = -1;
+
+    private static final int MAGIC = 0x46315054;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES + Long.BYTES;
+
+    private final ByteBuffer actions;
+    private final int width;
+    private final int height;
+    private final long checksum;
+
+    private PolicyTable(ByteBuffer actions, int width, int height, long checksum) {
+        this.actions = actions;
+        this.width = width;
+        this.height = height;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Returns the index of a state in the table.
+     *
+     * @param cell the cell index.
+     * @param velocity the velocity, as defined by {@link MoveModel}.
+     * @return the state index.
+     */
+    public static int state(int cell, int velocity) {
+        return cell * MoveModel.VELOCITIES + velocity;
+    }
+
+    /**
+     * Writes the policy of a grid to a file.
+     *
+     * @param file the file to write.
+     * @param grid the grid the policy was computed for.
+     * @param policy the action of every state, as returned by {@link ValueIteration#solve()}.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path file, TrackGrid grid, byte[] policy) throws IOException {
+        if (policy.length != grid.size() * MoveModel.VELOCITIES) {
+            throw new IllegalArgumentException("Policy size does not match the grid");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(grid.getWidth())
+                .putInt(grid.getHeight())
+                .putInt(MoveModel.VELOCITIES)
+                .putLong(grid.checksum())
+                .flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer body = ByteBuffer.wrap(policy);
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, body});
+            }
+        }
+    }
+
+    /**
+     * Memory-maps a policy file.
+     *
+     * @param file the file to open.
+     * @return the mapped table.
+     * @throws IOException if the file cannot be read or is not a valid policy file.
+     */
+    public static PolicyTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Policy file is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a policy file or unsupported version");
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int velocities = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (velocities != MoveModel.VELOCITIES
+                    || channel.size() != HEADER_SIZE + (long) width * height * velocities) {
+                throw new IOException("Policy file size does not match its header");
+            }
+            return new PolicyTable(buffer.slice(HEADER_SIZE, width * height * velocities), width, height, checksum);
+        }
+    }
+
+    /**
+     * Checks whether this table was computed for the given grid.
+     *
+     * @param grid the grid to compare.
+     * @return true if dimensions and cell types match.
+     */
+    public boolean matches(TrackGrid grid) {
+        return grid.getWidth() == width && grid.getHeight() == height && grid.checksum() == checksum;
+    }
+
+    /**
+     * Returns the best move of a state.
+     *
+     * @param cell the cell index.
+     * @param velocity the velocity.
+     * @return the direction to move in, or {@link #NO_ACTION}.
+     */
+    public int action(int cell, int velocity) {
+        return actions.get(state(cell, velocity));
+    }
+}
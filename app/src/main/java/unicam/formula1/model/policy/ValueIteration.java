@@ -0,0 +1,118 @@
+package unicam.formula1.model.policy;
+
+import unicam.formula1.model.sim.MoveModel;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.model.sim.TransitionGraph;
+
+import java.util.stream.IntStream;
+
+/**
+ * Computes the optimal move of every (cell, velocity) state of a track by value iteration.
+ * The move model is the one of {@link unicam.formula1.model.BotPlayer}: repeating the last move onto a
+ * TRACK cell is a safe main move, while any other step to a TRACK or FINISH neighbor is an adjacent move
+ * that crashes once in {@link MoveModel#CRASH_CHANCE} attempts. The value of a state is the discounted
+ * probability of reaching the finish line, so the policy prefers short and safe routes.
+ * Each sweep updates all cells in parallel from the values of the previous sweep.
+ */
+public final class ValueIteration {
+
+    private static final double DISCOUNT = 0.99;
+    private static final double EPSILON = 1e-9;
+    private static final double ADJACENT_SUCCESS = 1.0 - 1.0 / MoveModel.CRASH_CHANCE;
+
+    private final TrackGrid grid;
+    private final int maxSweeps;
+    private int sweeps;
+
+    /**
+     * Constructs a solver for the given grid.
+     *
+     * @param grid the track grid.
+     * @param maxSweeps the maximum number of sweeps performed before giving up on convergence.
+     */
+    public ValueIteration(TrackGrid grid, int maxSweeps) {
+        this.grid = grid;
+        this.maxSweeps = maxSweeps;
+    }
+
+    /**
+     * Runs value iteration until the values converge and extracts the greedy policy.
+     *
+     * @return the best direction of every state, indexed by {@link PolicyTable#state(int, int)},
+     * or {@link PolicyTable#NO_ACTION} for states with no safe move.
+     */
+    public byte[] solve() {
+        double[] values = new double[grid.size() * MoveModel.VELOCITIES];
+        double[] next = new double[values.length];
+        sweeps = 0;
+        double delta = Double.POSITIVE_INFINITY;
+        while (delta > EPSILON && sweeps < maxSweeps) {
+            double[] current = values;
+            double[] updated = next;
+            delta = IntStream.range(0, grid.size()).parallel()
+                    .mapToDouble(cell -> sweep(cell, current, updated))
+                    .max()
+                    .orElse(0);
+            values = updated;
+            next = current;
+            sweeps++;
+        }
+        double[] solved = values;
+        byte[] policy = new byte[values.length];
+        IntStream.range(0, grid.size()).parallel().forEach(cell -> {
+            for (int velocity = 0; velocity < MoveModel.VELOCITIES; velocity++) {
+                policy[PolicyTable.state(cell, velocity)] = (byte) bestAction(cell, velocity, solved);
+            }
+        });
+        return policy;
+    }
+
+    /**
+     * Returns the number of sweeps performed by the last call to {@link #solve()}.
+     *
+     * @return the number of sweeps.
+     */
+    public int getSweeps() {
+        return sweeps;
+    }
+
+    /**
+     * Updates the values of all velocities of a cell and returns the largest change.
+     */
+    private double sweep(int cell, double[] values, double[] next) {
+        double delta = 0;
+        for (int velocity = 0; velocity < MoveModel.VELOCITIES; velocity++) {
+            int state = PolicyTable.state(cell, velocity);
+            int action = bestAction(cell, velocity, values);
+            next[state] = action == PolicyTable.NO_ACTION
+                    ? 0
+                    : quality(cell, velocity, action, grid.neighbor(cell, action), values);
+            delta = Math.max(delta, Math.abs(next[state] - values[state]));
+        }
+        return delta;
+    }
+
+    private int bestAction(int cell, int velocity, double[] values) {
+        if (grid.isCrash(cell) || grid.isFinish(cell)) {
+            return PolicyTable.NO_ACTION;
+        }
+        int best = PolicyTable.NO_ACTION;
+        double bestQuality = -1;
+        TransitionGraph graph = grid.transitions();
+        for (int edge = graph.begin(cell), end = graph.end(cell); edge < end; edge++) {
+            int direction = graph.direction(edge);
+            double quality = quality(cell, velocity, direction, graph.target(edge), values);
+            if (quality > bestQuality) {
+                bestQuality = quality;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    private double quality(int cell, int velocity, int direction, int target, double[] values) {
+        double success = MoveModel.mainTarget(grid, cell, velocity) == target ? 1.0 : ADJACENT_SUCCESS;
+        double value = grid.isFinish(target) ? 1.0 : values[PolicyTable.state(target, direction)];
+        return success * DISCOUNT * value;
+    }
+}
@@ -0,0 +1,219 @@
+package unicam.formula1.model.rl;
+
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.MoveModel;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.util.SplittableRandom;
+
+/**
+ * Gym-style reinforcement learning environment running a batch of independent races on the same track.
+ * Each environment holds one learning car, controlled through {@link #step(byte[])}, and a number of rival
+ * cars moving like {@link unicam.formula1.model.BotPlayer}. Races follow the rules of
+ * {@link unicam.formula1.model.GameEngine} through {@link RaceState}, so stepping allocates no object.
+ * <p>
+ * Results are exposed in flat primitive buffers that are overwritten by every call:
+ * <ul>
+ *     <li>observations: for each environment, the {@link CellType} ordinals of the square patch of cells
+ *     centered on the car (row-major, off-grid cells read as OFF_TRACK), followed by the x and y
+ *     components of its velocity;</li>
+ *     <li>rewards: {@link #FINISH_REWARD} for winning, {@link #CRASH_REWARD} for crashing and
+ *     {@link #STEP_REWARD} for any other step;</li>
+ *     <li>dones: 1 when the episode ended because the car finished, crashed, lost the race or ran out of
+ *     steps.</li>
+ * </ul>
+ * Finished environments are reset automatically, so the observation following a done belongs to the next
+ * episode.
+ */
+public final class RaceEnvironment {
+
+    /**
+     * Reward for reaching the finish line first.
+     */
+    public static final float FINISH_REWARD = 1f;
+
+    /**
+     * Reward for crashing.
+     */
+    public static final float CRASH_REWARD = -1f;
+
+    /**
+     * Reward for any step that does not end the race.
+     */
+    public static final float STEP_REWARD = -0.01f;
+
+    private static final int AGENT = 0;
+
+    private final TrackGrid grid;
+    private final int[] startCells;
+    private final int environments;
+    private final int patchRadius;
+    private final int patchSide;
+    private final int observationSize;
+    private final int maxSteps;
+    private final RaceState[] races;
+    private final SplittableRandom[] randoms;
+    private final int[] startBuffer;
+    private final byte[] observations;
+    private final float[] rewards;
+    private final byte[] dones;
+
+    /**
+     * Constructs a batch of environments.
+     *
+     * @param grid the track grid all environments race on.
+     * @param environments the number of parallel environments.
+     * @param rivals the number of rival bots in each environment.
+     * @param patchRadius the number of cells observed around the car in each direction.
+     * @param maxSteps the number of steps after which an episode is truncated.
+     * @param seed the seed from which every environment derives its own random generator.
+     */
+    public RaceEnvironment(TrackGrid grid, int environments, int rivals, int patchRadius, int maxSteps, long seed) {
+        this.grid = grid;
+        this.startCells = grid.cellsOf(CellType.START);
+        if (startCells.length == 0) {
+            throw new IllegalArgumentException("Track has no start positions");
+        }
+        if (environments <= 0 || rivals < 0 || patchRadius < 0 || maxSteps <= 0) {
+            throw new IllegalArgumentException("Invalid environment settings");
+        }
+        this.environments = environments;
+        this.patchRadius = patchRadius;
+        this.patchSide = 2 * patchRadius + 1;
+        this.observationSize = patchSide * patchSide + 2;
+        this.maxSteps = maxSteps;
+        this.races = new RaceState[environments];
+        this.randoms = new SplittableRandom[environments];
+        this.startBuffer = new int[rivals + 1];
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int env = 0; env < environments; env++) {
+            randoms[env] = seeds.split();
+            races[env] = new RaceState(grid, startBuffer);
+        }
+        this.observations = new byte[environments * observationSize];
+        this.rewards = new float[environments];
+        this.dones = new byte[environments];
+    }
+
+    /**
+     * Resets every environment and computes the first observations.
+     */
+    public void reset() {
+        for (int env = 0; env < environments; env++) {
+            resetEnvironment(env);
+            observe(env);
+            rewards[env] = 0;
+            dones[env] = 0;
+        }
+    }
+
+    /**
+     * Advances every environment by one step.
+     *
+     * @param actions one direction per environment, between 0 and {@link TrackGrid#DIRECTIONS} exclusive,
+     *                moving the car to the neighbor in that direction.
+     */
+    public void step(byte[] actions) {
+        if (actions.length < environments) {
+            throw new IllegalArgumentException("Expected " + environments + " actions");
+        }
+        for (int env = 0; env < environments; env++) {
+            RaceState race = races[env];
+            int action = actions[env];
+            int target = action >= 0 && action < TrackGrid.DIRECTIONS
+                    ? grid.neighbor(race.getPosition(AGENT), action)
+                    : TrackGrid.NO_CELL;
+            race.step(randoms[env], AGENT, target == TrackGrid.NO_CELL ? MoveModel.CRASH : target);
+            boolean done = true;
+            if (!race.isAlive(AGENT)) {
+                rewards[env] = CRASH_REWARD;
+            } else if (race.getWinner() == AGENT) {
+                rewards[env] = FINISH_REWARD;
+            } else {
+                rewards[env] = STEP_REWARD;
+                done = race.getWinner() != RaceState.NO_WINNER || race.getTick() >= maxSteps;
+            }
+            dones[env] = (byte) (done ? 1 : 0);
+            if (done) {
+                resetEnvironment(env);
+            }
+            observe(env);
+        }
+    }
+
+    /**
+     * Returns the number of environments of the batch.
+     *
+     * @return the number of environments.
+     */
+    public int getEnvironmentCount() {
+        return environments;
+    }
+
+    /**
+     * Returns the number of bytes of the observation of one environment.
+     *
+     * @return the observation size.
+     */
+    public int getObservationSize() {
+        return observationSize;
+    }
+
+    /**
+     * Returns the observations of all environments, one block of {@link #getObservationSize()} bytes each.
+     *
+     * @return the observation buffer, overwritten by every step.
+     */
+    public byte[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * Returns the rewards of the last step.
+     *
+     * @return the reward buffer, overwritten by every step.
+     */
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * Returns the done flags of the last step.
+     *
+     * @return the done buffer, overwritten by every step.
+     */
+    public byte[] getDones() {
+        return dones;
+    }
+
+    /**
+     * Places the learning car on a random start cell and the rivals on the following ones.
+     */
+    private void resetEnvironment(int env) {
+        int first = randoms[env].nextInt(startCells.length);
+        for (int car = 0; car < startBuffer.length; car++) {
+            startBuffer[car] = startCells[(first + car) % startCells.length];
+        }
+        races[env].reset(startBuffer);
+    }
+
+    private void observe(int env) {
+        RaceState race = races[env];
+        int cell = race.getPosition(AGENT);
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        int offset = env * observationSize;
+        for (int dy = -patchRadius; dy <= patchRadius; dy++) {
+            for (int dx = -patchRadius; dx <= patchRadius; dx++) {
+                int index = grid.index(x + dx, y + dy);
+                CellType type = index == TrackGrid.NO_CELL ? CellType.OFF_TRACK : grid.type(index);
+                observations[offset++] = (byte) type.ordinal();
+            }
+        }
+        int velocity = race.getVelocity(AGENT);
+        boolean moving = velocity != MoveModel.NO_VELOCITY;
+        observations[offset++] = (byte) (moving ? TrackGrid.deltaX(velocity) : 0);
+        observations[offset] = (byte) (moving ? TrackGrid.deltaY(velocity) : 0);
+    }
+}
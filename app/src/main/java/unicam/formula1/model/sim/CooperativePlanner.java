@@ -0,0 +1,247 @@
+package unicam.formula1.model.sim;
+
+import java.util.Arrays;
+
+/**
+ * Plans collision-free routes to the finish line for many cars at once with windowed cooperative A*.
+ * Cars are planned one after the other, leaders first, and every planned position is written into a shared
+ * {@link ReservationTable} keyed by (cell, tick), so later cars route around the cells and swaps already
+ * claimed. Each search only looks {@code window} ticks ahead, guided by the exact distance to the finish
+ * of a {@link DistanceField}, so its cost does not depend on the length of the circuit, and routes are
+ * replanned before the window runs out. Cars cannot stand still, so a plan is a sequence of moves along
+ * the {@link TransitionGraph} of the grid; among equally short routes, the one with fewer turns wins.
+ * When no conflict-free route spans the whole window, a car gets the prefix leading closest to the finish.
+ */
+public final class CooperativePlanner {
+
+    private static final int NODE_BUDGET = 1 << 14;
+    private static final long NODE_MASK = (1 << 24) - 1;
+
+    private final TrackGrid grid;
+    private final TransitionGraph graph;
+    private final DistanceField distances;
+    private final int window;
+    private final ReservationTable reservations;
+    private final ReservationTable visited;
+    private final int[][] plans;
+    private final int[] planLengths;
+    private int planTick;
+    // A* node pool and heap, reused by every search
+    private final int[] nodeCell = new int[NODE_BUDGET];
+    private final int[] nodeStep = new int[NODE_BUDGET];
+    private final int[] nodeParent = new int[NODE_BUDGET];
+    private final int[] nodeDirection = new int[NODE_BUDGET];
+    private final int[] nodeTurns = new int[NODE_BUDGET];
+    private final long[] heap = new long[NODE_BUDGET];
+
+    /**
+     * Constructs a planner.
+     *
+     * @param grid the track grid.
+     * @param cars the number of cars.
+     * @param window the number of ticks planned ahead.
+     */
+    public CooperativePlanner(TrackGrid grid, int cars, int window) {
+        if (cars <= 0 || window <= 0) {
+            throw new IllegalArgumentException("Cars and window must be positive");
+        }
+        this.grid = grid;
+        this.graph = grid.transitions();
+        this.distances = DistanceField.of(grid);
+        this.window = window;
+        this.reservations = new ReservationTable(cars * (window + 1));
+        this.visited = new ReservationTable(NODE_BUDGET);
+        this.plans = new int[cars][window];
+        this.planLengths = new int[cars];
+    }
+
+    /**
+     * Returns the number of ticks planned ahead.
+     *
+     * @return the window.
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns the distance field guiding the planner.
+     *
+     * @return the distance to the finish of every cell.
+     */
+    public DistanceField getDistances() {
+        return distances;
+    }
+
+    /**
+     * Plans every car from the given tick, dropping previous plans and reservations.
+     *
+     * @param tick the current tick.
+     * @param positions the current cell of every car, {@link TrackGrid#NO_CELL} for cars out of the race.
+     * @param velocities the current velocity of every car.
+     */
+    public void replan(int tick, int[] positions, int[] velocities) {
+        reservations.clear();
+        planTick = tick;
+        Integer[] order = new Integer[positions.length];
+        for (int car = 0; car < positions.length; car++) {
+            order[car] = car;
+            planLengths[car] = 0;
+            if (positions[car] != TrackGrid.NO_CELL) {
+                reservations.put(positions[car], tick, car);
+            }
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(distance(positions[a]), distance(positions[b])));
+        for (int car : order) {
+            if (positions[car] != TrackGrid.NO_CELL) {
+                plan(car, positions[car], velocities[car], tick);
+            }
+        }
+    }
+
+    private int distance(int cell) {
+        return cell == TrackGrid.NO_CELL ? DistanceField.UNREACHABLE : distances.distance(cell);
+    }
+
+    /**
+     * Returns the cell a car should move to at a tick.
+     *
+     * @param car the car.
+     * @param tick the tick of the move, the car moving from its position at this tick.
+     * @return the planned cell, or {@link TrackGrid#NO_CELL} if the plan does not cover the tick.
+     */
+    public int next(int car, int tick) {
+        int step = tick - planTick;
+        return step >= 0 && step < planLengths[car] ? plans[car][step] : TrackGrid.NO_CELL;
+    }
+
+    /**
+     * Returns the car that reserved a cell at a tick.
+     *
+     * @param cell the cell index.
+     * @param tick the tick.
+     * @return the car, or {@link ReservationTable#NONE}.
+     */
+    public int reservedBy(int cell, int tick) {
+        return reservations.get(cell, tick);
+    }
+
+    /**
+     * Searches the best route of a car within the window and reserves it.
+     */
+    private void plan(int car, int start, int velocity, int tick) {
+        if (distance(start) == DistanceField.UNREACHABLE) {
+            return;
+        }
+        visited.clear();
+        int nodes = 0;
+        int heapSize = 0;
+        nodeCell[0] = start;
+        nodeStep[0] = 0;
+        nodeParent[0] = -1;
+        nodeDirection[0] = velocity;
+        nodeTurns[0] = 0;
+        heap[heapSize++] = priority(0, 0);
+        nodes++;
+        int best = 0;
+        while (heapSize > 0) {
+            int node = (int) (heap[0] & NODE_MASK);
+            heapSize = pop(heapSize);
+            int cell = nodeCell[node];
+            int step = nodeStep[node];
+            if (isBetter(node, best)) {
+                best = node;
+            }
+            if ((step > 0 && grid.isFinish(cell)) || step == window) {
+                break;
+            }
+            for (int edge = graph.begin(cell), end = graph.end(cell); edge < end && nodes < NODE_BUDGET; edge++) {
+                int target = graph.target(edge);
+                int time = tick + step + 1;
+                if (distance(target) == DistanceField.UNREACHABLE
+                        || visited.get(target, step + 1) != ReservationTable.NONE
+                        || isTaken(car, cell, target, time)) {
+                    continue;
+                }
+                visited.put(target, step + 1, nodes);
+                nodeCell[nodes] = target;
+                nodeStep[nodes] = step + 1;
+                nodeParent[nodes] = node;
+                nodeDirection[nodes] = graph.direction(edge);
+                nodeTurns[nodes] = nodeTurns[node] + (graph.direction(edge) == nodeDirection[node] ? 0 : 1);
+                heap[heapSize] = priority(nodes, step + 1 + distance(target));
+                heapSize = push(heapSize);
+                nodes++;
+            }
+        }
+        int length = nodeStep[best];
+        for (int node = best; node > 0; node = nodeParent[node]) {
+            plans[car][nodeStep[node] - 1] = nodeCell[node];
+            reservations.put(nodeCell[node], tick + nodeStep[node], car);
+        }
+        planLengths[car] = length;
+    }
+
+    /**
+     * Checks whether another car holds the target cell at the time of arrival, or is coming the other way.
+     */
+    private boolean isTaken(int car, int from, int to, int time) {
+        int holder = reservations.get(to, time);
+        if (holder != ReservationTable.NONE && holder != car) {
+            return true;
+        }
+        int oncoming = reservations.get(from, time);
+        return oncoming != ReservationTable.NONE && oncoming != car && reservations.get(to, time - 1) == oncoming;
+    }
+
+    /**
+     * Prefers the node closest to the finish, then the one furthest in time, then the one with fewer turns.
+     */
+    private boolean isBetter(int node, int best) {
+        int distance = distance(nodeCell[node]);
+        int bestDistance = distance(nodeCell[best]);
+        if (distance != bestDistance) {
+            return distance < bestDistance;
+        }
+        if (nodeStep[node] != nodeStep[best]) {
+            return nodeStep[node] > nodeStep[best];
+        }
+        return nodeTurns[node] < nodeTurns[best];
+    }
+
+    /**
+     * Packs the estimated route length, the turns and the node into a heap entry ordered by the first two.
+     */
+    private long priority(int node, int estimate) {
+        return ((long) estimate << 40) | ((long) nodeTurns[node] << 24) | node;
+    }
+
+    private int push(int size) {
+        int position = size;
+        long entry = heap[position];
+        while (position > 0 && heap[(position - 1) / 2] > entry) {
+            heap[position] = heap[(position - 1) / 2];
+            position = (position - 1) / 2;
+        }
+        heap[position] = entry;
+        return size + 1;
+    }
+
+    private int pop(int size) {
+        long last = heap[--size];
+        int position = 0;
+        while (2 * position + 1 < size) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = last;
+        return size;
+    }
+}
@@ -0,0 +1,282 @@
+package unicam.formula1.model.sim;
+
+import unicam.formula1.model.TrackPatch;
+import unicam.formula1.model.abstracts.CellType;
+
+import java.util.Arrays;
+
+/**
+ * Number of steps from every cell of a track to the nearest FINISH cell, moving one cell at a time in any
+ * of the eight directions through drivable cells, kept up to date while cells change during a race.
+ * <p>
+ * The field is maintained with Lifelong Planning A* searching backwards from the finish line, without a
+ * heuristic since every cell needs its distance. Every cell keeps its distance {@code g} and a one-step
+ * lookahead {@code rhs}, the smallest distance of its drivable neighbors plus one. A change only makes the
+ * changed cell and its neighbors inconsistent, and the repair pops inconsistent cells from a priority queue
+ * until none is left, so its cost is proportional to the number of cells whose distance actually changes,
+ * not to the size of the track.
+ */
+public final class DistanceField {
+
+    /**
+     * Distance of a cell from which no FINISH cell can be reached.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final TrackGrid grid;
+    private final boolean[] drivable;
+    private final boolean[] goal;
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedHeap queue;
+    private int lastRepair;
+
+    private DistanceField(TrackGrid grid) {
+        this.grid = grid;
+        int size = grid.size();
+        this.drivable = new boolean[size];
+        this.goal = new boolean[size];
+        this.g = new int[size];
+        this.rhs = new int[size];
+        this.queue = new IndexedHeap(size);
+        Arrays.fill(g, UNREACHABLE);
+        Arrays.fill(rhs, UNREACHABLE);
+    }
+
+    /**
+     * Computes the field of a grid.
+     *
+     * @param grid the track grid.
+     * @return the distance field.
+     */
+    public static DistanceField of(TrackGrid grid) {
+        DistanceField field = new DistanceField(grid);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            CellType type = grid.type(cell);
+            field.drivable[cell] = type.isDrivable();
+            field.goal[cell] = type == CellType.FINISH;
+            if (field.goal[cell]) {
+                field.rhs[cell] = 0;
+                field.queue.push(cell, 0);
+            }
+        }
+        field.repair();
+        return field;
+    }
+
+    /**
+     * Returns the distance of a cell from the finish line.
+     *
+     * @param cell the cell index.
+     * @return the number of steps, or {@link #UNREACHABLE}.
+     */
+    public int distance(int cell) {
+        return g[cell];
+    }
+
+    /**
+     * Returns the distance of the cell with the given coordinates from the finish line.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @return the number of steps, or {@link #UNREACHABLE}, also for coordinates outside the track.
+     */
+    public int distance(int x, int y) {
+        int cell = grid.index(x, y);
+        return cell == TrackGrid.NO_CELL ? UNREACHABLE : g[cell];
+    }
+
+    /**
+     * Returns the number of cells popped from the queue by the last update, a measure of its cost.
+     *
+     * @return the number of repaired cells.
+     */
+    public int getLastRepair() {
+        return lastRepair;
+    }
+
+    /**
+     * Changes the type of a cell and repairs the field.
+     *
+     * @param cell the cell index.
+     * @param type the new type of the cell.
+     */
+    public void update(int cell, CellType type) {
+        change(cell, type);
+        repair();
+    }
+
+    /**
+     * Applies every change of a patch and repairs the field once.
+     *
+     * @param patch the patch applied to the track.
+     */
+    public void apply(TrackPatch patch) {
+        for (TrackPatch.Change change : patch.changes()) {
+            change(grid.index(change.x(), change.y()), change.type());
+        }
+        repair();
+    }
+
+    /**
+     * Records the new type of a cell and marks the cells whose lookahead depends on it as inconsistent:
+     * the cell itself if it joins or leaves the finish line, and its neighbors if it becomes drivable or not.
+     */
+    private void change(int cell, CellType type) {
+        boolean wasDrivable = drivable[cell];
+        boolean wasGoal = goal[cell];
+        drivable[cell] = type.isDrivable();
+        goal[cell] = type == CellType.FINISH;
+        if (goal[cell] != wasGoal) {
+            updateLookahead(cell);
+        }
+        if (drivable[cell] != wasDrivable) {
+            for (int direction = 0; direction < TrackGrid.DIRECTIONS; direction++) {
+                int neighbor = grid.neighbor(cell, direction);
+                if (neighbor != TrackGrid.NO_CELL) {
+                    updateLookahead(neighbor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes the lookahead of a cell and queues it if it became inconsistent.
+     */
+    private void updateLookahead(int cell) {
+        if (goal[cell]) {
+            rhs[cell] = 0;
+        } else {
+            int best = UNREACHABLE;
+            for (int direction = 0; direction < TrackGrid.DIRECTIONS; direction++) {
+                int neighbor = grid.neighbor(cell, direction);
+                if (neighbor != TrackGrid.NO_CELL && drivable[neighbor] && g[neighbor] != UNREACHABLE) {
+                    best = Math.min(best, g[neighbor] + 1);
+                }
+            }
+            rhs[cell] = best;
+        }
+        queue.remove(cell);
+        if (g[cell] != rhs[cell]) {
+            queue.push(cell, Math.min(g[cell], rhs[cell]));
+        }
+    }
+
+    /**
+     * Pops inconsistent cells in order of distance until every cell is consistent. An overconsistent cell
+     * takes its lookahead as distance; an underconsistent one is invalidated and queued again, and in both
+     * cases the neighbors depending on it are updated.
+     */
+    private void repair() {
+        lastRepair = 0;
+        while (!queue.isEmpty()) {
+            int cell = queue.pop();
+            lastRepair++;
+            if (g[cell] > rhs[cell]) {
+                g[cell] = rhs[cell];
+            } else {
+                g[cell] = UNREACHABLE;
+                updateLookahead(cell);
+            }
+            if (drivable[cell]) {
+                for (int direction = 0; direction < TrackGrid.DIRECTIONS; direction++) {
+                    int neighbor = grid.neighbor(cell, direction);
+                    if (neighbor != TrackGrid.NO_CELL) {
+                        updateLookahead(neighbor);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Binary min-heap of cell indices keyed by int, with the position of every cell kept so that a queued
+     * cell can be removed in logarithmic time.
+     */
+    private static final class IndexedHeap {
+
+        private final int[] cells;
+        private final int[] keys;
+        private final int[] positions;
+        private int size;
+
+        IndexedHeap(int capacity) {
+            this.cells = new int[capacity];
+            this.keys = new int[capacity];
+            this.positions = new int[capacity];
+            Arrays.fill(positions, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int cell, int key) {
+            cells[size] = cell;
+            keys[cell] = key;
+            positions[cell] = size;
+            siftUp(size++);
+        }
+
+        int pop() {
+            int top = cells[0];
+            removeAt(0);
+            return top;
+        }
+
+        void remove(int cell) {
+            int position = positions[cell];
+            if (position >= 0) {
+                removeAt(position);
+            }
+        }
+
+        private void removeAt(int position) {
+            int removed = cells[position];
+            positions[removed] = -1;
+            size--;
+            if (position < size) {
+                cells[position] = cells[size];
+                positions[cells[position]] = position;
+                siftDown(position);
+                siftUp(position);
+            }
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (keys[cells[parent]] <= keys[cells[position]]) {
+                    return;
+                }
+                swap(parent, position);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && keys[cells[child + 1]] < keys[cells[child]]) {
+                    child++;
+                }
+                if (keys[cells[position]] <= keys[cells[child]]) {
+                    return;
+                }
+                swap(position, child);
+                position = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int cell = cells[a];
+            cells[a] = cells[b];
+            cells[b] = cell;
+            positions[cells[a]] = a;
+            positions[cells[b]] = b;
+        }
+    }
+}
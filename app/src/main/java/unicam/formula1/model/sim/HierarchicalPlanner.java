@@ -0,0 +1,595 @@
+package unicam.formula1.model.sim;
+
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.TrackPatch;
+import unicam.formula1.model.abstracts.CellType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Hierarchical path planner (HPA*) for tracks too large for a {@link TrackGrid} or a {@link DistanceField}.
+ * Moves are one step in any of the eight directions through drivable cells, as for the distance field.
+ * <p>
+ * The track is split into square clusters. Where two neighboring clusters touch, every maximal run of cells
+ * open on both sides of the border becomes an entrance, with one transition in its middle, or one at each
+ * end for long runs. Diagonal crossings that no run covers get a transition of their own. The cells of the
+ * transitions are the nodes of an abstract graph, linked across borders with cost one and, inside a
+ * cluster, with their exact distance within the cluster. Every node also knows its distance to the nearest
+ * FINISH cell of its cluster. Clusters only depend on their own cells and on the cells just across their
+ * borders, so they are built in parallel, and a change to a cell only rebuilds the clusters that see it.
+ * <p>
+ * A query connects the start to the nodes of its cluster, runs A* on the abstract graph, guided by the
+ * distance to the bounding box of the finish line, and refines the result with searches inside single
+ * clusters. Queries only read the track, and paths are near-optimal rather than shortest.
+ */
+public final class HierarchicalPlanner {
+
+    private static final int LONG_ENTRANCE = 6;
+    // Fewer clusters than this are rebuilt on the calling thread, where a pool would cost more than it saves
+    private static final int INLINE_REBUILD = 16;
+    private static final int START = -2;
+    private static final int NONE = -1;
+    private static final int UNREACHABLE = DistanceField.UNREACHABLE;
+
+    private final Track track;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+    private final int stride;
+    private final int parallelism;
+    private final Cluster[] clusters;
+    private int finishMinX = Integer.MAX_VALUE;
+    private int finishMinY = Integer.MAX_VALUE;
+    private int finishMaxX = Integer.MIN_VALUE;
+    private int finishMaxY = Integer.MIN_VALUE;
+    private int lastRebuild;
+
+    /**
+     * Builds the abstract graph of a track.
+     *
+     * @param track the track.
+     * @param clusterSize the number of cells along each side of a cluster.
+     * @param parallelism the number of threads building the clusters.
+     * @throws IllegalArgumentException if the sizes are not positive or the track has too many clusters.
+     */
+    public HierarchicalPlanner(Track track, int clusterSize, int parallelism) {
+        if (clusterSize < 2 || parallelism <= 0) {
+            throw new IllegalArgumentException("Cluster size must be at least 2 and parallelism positive");
+        }
+        this.track = track;
+        this.clusterSize = clusterSize;
+        this.clustersX = (track.getWidth() + clusterSize - 1) / clusterSize;
+        this.clustersY = (track.getHeight() + clusterSize - 1) / clusterSize;
+        this.stride = 4 * clusterSize;
+        if ((long) clustersX * clustersY * stride > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many clusters, use a larger cluster size");
+        }
+        this.parallelism = parallelism;
+        this.clusters = new Cluster[clustersX * clustersY];
+        int[] all = new int[clusters.length];
+        Arrays.setAll(all, id -> id);
+        rebuild(all);
+    }
+
+    /**
+     * Returns the number of clusters.
+     *
+     * @return the cluster count.
+     */
+    public int getClusterCount() {
+        return clusters.length;
+    }
+
+    /**
+     * Returns the number of nodes of the abstract graph.
+     *
+     * @return the node count.
+     */
+    public int getNodeCount() {
+        return Arrays.stream(clusters).mapToInt(cluster -> cluster.nodes.length).sum();
+    }
+
+    /**
+     * Returns the number of clusters rebuilt by the last call to {@link #apply(TrackPatch)}.
+     *
+     * @return the number of rebuilt clusters.
+     */
+    public int getLastRebuild() {
+        return lastRebuild;
+    }
+
+    /**
+     * Rebuilds the clusters affected by a patch already applied to the track: the clusters of the changed
+     * cells and of the cells around them, whose entrances may depend on the changes.
+     *
+     * @param patch the patch applied to the track.
+     */
+    public void apply(TrackPatch patch) {
+        Set<Integer> affected = new LinkedHashSet<>();
+        for (TrackPatch.Change change : patch.changes()) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int x = change.x() + dx;
+                    int y = change.y() + dy;
+                    if (x >= 0 && x < track.getWidth() && y >= 0 && y < track.getHeight()) {
+                        affected.add(clusterOf(x, y));
+                    }
+                }
+            }
+        }
+        rebuild(affected.stream().mapToInt(Integer::intValue).toArray());
+        lastRebuild = affected.size();
+    }
+
+    /**
+     * Finds a path from a cell to the finish line.
+     *
+     * @param start the start cell.
+     * @return the cells of the path after the start, ending on a FINISH cell, or an empty list if the
+     *         finish line cannot be reached or the start is already on it.
+     * @throws IllegalArgumentException if the start lies outside the track.
+     */
+    public List<Cell> path(Cell start) {
+        int sx = start.getX();
+        int sy = start.getY();
+        if (sx < 0 || sx >= track.getWidth() || sy < 0 || sy >= track.getHeight()) {
+            throw new IllegalArgumentException("Start outside the track: " + start);
+        }
+        int startCluster = clusterOf(sx, sy);
+        Cluster first = clusters[startCluster];
+        Local local = load(first);
+        int[] startDistances = local.search(first.local(sx, sy), null);
+        int bestGoal = UNREACHABLE;
+        int goalParent = NONE;
+        int startFinish = local.nearestFinish(startDistances);
+        if (startFinish != NONE) {
+            bestGoal = startDistances[startFinish];
+            goalParent = START;
+        }
+        Map<Integer, Integer> costs = new HashMap<>();
+        Map<Integer, Integer> parents = new HashMap<>();
+        Set<Integer> closed = new HashSet<>();
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        for (int j = 0; j < first.nodes.length; j++) {
+            int distance = startDistances[first.nodes[j]];
+            if (distance != UNREACHABLE) {
+                int node = startCluster * stride + j;
+                costs.put(node, distance);
+                parents.put(node, START);
+                open.add(entry(distance + heuristic(node), node));
+            }
+        }
+        while (!open.isEmpty()) {
+            long entry = open.poll();
+            int node = (int) entry;
+            if ((int) (entry >>> 32) >= bestGoal) {
+                break;
+            }
+            if (!closed.add(node)) {
+                continue;
+            }
+            int cost = costs.get(node);
+            Cluster cluster = clusters[node / stride];
+            int i = node % stride;
+            int n = cluster.nodes.length;
+            if (cluster.finishCosts[i] != UNREACHABLE && cost + cluster.finishCosts[i] < bestGoal) {
+                bestGoal = cost + cluster.finishCosts[i];
+                goalParent = node;
+            }
+            for (int j = 0; j < n; j++) {
+                int edge = cluster.costs[i * n + j];
+                if (j != i && edge != UNREACHABLE) {
+                    relax(node, node - i + j, cost + edge, costs, parents, open);
+                }
+            }
+            for (long link : cluster.links[i]) {
+                int target = nodeOf(link);
+                if (target != NONE) {
+                    relax(node, target, cost + 1, costs, parents, open);
+                }
+            }
+        }
+        if (goalParent == NONE) {
+            return List.of();
+        }
+        List<Integer> chain = new ArrayList<>();
+        for (int node = goalParent; node != START; node = parents.get(node)) {
+            chain.add(node);
+        }
+        Collections.reverse(chain);
+        return refine(sx, sy, chain);
+    }
+
+    private static long entry(int priority, int node) {
+        return (long) priority << 32 | node;
+    }
+
+    private void relax(int from, int to, int cost, Map<Integer, Integer> costs, Map<Integer, Integer> parents,
+                       PriorityQueue<Long> open) {
+        Integer known = costs.get(to);
+        if (known == null || cost < known) {
+            costs.put(to, cost);
+            parents.put(to, from);
+            open.add(entry(cost + heuristic(to), to));
+        }
+    }
+
+    /**
+     * Returns the Chebyshev distance from a node to the bounding box of the finish line, a lower bound of
+     * its distance to any FINISH cell.
+     */
+    private int heuristic(int node) {
+        if (finishMinX > finishMaxX) {
+            return 0;
+        }
+        Cluster cluster = clusters[node / stride];
+        int local = cluster.nodes[node % stride];
+        int x = cluster.x0 + local % cluster.width;
+        int y = cluster.y0 + local / cluster.width;
+        int dx = Math.max(0, Math.max(finishMinX - x, x - finishMaxX));
+        int dy = Math.max(0, Math.max(finishMinY - y, y - finishMaxY));
+        return Math.max(dx, dy);
+    }
+
+    /**
+     * Turns a chain of abstract nodes into the cells of the path, searching inside single clusters.
+     */
+    private List<Cell> refine(int sx, int sy, List<Integer> chain) {
+        List<Cell> path = new ArrayList<>();
+        Cluster cluster = clusters[clusterOf(sx, sy)];
+        int from = cluster.local(sx, sy);
+        for (int node : chain) {
+            Cluster next = clusters[node / stride];
+            int to = next.nodes[node % stride];
+            if (next == cluster) {
+                appendLocalPath(path, cluster, from, to);
+            } else {
+                path.add(track.getCell(next.x0 + to % next.width, next.y0 + to / next.width));
+            }
+            cluster = next;
+            from = to;
+        }
+        appendLocalPath(path, cluster, from, NONE);
+        return path;
+    }
+
+    /**
+     * Appends the shortest path inside a cluster between two local cells, or to the nearest FINISH cell of
+     * the cluster if the target is {@link #NONE}.
+     */
+    private void appendLocalPath(List<Cell> path, Cluster cluster, int from, int to) {
+        Local local = load(cluster);
+        int[] parents = new int[cluster.width * cluster.height];
+        int[] distances = local.search(from, parents);
+        int target = to == NONE ? local.nearestFinish(distances) : to;
+        List<Cell> segment = new ArrayList<>();
+        for (int cell = target; cell != from; cell = parents[cell]) {
+            segment.add(track.getCell(cluster.x0 + cell % cluster.width, cluster.y0 + cell / cluster.width));
+        }
+        Collections.reverse(segment);
+        path.addAll(segment);
+    }
+
+    private int clusterOf(int x, int y) {
+        return (y / clusterSize) * clustersX + x / clusterSize;
+    }
+
+    /**
+     * Returns the abstract node of a packed track cell, or {@link #NONE} if the cell is not a node.
+     */
+    private int nodeOf(long packed) {
+        int x = (int) (packed % track.getWidth());
+        int y = (int) (packed / track.getWidth());
+        int id = clusterOf(x, y);
+        int index = Arrays.binarySearch(clusters[id].nodes, clusters[id].local(x, y));
+        return index < 0 ? NONE : id * stride + index;
+    }
+
+    private long pack(int x, int y) {
+        return (long) y * track.getWidth() + x;
+    }
+
+    private boolean isDrivable(int x, int y) {
+        CellType type = track.getCellType(x, y);
+        return type != null && type.isDrivable();
+    }
+
+    /**
+     * Builds the given clusters and widens the bounding box of the finish line. A few clusters, as rebuilt
+     * after most patches, are built on the calling thread, and more on a dedicated pool.
+     */
+    private void rebuild(int[] ids) {
+        if (ids.length < INLINE_REBUILD || parallelism == 1) {
+            for (int id : ids) {
+                clusters[id] = build(id);
+            }
+        } else {
+            buildInParallel(ids);
+        }
+        for (int id : ids) {
+            Cluster cluster = clusters[id];
+            if (cluster.finishMinX <= cluster.finishMaxX) {
+                finishMinX = Math.min(finishMinX, cluster.finishMinX);
+                finishMinY = Math.min(finishMinY, cluster.finishMinY);
+                finishMaxX = Math.max(finishMaxX, cluster.finishMaxX);
+                finishMaxY = Math.max(finishMaxY, cluster.finishMaxY);
+            }
+        }
+    }
+
+    /**
+     * Builds the given clusters on a dedicated pool.
+     */
+    private void buildInParallel(int[] ids) {
+        int chunks = Math.min(ids.length, parallelism * 4);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int begin = (int) ((long) ids.length * chunk / chunks);
+            int end = (int) ((long) ids.length * (chunk + 1) / chunks);
+            tasks.add(() -> {
+                for (int i = begin; i < end; i++) {
+                    clusters[ids[i]] = build(ids[i]);
+                }
+                return null;
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> task : pool.invokeAll(tasks)) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cluster build interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cluster build failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Builds a cluster: its nodes from the transitions across its borders, then a search from every node
+     * gives the costs to the other nodes and to the finish line.
+     */
+    private Cluster build(int id) {
+        int cx = id % clustersX;
+        int cy = id / clustersX;
+        int x0 = cx * clusterSize;
+        int y0 = cy * clusterSize;
+        Cluster cluster = new Cluster(x0, y0, Math.min(clusterSize, track.getWidth() - x0),
+                Math.min(clusterSize, track.getHeight() - y0));
+        TreeMap<Integer, List<Long>> transitions = new TreeMap<>();
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int nx = cx + dx;
+                int ny = cy + dy;
+                if ((dx == 0 && dy == 0) || nx < 0 || nx >= clustersX || ny < 0 || ny >= clustersY) {
+                    continue;
+                }
+                int other = ny * clustersX + nx;
+                boolean lower = id < other;
+                for (long[] pair : crossings(lower ? id : other, lower ? other : id)) {
+                    long own = lower ? pair[0] : pair[1];
+                    int x = (int) (own % track.getWidth());
+                    int y = (int) (own / track.getWidth());
+                    transitions.computeIfAbsent(cluster.local(x, y), key -> new ArrayList<>())
+                            .add(lower ? pair[1] : pair[0]);
+                }
+            }
+        }
+        int n = transitions.size();
+        cluster.nodes = transitions.keySet().stream().mapToInt(Integer::intValue).toArray();
+        cluster.links = transitions.values().stream()
+                .map(links -> links.stream().mapToLong(Long::longValue).toArray())
+                .toArray(long[][]::new);
+        cluster.costs = new int[n * n];
+        cluster.finishCosts = new int[n];
+        Local local = load(cluster);
+        for (int i = 0; i < n; i++) {
+            int[] distances = local.search(cluster.nodes[i], null);
+            for (int j = 0; j < n; j++) {
+                cluster.costs[i * n + j] = distances[cluster.nodes[j]];
+            }
+            int finish = local.nearestFinish(distances);
+            cluster.finishCosts[i] = finish == NONE ? UNREACHABLE : distances[finish];
+        }
+        for (int cell = 0; cell < local.finish.length; cell++) {
+            if (local.finish[cell]) {
+                cluster.finishMinX = Math.min(cluster.finishMinX, x0 + cell % cluster.width);
+                cluster.finishMinY = Math.min(cluster.finishMinY, y0 + cell / cluster.width);
+                cluster.finishMaxX = Math.max(cluster.finishMaxX, x0 + cell % cluster.width);
+                cluster.finishMaxY = Math.max(cluster.finishMaxY, y0 + cell / cluster.width);
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * Returns the transitions between two neighboring clusters, {@code a} before {@code b}, as pairs of
+     * packed cells, the first in {@code a}. The result only depends on the cells along the shared border,
+     * so both clusters compute the same transitions.
+     */
+    private List<long[]> crossings(int a, int b) {
+        int ax = a % clustersX;
+        int ay = a / clustersX;
+        int bx = b % clustersX;
+        int by = b / clustersX;
+        int lastX = Math.min((ax + 1) * clusterSize, track.getWidth()) - 1;
+        int lastY = Math.min((ay + 1) * clusterSize, track.getHeight()) - 1;
+        List<long[]> pairs = new ArrayList<>();
+        if (by == ay) {
+            border(pairs, lastX, ay * clusterSize, 0, 1, 1, 0, lastY - ay * clusterSize + 1);
+        } else if (bx == ax) {
+            border(pairs, ax * clusterSize, lastY, 1, 0, 0, 1, lastX - ax * clusterSize + 1);
+        } else {
+            int x = bx > ax ? lastX : ax * clusterSize;
+            int dx = bx > ax ? 1 : -1;
+            if (isDrivable(x, lastY) && isDrivable(x + dx, lastY + 1)) {
+                pairs.add(new long[]{pack(x, lastY), pack(x + dx, lastY + 1)});
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Collects the transitions along a straight border. The cells of the first cluster start at
+     * ({@code x}, {@code y}) and advance by ({@code stepX}, {@code stepY}) for {@code length} cells, and
+     * ({@code crossX}, {@code crossY}) leads across the border.
+     */
+    private void border(List<long[]> pairs, int x, int y, int stepX, int stepY, int crossX, int crossY,
+                        int length) {
+        boolean[] open = new boolean[length];
+        for (int t = 0; t < length; t++) {
+            int cx = x + t * stepX;
+            int cy = y + t * stepY;
+            open[t] = isDrivable(cx, cy) && isDrivable(cx + crossX, cy + crossY);
+        }
+        int t = 0;
+        while (t < length) {
+            if (!open[t]) {
+                t++;
+                continue;
+            }
+            int end = t;
+            while (end + 1 < length && open[end + 1]) {
+                end++;
+            }
+            int[] chosen = end - t + 1 >= LONG_ENTRANCE ? new int[]{t, end} : new int[]{(t + end) / 2};
+            for (int s : chosen) {
+                int cx = x + s * stepX;
+                int cy = y + s * stepY;
+                pairs.add(new long[]{pack(cx, cy), pack(cx + crossX, cy + crossY)});
+            }
+            t = end + 1;
+        }
+        for (t = 0; t < length; t++) {
+            int cx = x + t * stepX;
+            int cy = y + t * stepY;
+            if (!isDrivable(cx, cy)) {
+                continue;
+            }
+            for (int side = -1; side <= 1; side += 2) {
+                int s = t + side;
+                if (s >= 0 && s < length && !(open[t] && open[s])) {
+                    int tx = x + s * stepX + crossX;
+                    int ty = y + s * stepY + crossY;
+                    if (isDrivable(tx, ty)) {
+                        pairs.add(new long[]{pack(cx, cy), pack(tx, ty)});
+                    }
+                }
+            }
+        }
+    }
+
+    private Local load(Cluster cluster) {
+        int size = cluster.width * cluster.height;
+        boolean[] drivable = new boolean[size];
+        boolean[] finish = new boolean[size];
+        for (int cell = 0; cell < size; cell++) {
+            CellType type = track.getCellType(cluster.x0 + cell % cluster.width, cluster.y0 + cell / cluster.width);
+            drivable[cell] = type != null && type.isDrivable();
+            finish[cell] = type == CellType.FINISH;
+        }
+        return new Local(cluster.width, cluster.height, drivable, finish);
+    }
+
+    /**
+     * Area of the track covered by a cluster, with its abstract nodes. Node {@code i} is the local cell
+     * {@code nodes[i]}, sorted, linked to the packed cells {@code links[i]} across the borders.
+     */
+    private static final class Cluster {
+
+        final int x0;
+        final int y0;
+        final int width;
+        final int height;
+        int[] nodes;
+        long[][] links;
+        int[] costs;
+        int[] finishCosts;
+        int finishMinX = Integer.MAX_VALUE;
+        int finishMinY = Integer.MAX_VALUE;
+        int finishMaxX = Integer.MIN_VALUE;
+        int finishMaxY = Integer.MIN_VALUE;
+
+        Cluster(int x0, int y0, int width, int height) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.width = width;
+            this.height = height;
+        }
+
+        int local(int x, int y) {
+            return (y - y0) * width + (x - x0);
+        }
+    }
+
+    /**
+     * Cell types of a cluster, searched breadth-first without leaving the cluster.
+     */
+    private record Local(int width, int height, boolean[] drivable, boolean[] finish) {
+
+        /**
+         * Returns the distance of every cell of the cluster from a source, filling the parents if given.
+         * The source is left even if it is not drivable, as a car leaves its start position.
+         */
+        int[] search(int source, int[] parents) {
+            int[] distances = new int[drivable.length];
+            Arrays.fill(distances, UNREACHABLE);
+            int[] queue = new int[drivable.length];
+            int head = 0;
+            int tail = 0;
+            distances[source] = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell % width;
+                int y = cell / width;
+                for (int direction = 0; direction < TrackGrid.DIRECTIONS; direction++) {
+                    int nx = x + TrackGrid.deltaX(direction);
+                    int ny = y + TrackGrid.deltaY(direction);
+                    int next = ny * width + nx;
+                    if (nx >= 0 && nx < width && ny >= 0 && ny < height && drivable[next]
+                            && distances[next] == UNREACHABLE) {
+                        distances[next] = distances[cell] + 1;
+                        if (parents != null) {
+                            parents[next] = cell;
+                        }
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            return distances;
+        }
+
+        /**
+         * Returns the reachable FINISH cell closest to the source of a search, or {@link #NONE}.
+         */
+        int nearestFinish(int[] distances) {
+            int best = NONE;
+            for (int cell = 0; cell < finish.length; cell++) {
+                if (finish[cell] && distances[cell] != UNREACHABLE
+                        && (best == NONE || distances[cell] < distances[best])) {
+                    best = cell;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package unicam.formula1.model.sim;
+
+import unicam.formula1.model.Course;
+import unicam.formula1.model.TrackPatch;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link Course} compiled against a {@link TrackGrid}: every cell holds the id of the gate it belongs to in a
+ * primitive array, and the progress of a car is a single int counting the gates it crossed in order, the
+ * finish line being the last gate of every lap. Tracking laps therefore costs one array read and one
+ * comparison per move.
+ */
+public final class LapCourse {
+
+    /**
+     * Gate id of a cell that belongs to no gate.
+     */
+    public static final int NO_GATE = -1;
+
+    /**
+     * Progress of a car that has not crossed any gate yet.
+     */
+    public static final int START = 0;
+
+    private final short[] gates;
+    private final int width;
+    private final int laps;
+    private final int gatesPerLap;
+
+    private LapCourse(short[] gates, int width, int laps, int gatesPerLap) {
+        this.gates = gates;
+        this.width = width;
+        this.laps = laps;
+        this.gatesPerLap = gatesPerLap;
+    }
+
+    /**
+     * Compiles a course for a grid. Gate {@code i} gets id {@code i}, and FINISH cells outside any gate
+     * get the id of the finish line, equal to the number of gates.
+     *
+     * @param grid the track grid.
+     * @param course the course of the track.
+     * @return the compiled course.
+     * @throws IllegalArgumentException if a gate lies outside the grid or two gates overlap.
+     */
+    public static LapCourse of(TrackGrid grid, Course course) {
+        List<Course.Gate> definitions = course.gates();
+        if (definitions.size() >= Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many gates: " + definitions.size());
+        }
+        short[] gates = new short[grid.size()];
+        Arrays.fill(gates, (short) NO_GATE);
+        for (int id = 0; id < definitions.size(); id++) {
+            Course.Gate gate = definitions.get(id);
+            for (int y = Math.min(gate.y1(), gate.y2()); y <= Math.max(gate.y1(), gate.y2()); y++) {
+                for (int x = Math.min(gate.x1(), gate.x2()); x <= Math.max(gate.x1(), gate.x2()); x++) {
+                    int cell = grid.index(x, y);
+                    if (cell == TrackGrid.NO_CELL) {
+                        throw new IllegalArgumentException("Gate " + id + " lies outside the track");
+                    }
+                    if (gates[cell] != NO_GATE) {
+                        throw new IllegalArgumentException("Gates " + gates[cell] + " and " + id + " overlap");
+                    }
+                    gates[cell] = (short) id;
+                }
+            }
+        }
+        short finish = (short) definitions.size();
+        for (int cell = 0; cell < gates.length; cell++) {
+            if (gates[cell] == NO_GATE && grid.isFinish(cell)) {
+                gates[cell] = finish;
+            }
+        }
+        return new LapCourse(gates, grid.getWidth(), course.laps(), definitions.size() + 1);
+    }
+
+    /**
+     * Updates the compiled course after a patch that kept the gates of the course, copying this course and
+     * recomputing the finish line only on the changed cells. The progress of cars stays valid.
+     *
+     * @param grid the grid of the patched track.
+     * @param patch the patch applied to the track.
+     * @return the compiled course of the patched track.
+     */
+    public LapCourse with(TrackGrid grid, TrackPatch patch) {
+        short[] patched = gates.clone();
+        short finish = (short) (gatesPerLap - 1);
+        for (TrackPatch.Change change : patch.changes()) {
+            int cell = grid.index(change.x(), change.y());
+            if (patched[cell] == NO_GATE || patched[cell] == finish) {
+                patched[cell] = grid.isFinish(cell) ? finish : NO_GATE;
+            }
+        }
+        return new LapCourse(patched, width, laps, gatesPerLap);
+    }
+
+    /**
+     * Returns the progress of a car after moving onto a cell: it advances only if the cell belongs to the
+     * gate the car has to cross next.
+     *
+     * @param progress the progress of the car before the move.
+     * @param cell the cell index the car moved to.
+     * @return the progress after the move.
+     */
+    public int advance(int progress, int cell) {
+        return gates[cell] == progress % gatesPerLap && !isComplete(progress) ? progress + 1 : progress;
+    }
+
+    /**
+     * Returns the progress of a car after moving onto the cell with the given coordinates.
+     *
+     * @param progress the progress of the car before the move.
+     * @param x the x coordinate of the cell.
+     * @param y the y coordinate of the cell.
+     * @return the progress after the move.
+     */
+    public int advance(int progress, int x, int y) {
+        return advance(progress, y * width + x);
+    }
+
+    /**
+     * Checks whether a car has completed every lap.
+     *
+     * @param progress the progress of the car.
+     * @return true if the car has finished the race.
+     */
+    public boolean isComplete(int progress) {
+        return progress >= laps * gatesPerLap;
+    }
+
+    /**
+     * Returns the number of laps completed by a car.
+     *
+     * @param progress the progress of the car.
+     * @return the completed laps.
+     */
+    public int lap(int progress) {
+        return progress / gatesPerLap;
+    }
+
+    /**
+     * Returns the gate a car has to cross next, the finish line being {@link #getGateCount()}.
+     *
+     * @param progress the progress of the car.
+     * @return the id of the next gate.
+     */
+    public int nextGate(int progress) {
+        return progress % gatesPerLap;
+    }
+
+    /**
+     * Returns the gate a cell belongs to.
+     *
+     * @param cell the cell index.
+     * @return the gate id, or {@link #NO_GATE}.
+     */
+    public int gate(int cell) {
+        return gates[cell];
+    }
+
+    /**
+     * Returns the number of laps of the race.
+     *
+     * @return the lap count.
+     */
+    public int getLaps() {
+        return laps;
+    }
+
+    /**
+     * Returns the number of checkpoint gates of a lap, the finish line excluded.
+     *
+     * @return the gate count.
+     */
+    public int getGateCount() {
+        return gatesPerLap - 1;
+    }
+}
@@ -0,0 +1,174 @@
+package unicam.formula1.model.sim;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Open-loop Monte Carlo Tree Search over the moves of one car of a {@link RaceState}.
+ * Tree nodes only store statistics for the sequence of directions chosen by the searching car; the state
+ * is replayed from the root on a reusable scratch copy at every iteration, while rival cars move randomly.
+ * Rollouts follow {@link MoveModel#randomMove}, so no object is allocated per simulated step.
+ * A search is confined to a single thread; parallel searches are run on separate instances and merged.
+ */
+public final class MctsSearch {
+
+    private final RaceState root;
+    private final RaceState scratch;
+    private final int car;
+    private final double exploration;
+    private final int maxDepth;
+    private final Node rootNode;
+    private final Node[] path;
+
+    /**
+     * Constructs a search for the given car.
+     *
+     * @param root the state to search from, which is not modified.
+     * @param car the car choosing its moves.
+     * @param exploration the UCT exploration constant.
+     * @param maxDepth the maximum number of ticks simulated per iteration.
+     */
+    public MctsSearch(RaceState root, int car, double exploration, int maxDepth) {
+        this.root = root;
+        this.scratch = root.copy();
+        this.car = car;
+        this.exploration = exploration;
+        this.maxDepth = maxDepth;
+        this.rootNode = new Node();
+        this.path = new Node[maxDepth + 1];
+    }
+
+    /**
+     * Runs iterations until the deadline expires or the iteration limit is reached.
+     *
+     * @param deadlineNanos the {@link System#nanoTime()} value at which the search stops.
+     * @param maxIterations the maximum number of iterations.
+     * @param random the source of randomness.
+     * @return the number of iterations performed.
+     */
+    public int run(long deadlineNanos, int maxIterations, RandomGenerator random) {
+        int iterations = 0;
+        while (iterations < maxIterations && System.nanoTime() < deadlineNanos) {
+            iterate(random);
+            iterations++;
+        }
+        return iterations;
+    }
+
+    /**
+     * Performs one selection, expansion, rollout and backpropagation pass.
+     *
+     * @param random the source of randomness.
+     */
+    public void iterate(RandomGenerator random) {
+        TrackGrid grid = scratch.getGrid();
+        scratch.copyFrom(root);
+        Node node = rootNode;
+        int length = 0;
+        path[length++] = node;
+        while (!isOver()) {
+            int cell = scratch.getPosition(car);
+            int direction = select(node, MoveModel.safeDirections(grid, cell), random);
+            if (direction < 0) {
+                scratch.step(random, car, MoveModel.CRASH);
+                break;
+            }
+            boolean expanded = node.children[direction] == null;
+            if (expanded) {
+                node.children[direction] = new Node();
+            }
+            node = node.children[direction];
+            path[length++] = node;
+            scratch.step(random, car, grid.neighbor(cell, direction));
+            if (expanded) {
+                break;
+            }
+        }
+        while (!isOver()) {
+            scratch.step(random);
+        }
+        double reward = scratch.reward(car);
+        for (int i = 0; i < length; i++) {
+            path[i].visits++;
+            path[i].reward += reward;
+        }
+    }
+
+    /**
+     * Returns the number of visits of each root move.
+     *
+     * @return the visits indexed by direction.
+     */
+    public long[] rootVisits() {
+        long[] visits = new long[TrackGrid.DIRECTIONS];
+        for (int d = 0; d < visits.length; d++) {
+            Node child = rootNode.children[d];
+            visits[d] = child == null ? 0 : child.visits;
+        }
+        return visits;
+    }
+
+    /**
+     * Returns the total reward collected by each root move.
+     *
+     * @return the rewards indexed by direction.
+     */
+    public double[] rootRewards() {
+        double[] rewards = new double[TrackGrid.DIRECTIONS];
+        for (int d = 0; d < rewards.length; d++) {
+            Node child = rootNode.children[d];
+            rewards[d] = child == null ? 0 : child.reward;
+        }
+        return rewards;
+    }
+
+    private boolean isOver() {
+        return scratch.isTerminated() || !scratch.isAlive(car) || scratch.getTick() - root.getTick() >= maxDepth;
+    }
+
+    /**
+     * Picks a random unexplored direction if there is one, otherwise the direction with the best UCT score.
+     */
+    private int select(Node node, int mask, RandomGenerator random) {
+        if (mask == 0) {
+            return -1;
+        }
+        int unexplored = 0;
+        for (int d = 0; d < TrackGrid.DIRECTIONS; d++) {
+            if ((mask & (1 << d)) != 0 && node.children[d] == null) {
+                unexplored |= 1 << d;
+            }
+        }
+        if (unexplored != 0) {
+            int pick = random.nextInt(Integer.bitCount(unexplored));
+            for (int d = 0; d < TrackGrid.DIRECTIONS; d++) {
+                if ((unexplored & (1 << d)) != 0 && pick-- == 0) {
+                    return d;
+                }
+            }
+        }
+        double logVisits = Math.log(node.visits);
+        double bestScore = Double.NEGATIVE_INFINITY;
+        int best = -1;
+        for (int d = 0; d < TrackGrid.DIRECTIONS; d++) {
+            if ((mask & (1 << d)) == 0) {
+                continue;
+            }
+            Node child = node.children[d];
+            double score = child.reward / child.visits + exploration * Math.sqrt(logVisits / child.visits);
+            if (score > bestScore) {
+                bestScore = score;
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Statistics of a sequence of moves of the searching car.
+     */
+    private static final class Node {
+        private final Node[] children = new Node[TrackGrid.DIRECTIONS];
+        private int visits;
+        private double reward;
+    }
+}
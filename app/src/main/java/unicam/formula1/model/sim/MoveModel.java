@@ -0,0 +1,200 @@
+package unicam.formula1.model.sim;
+
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.abstracts.IMove;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Primitive implementation of the movement rules of {@link unicam.formula1.model.BotPlayer} and
+ * {@link unicam.formula1.model.GameEngine}, working on {@link TrackGrid} cell indices.
+ * Velocities are encoded as the direction of the last move, or {@link #NO_VELOCITY} before the first move.
+ */
+public final class MoveModel {
+
+    /**
+     * Target returned when a move ends in a crash.
+     */
+    public static final int CRASH = -1;
+
+    /**
+     * Velocity of a player that has not moved yet.
+     */
+    public static final int NO_VELOCITY = TrackGrid.DIRECTIONS;
+
+    /**
+     * Number of distinct velocity values, including {@link #NO_VELOCITY}.
+     */
+    public static final int VELOCITIES = TrackGrid.DIRECTIONS + 1;
+
+    /**
+     * One out of this many adjacent moves of a bot ends in a crash.
+     */
+    public static final int CRASH_CHANCE = 40;
+
+    /**
+     * Probability that an adjacent move of a default bot ends in a crash.
+     */
+    public static final double DEFAULT_CRASH_PROBABILITY = 1.0 / CRASH_CHANCE;
+
+    /**
+     * Probability that the engine asks a default bot for its main move rather than an adjacent move.
+     */
+    public static final double DEFAULT_MAIN_PROBABILITY = 0.5;
+
+    private MoveModel() {
+    }
+
+    /**
+     * Chooses a random move the way {@link unicam.formula1.model.GameEngine#play()} does,
+     * picking the main move or the adjacent move with equal probability.
+     *
+     * @param grid the track grid.
+     * @param cell the current cell index.
+     * @param velocity the current velocity.
+     * @param random the source of randomness.
+     * @return the target cell index, or {@link #CRASH}.
+     */
+    public static int randomMove(TrackGrid grid, int cell, int velocity, RandomGenerator random) {
+        return randomMove(grid, cell, velocity, DEFAULT_MAIN_PROBABILITY, DEFAULT_CRASH_PROBABILITY, random);
+    }
+
+    /**
+     * Chooses a random move of a bot with the given behavior parameters.
+     *
+     * @param grid the track grid.
+     * @param cell the current cell index.
+     * @param velocity the current velocity.
+     * @param mainProbability the probability of attempting the main move instead of an adjacent move.
+     * @param crashProbability the probability that an adjacent move ends in a crash.
+     * @param random the source of randomness.
+     * @return the target cell index, or {@link #CRASH}.
+     */
+    public static int randomMove(TrackGrid grid, int cell, int velocity, double mainProbability,
+                                 double crashProbability, RandomGenerator random) {
+        return random.nextDouble() < mainProbability
+                ? mainMove(grid, cell, velocity, crashProbability, random)
+                : adjacentMove(grid, cell, crashProbability, random);
+    }
+
+    /**
+     * Repeats the last move if it leads to a TRACK cell, otherwise falls back to an adjacent move,
+     * like {@link unicam.formula1.model.BotPlayer#mainMove()}.
+     *
+     * @param grid the track grid.
+     * @param cell the current cell index.
+     * @param velocity the current velocity.
+     * @param random the source of randomness.
+     * @return the target cell index, or {@link #CRASH}.
+     */
+    public static int mainMove(TrackGrid grid, int cell, int velocity, RandomGenerator random) {
+        return mainMove(grid, cell, velocity, DEFAULT_CRASH_PROBABILITY, random);
+    }
+
+    /**
+     * Repeats the last move if it leads to a TRACK cell, otherwise falls back to an adjacent move
+     * with the given crash probability.
+     *
+     * @param grid the track grid.
+     * @param cell the current cell index.
+     * @param velocity the current velocity.
+     * @param crashProbability the probability that an adjacent move ends in a crash.
+     * @param random the source of randomness.
+     * @return the target cell index, or {@link #CRASH}.
+     */
+    public static int mainMove(TrackGrid grid, int cell, int velocity, double crashProbability,
+                               RandomGenerator random) {
+        int target = mainTarget(grid, cell, velocity);
+        return target != TrackGrid.NO_CELL ? target : adjacentMove(grid, cell, crashProbability, random);
+    }
+
+    /**
+     * Returns the cell reached by repeating the last move, if it is a TRACK cell.
+     *
+     * @param grid the track grid.
+     * @param cell the current cell index.
+     * @param velocity the current velocity.
+     * @return the target cell index, or {@link TrackGrid#NO_CELL} if the main move is not viable.
+     */
+    public static int mainTarget(TrackGrid grid, int cell, int velocity) {
+        if (velocity == NO_VELOCITY) {
+            return TrackGrid.NO_CELL;
+        }
+        int target = grid.neighbor(cell, velocity);
+        return target != TrackGrid.NO_CELL && grid.isTrack(target) ? target : TrackGrid.NO_CELL;
+    }
+
+    /**
+     * Moves to a random safe neighbor, with a one in {@link #CRASH_CHANCE} chance of crashing,
+     * like {@link unicam.formula1.model.BotPlayer#adjacentMove()}. A cell without safe neighbors crashes.
+     *
+     * @param grid the track grid.
+     * @param cell the current cell index.
+     * @param random the source of randomness.
+     * @return the target cell index, or {@link #CRASH}.
+     */
+    public static int adjacentMove(TrackGrid grid, int cell, RandomGenerator random) {
+        return adjacentMove(grid, cell, DEFAULT_CRASH_PROBABILITY, random);
+    }
+
+    /**
+     * Moves to a random safe neighbor with the given probability of crashing instead.
+     * A cell without safe neighbors crashes.
+     *
+     * @param grid the track grid.
+     * @param cell the current cell index.
+     * @param crashProbability the probability that the move ends in a crash.
+     * @param random the source of randomness.
+     * @return the target cell index, or {@link #CRASH}.
+     */
+    public static int adjacentMove(TrackGrid grid, int cell, double crashProbability, RandomGenerator random) {
+        if (random.nextDouble() < crashProbability) {
+            return CRASH;
+        }
+        TransitionGraph graph = grid.transitions();
+        int degree = graph.degree(cell);
+        if (degree == 0) {
+            return CRASH;
+        }
+        return graph.target(graph.begin(cell) + random.nextInt(degree));
+    }
+
+    /**
+     * Returns the directions leading from a cell to a TRACK or FINISH neighbor, as a bit mask.
+     *
+     * @param grid the track grid.
+     * @param cell the current cell index.
+     * @return a mask with bit {@code d} set if direction {@code d} is safe.
+     */
+    public static int safeDirections(TrackGrid grid, int cell) {
+        return grid.transitions().mask(cell);
+    }
+
+    /**
+     * Returns the velocity resulting from a move between two cells.
+     *
+     * @param grid the track grid.
+     * @param from the start cell index.
+     * @param to the end cell index.
+     * @return the direction of the move, or {@link #NO_VELOCITY} if the cells are not adjacent.
+     */
+    public static int velocity(TrackGrid grid, int from, int to) {
+        int direction = TrackGrid.direction(grid.x(to) - grid.x(from), grid.y(to) - grid.y(from));
+        return direction < 0 ? NO_VELOCITY : direction;
+    }
+
+    /**
+     * Returns the velocity given by the last move of a player.
+     *
+     * @param grid the track grid.
+     * @param lastMove the last move of the player, or null if it has not moved yet.
+     * @return the direction of the move, or {@link #NO_VELOCITY}.
+     */
+    public static int velocity(TrackGrid grid, IMove<Cell> lastMove) {
+        if (lastMove == null || lastMove.getStart() == null || lastMove.getEnd() == null) {
+            return NO_VELOCITY;
+        }
+        int direction = TrackGrid.direction(lastMove.getDeltaX(), lastMove.getDeltaY());
+        return direction < 0 ? NO_VELOCITY : direction;
+    }
+}
@@ -0,0 +1,461 @@
+package unicam.formula1.model.sim;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.abstracts.Player;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Compact and copyable state of a race, holding positions, velocities and alive flags of every car
+ * in primitive arrays. A state can be cloned and rolled forward with the rules of
+ * {@link unicam.formula1.model.GameEngine} without touching the real engine or allocating any
+ * {@link Cell} or {@link unicam.formula1.model.Move} object.
+ */
+public final class RaceState {
+
+    /**
+     * Value of {@link #getWinner()} while no car has reached the finish line.
+     */
+    public static final int NO_WINNER = -1;
+
+    /**
+     * Car index meaning that every car moves randomly in {@link #step(RandomGenerator, int, int)}.
+     */
+    public static final int NO_CAR = -1;
+
+    /**
+     * Value of {@link #getFinishTick(int)} and {@link #getRank(int)} for a car that has not finished.
+     */
+    public static final int NOT_FINISHED = -1;
+
+    private final TrackGrid grid;
+    private final int[] positions;
+    private final byte[] velocities;
+    private final boolean[] alive;
+    private final double[] mainProbabilities;
+    private final double[] crashProbabilities;
+    private final int[] progress;
+    private final int[] finishTicks;
+    private final int[] ranks;
+    private final int[] active;
+    private LapCourse course;
+    private boolean fullClassification;
+    private int activeCount;
+    private int runningCount;
+    private int finishedCount;
+    private int aliveCount;
+    private int winner;
+    private int tick;
+
+    /**
+     * Constructs a state where every car stands still on the given cells.
+     *
+     * @param grid the track grid the race runs on.
+     * @param positions the cell index of every car.
+     */
+    public RaceState(TrackGrid grid, int[] positions) {
+        this.grid = grid;
+        this.positions = new int[positions.length];
+        this.velocities = new byte[positions.length];
+        this.alive = new boolean[positions.length];
+        this.mainProbabilities = new double[positions.length];
+        this.crashProbabilities = new double[positions.length];
+        this.progress = new int[positions.length];
+        this.finishTicks = new int[positions.length];
+        this.ranks = new int[positions.length];
+        this.active = new int[positions.length];
+        Arrays.fill(mainProbabilities, MoveModel.DEFAULT_MAIN_PROBABILITY);
+        Arrays.fill(crashProbabilities, MoveModel.DEFAULT_CRASH_PROBABILITY);
+        reset(positions);
+    }
+
+    private RaceState(RaceState other) {
+        this.grid = other.grid;
+        this.positions = other.positions.clone();
+        this.velocities = other.velocities.clone();
+        this.alive = other.alive.clone();
+        this.mainProbabilities = other.mainProbabilities.clone();
+        this.crashProbabilities = other.crashProbabilities.clone();
+        this.progress = other.progress.clone();
+        this.finishTicks = other.finishTicks.clone();
+        this.ranks = other.ranks.clone();
+        this.active = other.active.clone();
+        this.course = other.course;
+        this.fullClassification = other.fullClassification;
+        this.activeCount = other.activeCount;
+        this.runningCount = other.runningCount;
+        this.finishedCount = other.finishedCount;
+        this.aliveCount = other.aliveCount;
+        this.winner = other.winner;
+        this.tick = other.tick;
+    }
+
+    /**
+     * Captures the current state of a list of players, in the order the engine moves them.
+     *
+     * @param grid the grid of the track the players race on.
+     * @param players the players of the race.
+     * @return the compact state of the race.
+     */
+    public static RaceState of(TrackGrid grid, List<? extends Player<Cell>> players) {
+        int[] positions = new int[players.size()];
+        for (int car = 0; car < positions.length; car++) {
+            positions[car] = grid.indexOf(players.get(car).getCurrentPosition());
+        }
+        RaceState state = new RaceState(grid, positions);
+        for (int car = 0; car < positions.length; car++) {
+            Player<Cell> player = players.get(car);
+            state.velocities[car] = (byte) MoveModel.velocity(grid, player.getLastMove());
+            state.mainProbabilities[car] = player.getMainMoveProbability();
+            if (player instanceof BotPlayer bot) {
+                state.crashProbabilities[car] = bot.getParameters().crashProbability();
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Returns an independent copy of this state.
+     *
+     * @return the copy.
+     */
+    public RaceState copy() {
+        return new RaceState(this);
+    }
+
+    /**
+     * Overwrites this state with another state of the same race, reusing the existing arrays.
+     *
+     * @param other the state to copy, which must have the same number of cars.
+     */
+    public void copyFrom(RaceState other) {
+        if (other.positions.length != positions.length) {
+            throw new IllegalArgumentException("States have a different number of cars");
+        }
+        System.arraycopy(other.positions, 0, positions, 0, positions.length);
+        System.arraycopy(other.velocities, 0, velocities, 0, velocities.length);
+        System.arraycopy(other.alive, 0, alive, 0, alive.length);
+        System.arraycopy(other.mainProbabilities, 0, mainProbabilities, 0, mainProbabilities.length);
+        System.arraycopy(other.crashProbabilities, 0, crashProbabilities, 0, crashProbabilities.length);
+        System.arraycopy(other.progress, 0, progress, 0, progress.length);
+        System.arraycopy(other.finishTicks, 0, finishTicks, 0, finishTicks.length);
+        System.arraycopy(other.ranks, 0, ranks, 0, ranks.length);
+        System.arraycopy(other.active, 0, active, 0, active.length);
+        this.course = other.course;
+        this.fullClassification = other.fullClassification;
+        this.activeCount = other.activeCount;
+        this.runningCount = other.runningCount;
+        this.finishedCount = other.finishedCount;
+        this.aliveCount = other.aliveCount;
+        this.winner = other.winner;
+        this.tick = other.tick;
+    }
+
+    /**
+     * Sets the behavior of a car when it moves randomly. Cars behave like a default
+     * {@link BotPlayer} unless configured otherwise.
+     *
+     * @param car the car.
+     * @param parameters the behavior parameters of the car.
+     */
+    public void setParameters(int car, BotParameters parameters) {
+        mainProbabilities[car] = parameters.mainMoveProbability();
+        crashProbabilities[car] = parameters.crashProbability();
+    }
+
+    /**
+     * Sets the lap structure of the race and restarts it from the current positions. Without a course,
+     * the first car touching a FINISH cell wins, as in a single lap without gates.
+     *
+     * @param course the compiled course of the track, or null for a single lap.
+     */
+    public void setCourse(LapCourse course) {
+        this.course = course;
+        reset(positions.clone());
+    }
+
+    /**
+     * Chooses whether the race goes on after the first car finishes, and restarts it from the current
+     * positions. With full classification the race lasts until every car has finished or crashed, finished
+     * cars stop moving, and every finisher gets a finishing tick and a rank; the winner is still the first
+     * car to finish.
+     *
+     * @param fullClassification true to race until every car has finished or crashed.
+     */
+    public void setFullClassification(boolean fullClassification) {
+        this.fullClassification = fullClassification;
+        reset(positions.clone());
+    }
+
+    /**
+     * Restarts the race in place with every car standing still on the given cells.
+     *
+     * @param startPositions the cell index of every car, as many as the cars of this state.
+     */
+    public void reset(int[] startPositions) {
+        if (startPositions.length != positions.length) {
+            throw new IllegalArgumentException("Expected " + positions.length + " positions");
+        }
+        this.aliveCount = 0;
+        this.runningCount = 0;
+        this.finishedCount = 0;
+        this.winner = NO_WINNER;
+        this.tick = 0;
+        for (int car = 0; car < positions.length; car++) {
+            positions[car] = startPositions[car];
+            velocities[car] = (byte) MoveModel.NO_VELOCITY;
+            progress[car] = LapCourse.START;
+            finishTicks[car] = NOT_FINISHED;
+            ranks[car] = NOT_FINISHED;
+            alive[car] = positions[car] != TrackGrid.NO_CELL && !grid.isCrash(positions[car]);
+            if (alive[car]) {
+                aliveCount++;
+                runningCount++;
+                if ((fullClassification || winner == NO_WINNER) && hasFinished(car, positions[car])) {
+                    finish(car, 0);
+                }
+            }
+        }
+        compactActive();
+    }
+
+    /**
+     * Advances the race by one tick, moving every alive car randomly as the engine does.
+     *
+     * @param random the source of randomness.
+     */
+    public void step(RandomGenerator random) {
+        step(random, NO_CAR, TrackGrid.NO_CELL);
+    }
+
+    /**
+     * Advances the race by one tick. The controlled car moves to the given cell, every other alive car
+     * moves randomly following {@link MoveModel#randomMove}.
+     *
+     * @param random the source of randomness.
+     * @param controlledCar the car whose move is imposed, or {@link #NO_CAR}.
+     * @param target the cell the controlled car moves to, or {@link MoveModel#CRASH}.
+     */
+    public void step(RandomGenerator random, int controlledCar, int target) {
+        for (int i = 0; i < activeCount; i++) {
+            int car = active[i];
+            int next = car == controlledCar
+                    ? target
+                    : MoveModel.randomMove(grid, positions[car], velocities[car],
+                    mainProbabilities[car], crashProbabilities[car], random);
+            move(car, next);
+        }
+        tick++;
+        compactActive();
+    }
+
+    /**
+     * Keeps in the active array, in their original order, only the cars that still move: the alive cars,
+     * minus the finished ones with full classification. Ticks then only visit the cars still racing.
+     */
+    private void compactActive() {
+        int count = 0;
+        for (int car = 0; car < positions.length; car++) {
+            if (alive[car] && (!fullClassification || finishTicks[car] == NOT_FINISHED)) {
+                active[count++] = car;
+            }
+        }
+        activeCount = count;
+    }
+
+    /**
+     * Moves a single car to a new cell, updating its velocity and the race outcome.
+     *
+     * @param car the car to move.
+     * @param target the cell index the car moves to, or {@link MoveModel#CRASH}.
+     */
+    public void move(int car, int target) {
+        if (target == MoveModel.CRASH || grid.isCrash(target)) {
+            alive[car] = false;
+            aliveCount--;
+            if (finishTicks[car] == NOT_FINISHED) {
+                runningCount--;
+            }
+            if (target != MoveModel.CRASH) {
+                positions[car] = target;
+            }
+            return;
+        }
+        velocities[car] = (byte) MoveModel.velocity(grid, positions[car], target);
+        positions[car] = target;
+        if (finishTicks[car] == NOT_FINISHED && (fullClassification || winner == NO_WINNER)
+                && hasFinished(car, target)) {
+            // Moves are made during a tick, which is counted once every car has moved
+            finish(car, tick + 1);
+        }
+    }
+
+    /**
+     * Records that a car finished at the given tick.
+     */
+    private void finish(int car, int finishTick) {
+        finishTicks[car] = finishTick;
+        ranks[car] = ++finishedCount;
+        runningCount--;
+        if (winner == NO_WINNER) {
+            winner = car;
+        }
+    }
+
+    /**
+     * Records that a car reached a cell and checks whether this completes its race.
+     */
+    private boolean hasFinished(int car, int cell) {
+        if (course == null) {
+            return grid.isFinish(cell);
+        }
+        progress[car] = course.advance(progress[car], cell);
+        return course.isComplete(progress[car]);
+    }
+
+    /**
+     * Checks whether the race is over: a car has finished, every car has crashed, or only one car is left
+     * in a race that started with several cars. With full classification the race is over only when every
+     * car has finished or crashed.
+     *
+     * @return true if the race is over.
+     */
+    public boolean isTerminated() {
+        if (fullClassification) {
+            return runningCount == 0;
+        }
+        return winner != NO_WINNER || aliveCount == 0 || (positions.length > 1 && aliveCount == 1);
+    }
+
+    /**
+     * Returns the outcome of the race for a car: 1 if it won or is the last car standing, 0 otherwise.
+     *
+     * @param car the car.
+     * @return the reward of the car.
+     */
+    public double reward(int car) {
+        if (winner != NO_WINNER) {
+            return winner == car ? 1 : 0;
+        }
+        return alive[car] && positions.length > 1 && aliveCount == 1 ? 1 : 0;
+    }
+
+    /**
+     * Returns the lap progress of a car, as counted by {@link LapCourse}.
+     *
+     * @param car the car.
+     * @return the progress of the car, always {@link LapCourse#START} without a course.
+     */
+    public int getProgress(int car) {
+        return progress[car];
+    }
+
+    /**
+     * Returns the tick at which a car finished.
+     *
+     * @param car the car.
+     * @return the finishing tick, or {@link #NOT_FINISHED}.
+     */
+    public int getFinishTick(int car) {
+        return finishTicks[car];
+    }
+
+    /**
+     * Returns the finishing position of a car, starting from 1 for the winner.
+     *
+     * @param car the car.
+     * @return the rank, or {@link #NOT_FINISHED}.
+     */
+    public int getRank(int car) {
+        return ranks[car];
+    }
+
+    /**
+     * Returns the number of cars that have finished.
+     *
+     * @return the finisher count.
+     */
+    public int getFinishedCount() {
+        return finishedCount;
+    }
+
+    /**
+     * Returns the number of cars still moving every tick.
+     *
+     * @return the active car count.
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Returns the grid the race runs on.
+     *
+     * @return the track grid.
+     */
+    public TrackGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the number of cars of the race, including crashed ones.
+     *
+     * @return the number of cars.
+     */
+    public int getCarCount() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the cell index of a car. A crashed car stays on the OFF_TRACK or OIL cell it drove onto,
+     * or on its last cell if it crashed by losing control.
+     *
+     * @param car the car.
+     * @return the cell index.
+     */
+    public int getPosition(int car) {
+        return positions[car];
+    }
+
+    /**
+     * Returns the velocity of a car.
+     *
+     * @param car the car.
+     * @return the direction of the last move, or {@link MoveModel#NO_VELOCITY}.
+     */
+    public int getVelocity(int car) {
+        return velocities[car];
+    }
+
+    /**
+     * Checks whether a car is still racing.
+     *
+     * @param car the car.
+     * @return true if the car has not crashed.
+     */
+    public boolean isAlive(int car) {
+        return alive[car];
+    }
+
+    /**
+     * Returns the first car that reached the finish line.
+     *
+     * @return the winning car, or {@link #NO_WINNER}.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns the number of ticks played from this state's origin.
+     *
+     * @return the tick count.
+     */
+    public int getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,126 @@
+package unicam.formula1.model.sim;
+
+import java.util.Arrays;
+
+/**
+ * Space-time table mapping packed (cell index, tick) keys to an int, such as the car that reserved a cell
+ * at a tick. Keys and values live in primitive arrays indexed by open addressing with linear probing, and
+ * every slot carries the generation it was written in, so {@link #clear()} only bumps the generation
+ * instead of wiping the arrays. The table grows when it gets half full.
+ */
+public final class ReservationTable {
+
+    /**
+     * Value returned for keys without an entry.
+     */
+    public static final int NONE = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int[] generations;
+    private int generation;
+    private int size;
+
+    /**
+     * Constructs a table.
+     *
+     * @param expected the expected number of entries between two clears.
+     */
+    public ReservationTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.generations = new int[capacity];
+        this.generation = 1;
+    }
+
+    private static long key(int cell, int tick) {
+        return (long) tick << 32 | (cell & 0xFFFFFFFFL);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (keys.length - 1);
+    }
+
+    /**
+     * Returns the value stored for a cell at a tick.
+     *
+     * @param cell the cell index.
+     * @param tick the tick.
+     * @return the value, or {@link #NONE}.
+     */
+    public int get(int cell, int tick) {
+        long key = key(cell, tick);
+        for (int slot = slot(key); generations[slot] == generation; slot = (slot + 1) & (keys.length - 1)) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Stores a value for a cell at a tick, replacing any previous value.
+     *
+     * @param cell the cell index.
+     * @param tick the tick.
+     * @param value the value, not {@link #NONE}.
+     */
+    public void put(int cell, int tick, int value) {
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        long key = key(cell, tick);
+        int slot = slot(key);
+        while (generations[slot] == generation) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        generations[slot] = generation;
+        size++;
+    }
+
+    /**
+     * Removes every entry in constant time.
+     */
+    public void clear() {
+        size = 0;
+        if (++generation == 0) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the entry count.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldGenerations = generations;
+        int oldGeneration = generation;
+        keys = new long[oldKeys.length * 2];
+        values = new int[keys.length];
+        generations = new int[keys.length];
+        generation = 1;
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldGenerations[slot] == oldGeneration) {
+                long key = oldKeys[slot];
+                put((int) key, (int) (key >>> 32), oldValues[slot]);
+            }
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package unicam.formula1.model.sim;
+
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.TrackPatch;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.abstracts.ITrack;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Compact, immutable view of a {@link ITrack} that stores the cell types of the grid in square tiles of
+ * {@value #TILE_SIZE} cells a side, one byte per cell. Tiles entirely off the track share one sentinel array
+ * and identical tiles share one array, so a thin circuit inside a large bounding box costs memory in
+ * proportion to its drivable part. Cells are addressed by their packed index {@code y * width + x}, which
+ * lets simulations work on plain integers instead of {@link Cell} objects and neighbor lists; cell objects
+ * are looked up in the track on demand.
+ */
+public final class TrackGrid {
+
+    /**
+     * Index returned for coordinates that fall outside the grid.
+     */
+    public static final int NO_CELL = -1;
+
+    /**
+     * Number of neighboring directions of a cell.
+     */
+    public static final int DIRECTIONS = 8;
+
+    /**
+     * Number of cells along each side of a tile.
+     */
+    public static final int TILE_SIZE = 16;
+
+    // Same direction order used by CircuitParser when linking neighbors
+    private static final int[] DX = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, 1, -1, 1};
+
+    private static final CellType[] TYPES = CellType.values();
+    private static final int TILE_SHIFT = 4;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final byte[] OFF_TRACK_TILE = new byte[TILE_SIZE * TILE_SIZE];
+
+    static {
+        Arrays.fill(OFF_TRACK_TILE, (byte) CellType.OFF_TRACK.ordinal());
+    }
+
+    private final ITrack<Cell> track;
+    private final int width;
+    private final int height;
+    private final int size;
+    private final int tilesX;
+    private final byte[][] tiles;
+    private volatile TransitionGraph transitions;
+
+    private TrackGrid(ITrack<Cell> track, int width, int height, byte[][] tiles) {
+        this.track = track;
+        this.width = width;
+        this.height = height;
+        this.size = width * height;
+        this.tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        this.tiles = tiles;
+    }
+
+    /**
+     * Builds the compact grid of the given track tile by tile. Missing cells are treated as
+     * {@link CellType#OFF_TRACK}.
+     *
+     * @param track the track to compile.
+     * @return the primitive view of the track.
+     * @throws IllegalArgumentException if the track has more cells than an index can address.
+     */
+    public static TrackGrid of(ITrack<Cell> track) {
+        int width = track.getWidth();
+        int height = track.getHeight();
+        try {
+            Math.multiplyExact(width, height);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Track too large for a grid: " + width + "x" + height, e);
+        }
+        int tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        int tilesY = (height + TILE_MASK) >> TILE_SHIFT;
+        byte[][] tiles = new byte[tilesX * tilesY][];
+        Map<ByteBuffer, byte[]> interned = new HashMap<>();
+        interned.put(ByteBuffer.wrap(OFF_TRACK_TILE), OFF_TRACK_TILE);
+        byte[] tile = new byte[TILE_SIZE * TILE_SIZE];
+        for (int tileY = 0; tileY < tilesY; tileY++) {
+            for (int tileX = 0; tileX < tilesX; tileX++) {
+                for (int offset = 0; offset < tile.length; offset++) {
+                    int x = (tileX << TILE_SHIFT) + (offset & TILE_MASK);
+                    int y = (tileY << TILE_SHIFT) + (offset >> TILE_SHIFT);
+                    CellType type = x < width && y < height ? track.getCellType(x, y) : null;
+                    tile[offset] = (byte) (type == null ? CellType.OFF_TRACK : type).ordinal();
+                }
+                byte[] shared = interned.get(ByteBuffer.wrap(tile));
+                if (shared == null) {
+                    shared = tile.clone();
+                    interned.put(ByteBuffer.wrap(shared), shared);
+                }
+                tiles[tileY * tilesX + tileX] = shared;
+            }
+        }
+        return new TrackGrid(track, width, height, tiles);
+    }
+
+    /**
+     * Builds the grid of a track after a patch has been applied to it, sharing the tiles of this grid and
+     * copying only the tiles holding changed cells.
+     *
+     * @param track the patched track.
+     * @param patch the patch applied to the track since this grid was built.
+     * @return the grid of the patched track.
+     */
+    public TrackGrid with(ITrack<Cell> track, TrackPatch patch) {
+        byte[][] patchedTiles = tiles.clone();
+        Set<Integer> copied = new HashSet<>();
+        for (TrackPatch.Change change : patch.changes()) {
+            int tile = tile(change.x(), change.y());
+            if (copied.add(tile)) {
+                patchedTiles[tile] = patchedTiles[tile].clone();
+            }
+            patchedTiles[tile][offset(change.x(), change.y())] = (byte) change.type().ordinal();
+        }
+        return new TrackGrid(track, width, height, patchedTiles);
+    }
+
+    private int tile(int x, int y) {
+        return (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+    }
+
+    private static int offset(int x, int y) {
+        return (y & TILE_MASK) << TILE_SHIFT | (x & TILE_MASK);
+    }
+
+    /**
+     * Returns the stored type of the cell at an index.
+     */
+    private byte typeAt(int index) {
+        int y = index / width;
+        int x = index - y * width;
+        return tiles[tile(x, y)][offset(x, y)];
+    }
+
+    /**
+     * Returns the successor graph of the grid, compiled on first use. Concurrent first calls may each
+     * compile it, which is harmless since the graph is immutable.
+     *
+     * @return the transition graph.
+     */
+    public TransitionGraph transitions() {
+        TransitionGraph graph = transitions;
+        if (graph == null) {
+            graph = TransitionGraph.of(this);
+            transitions = graph;
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the width of the grid.
+     *
+     * @return the number of cells along the x-axis.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the grid.
+     *
+     * @return the number of cells along the y-axis.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of cells of the grid.
+     *
+     * @return width times height.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct tile arrays of the grid, identical tiles sharing one array.
+     *
+     * @return the number of tile arrays.
+     */
+    public int getTileArrayCount() {
+        Set<byte[]> arrays = Collections.newSetFromMap(new IdentityHashMap<>());
+        arrays.addAll(Arrays.asList(tiles));
+        return arrays.size();
+    }
+
+    /**
+     * Computes a checksum of the dimensions and cell types of the grid, used to check that data derived
+     * from a track still matches it.
+     *
+     * @return the checksum of the grid.
+     */
+    public long checksum() {
+        CRC32 crc = new CRC32();
+        crc.update(new byte[]{
+                (byte) (width >>> 24), (byte) (width >>> 16), (byte) (width >>> 8), (byte) width,
+                (byte) (height >>> 24), (byte) (height >>> 16), (byte) (height >>> 8), (byte) height});
+        // rows of cells in order, so the checksum does not depend on the tiling
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x += TILE_SIZE) {
+                crc.update(tiles[tile(x, y)], offset(x, y), Math.min(TILE_SIZE, width - x));
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Packs the given coordinates into a cell index.
+     *
+     * @param x the x-coordinate.
+     * @param y the y-coordinate.
+     * @return the cell index, or {@link #NO_CELL} if the coordinates are outside the grid.
+     */
+    public int index(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return NO_CELL;
+        }
+        return y * width + x;
+    }
+
+    /**
+     * Returns the index of the given cell.
+     *
+     * @param cell the cell to look up.
+     * @return the cell index, or {@link #NO_CELL} if the cell is null or outside the grid.
+     */
+    public int indexOf(Cell cell) {
+        return cell == null ? NO_CELL : index(cell.getX(), cell.getY());
+    }
+
+    /**
+     * Returns the x-coordinate of a cell index.
+     *
+     * @param index the cell index.
+     * @return the x-coordinate.
+     */
+    public int x(int index) {
+        return index % width;
+    }
+
+    /**
+     * Returns the y-coordinate of a cell index.
+     *
+     * @param index the cell index.
+     * @return the y-coordinate.
+     */
+    public int y(int index) {
+        return index / width;
+    }
+
+    /**
+     * Returns the type of the cell at the given index.
+     *
+     * @param index the cell index.
+     * @return the cell type.
+     */
+    public CellType type(int index) {
+        return TYPES[typeAt(index)];
+    }
+
+    /**
+     * Returns the indices of all cells of the given type, in row-major order.
+     *
+     * @param type the cell type to look for.
+     * @return the matching cell indices.
+     */
+    public int[] cellsOf(CellType type) {
+        int[] result = new int[16];
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x += TILE_SIZE) {
+                byte[] tile = tiles[tile(x, y)];
+                if (tile == OFF_TRACK_TILE && type != CellType.OFF_TRACK) {
+                    continue;
+                }
+                int offset = offset(x, y);
+                for (int dx = 0; dx < Math.min(TILE_SIZE, width - x); dx++) {
+                    if (tile[offset + dx] == type.ordinal()) {
+                        if (count == result.length) {
+                            result = Arrays.copyOf(result, count * 2);
+                        }
+                        result[count++] = y * width + x + dx;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the original track cell at the given index.
+     *
+     * @param index the cell index.
+     * @return the cell, or null if the track has no cell object there.
+     */
+    public Cell cell(int index) {
+        return track.getCell(x(index), y(index));
+    }
+
+    /**
+     * Returns the index of the neighbor of a cell in the given direction.
+     *
+     * @param index the cell index.
+     * @param direction the direction, between 0 and {@link #DIRECTIONS} exclusive.
+     * @return the neighbor index, or {@link #NO_CELL} if it lies outside the grid.
+     */
+    public int neighbor(int index, int direction) {
+        return index(x(index) + DX[direction], y(index) + DY[direction]);
+    }
+
+    /**
+     * Returns the horizontal displacement of a direction.
+     *
+     * @param direction the direction.
+     * @return the x displacement.
+     */
+    public static int deltaX(int direction) {
+        return DX[direction];
+    }
+
+    /**
+     * Returns the vertical displacement of a direction.
+     *
+     * @param direction the direction.
+     * @return the y displacement.
+     */
+    public static int deltaY(int direction) {
+        return DY[direction];
+    }
+
+    /**
+     * Returns the direction matching a displacement.
+     *
+     * @param dx the x displacement.
+     * @param dy the y displacement.
+     * @return the direction, or -1 if the displacement does not lead to an adjacent cell.
+     */
+    public static int direction(int dx, int dy) {
+        for (int d = 0; d < DIRECTIONS; d++) {
+            if (DX[d] == dx && DY[d] == dy) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a cell is a target of an adjacent move, that is a TRACK or FINISH cell.
+     *
+     * @param index the cell index.
+     * @return true if the cell is safe to move to.
+     */
+    public boolean isSafe(int index) {
+        byte type = typeAt(index);
+        return type == CellType.TRACK.ordinal() || type == CellType.FINISH.ordinal();
+    }
+
+    /**
+     * Checks whether a cell is a valid target of a main move, that is a TRACK cell.
+     *
+     * @param index the cell index.
+     * @return true if the cell is a plain track cell.
+     */
+    public boolean isTrack(int index) {
+        return typeAt(index) == CellType.TRACK.ordinal();
+    }
+
+    /**
+     * Checks whether a cell is part of the finish line.
+     *
+     * @param index the cell index.
+     * @return true if the cell is a FINISH cell.
+     */
+    public boolean isFinish(int index) {
+        return typeAt(index) == CellType.FINISH.ordinal();
+    }
+
+    /**
+     * Checks whether a player standing on the cell has crashed, that is the cell is OFF_TRACK or OIL.
+     *
+     * @param index the cell index.
+     * @return true if the cell causes a crash.
+     */
+    public boolean isCrash(int index) {
+        byte type = typeAt(index);
+        return type == CellType.OFF_TRACK.ordinal() || type == CellType.OIL.ordinal();
+    }
+}
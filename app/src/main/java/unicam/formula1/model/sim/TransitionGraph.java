@@ -0,0 +1,202 @@
+package unicam.formula1.model.sim;
+
+/**
+ * Successor graph of a {@link TrackGrid} in compressed sparse row form: for every cell, the moves to an
+ * adjacent TRACK or FINISH cell, the only moves that do not crash. Edges of cell {@code c} are the indices
+ * from {@link #begin(int)} to {@link #end(int)} exclusive, in direction order, and each edge stores its
+ * target cell and direction in flat arrays, so walking the successors of a cell reads consecutive memory
+ * and allocates nothing:
+ * <pre>{@code
+ * for (int edge = graph.begin(cell), end = graph.end(cell); edge < end; edge++) {
+ *     visit(graph.target(edge), graph.direction(edge));
+ * }
+ * }</pre>
+ * Only cells with at least one safe move get a row, so a thin circuit inside a large bounding box costs memory
+ * in proportion to its drivable part. Rows are numbered tile by tile, with the tiles of {@link TrackGrid}:
+ * every tile keeps one bit per cell telling whether the cell has a row, and the row of a cell is the number
+ * of rows before its tile plus the set bits before it, so finding it is a couple of bit operations.
+ * <p>
+ * The graph is immutable and built once per grid, see {@link TrackGrid#transitions()}.
+ */
+public final class TransitionGraph {
+
+    private static final int TILE_SIZE = TrackGrid.TILE_SIZE;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int TILE_SHIFT = Integer.numberOfTrailingZeros(TILE_SIZE);
+    // Each tile is covered by this many 64-bit words of row bits
+    private static final int WORDS = TILE_SIZE * TILE_SIZE / Long.SIZE;
+
+    private final int width;
+    private final int tilesX;
+    private final long[] rowBits;
+    private final int[] wordRanks;
+    private final int[] offsets;
+    private final byte[] masks;
+    private final int[] targets;
+    private final byte[] directions;
+
+    private TransitionGraph(int width, int tilesX, long[] rowBits, int[] wordRanks, int[] offsets, byte[] masks,
+                            int[] targets, byte[] directions) {
+        this.width = width;
+        this.tilesX = tilesX;
+        this.rowBits = rowBits;
+        this.wordRanks = wordRanks;
+        this.offsets = offsets;
+        this.masks = masks;
+        this.targets = targets;
+        this.directions = directions;
+    }
+
+    /**
+     * Compiles the graph of a grid.
+     *
+     * @param grid the track grid.
+     * @return the successor graph.
+     */
+    static TransitionGraph of(TrackGrid grid) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        int tilesY = (height + TILE_MASK) >> TILE_SHIFT;
+        long[] rowBits = new long[tilesX * tilesY * WORDS];
+        int[] wordRanks = new int[rowBits.length];
+        int rows = 0;
+        int edges = 0;
+        for (int tile = 0; tile < tilesX * tilesY; tile++) {
+            int originX = (tile % tilesX) << TILE_SHIFT;
+            int originY = (tile / tilesX) << TILE_SHIFT;
+            for (int offset = 0; offset < TILE_SIZE * TILE_SIZE; offset++) {
+                int word = tile * WORDS + (offset >>> 6);
+                if ((offset & 63) == 0) {
+                    wordRanks[word] = rows;
+                }
+                int x = originX + (offset & TILE_MASK);
+                int y = originY + (offset >> TILE_SHIFT);
+                int mask = x < width && y < height ? safeMask(grid, y * width + x) : 0;
+                if (mask != 0) {
+                    rowBits[word] |= 1L << offset;
+                    rows++;
+                    edges += Integer.bitCount(mask);
+                }
+            }
+        }
+        int[] offsets = new int[rows + 1];
+        byte[] masks = new byte[rows];
+        int[] targets = new int[edges];
+        byte[] directions = new byte[edges];
+        int row = 0;
+        for (int word = 0; word < rowBits.length; word++) {
+            int tile = word / WORDS;
+            for (long bits = rowBits[word]; bits != 0; bits &= bits - 1) {
+                int offset = (word % WORDS) * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                int cell = (((tile / tilesX) << TILE_SHIFT) + (offset >> TILE_SHIFT)) * width
+                        + ((tile % tilesX) << TILE_SHIFT) + (offset & TILE_MASK);
+                int mask = safeMask(grid, cell);
+                int edge = offsets[row];
+                for (int d = 0; d < TrackGrid.DIRECTIONS; d++) {
+                    if ((mask & (1 << d)) != 0) {
+                        targets[edge] = grid.neighbor(cell, d);
+                        directions[edge++] = (byte) d;
+                    }
+                }
+                masks[row] = (byte) mask;
+                offsets[++row] = edge;
+            }
+        }
+        return new TransitionGraph(width, tilesX, rowBits, wordRanks, offsets, masks, targets, directions);
+    }
+
+    private static int safeMask(TrackGrid grid, int cell) {
+        int mask = 0;
+        for (int d = 0; d < TrackGrid.DIRECTIONS; d++) {
+            int neighbor = grid.neighbor(cell, d);
+            if (neighbor != TrackGrid.NO_CELL && grid.isSafe(neighbor)) {
+                mask |= 1 << d;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the number of rows before a cell, counting the row of the cell itself if inclusive.
+     */
+    private int rank(int cell, boolean inclusive) {
+        int y = cell / width;
+        int x = cell - y * width;
+        int offset = (y & TILE_MASK) << TILE_SHIFT | (x & TILE_MASK);
+        int word = ((y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT)) * WORDS + (offset >>> 6);
+        // For the last bit of a word 2L << 63 wraps to zero, and the inclusive mask covers the whole word
+        long before = inclusive ? (2L << offset) - 1 : (1L << offset) - 1;
+        return wordRanks[word] + Long.bitCount(rowBits[word] & before);
+    }
+
+    /**
+     * Returns the first edge of a cell.
+     *
+     * @param cell the cell index.
+     * @return the index of the first edge.
+     */
+    public int begin(int cell) {
+        return offsets[rank(cell, false)];
+    }
+
+    /**
+     * Returns the edge following the last edge of a cell.
+     *
+     * @param cell the cell index.
+     * @return the end of the edges of the cell, exclusive.
+     */
+    public int end(int cell) {
+        return offsets[rank(cell, true)];
+    }
+
+    /**
+     * Returns the number of safe moves from a cell.
+     *
+     * @param cell the cell index.
+     * @return the out-degree of the cell.
+     */
+    public int degree(int cell) {
+        return end(cell) - begin(cell);
+    }
+
+    /**
+     * Returns the cell an edge leads to.
+     *
+     * @param edge the edge index.
+     * @return the target cell index.
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Returns the direction of an edge.
+     *
+     * @param edge the edge index.
+     * @return the direction of the move.
+     */
+    public int direction(int edge) {
+        return directions[edge];
+    }
+
+    /**
+     * Returns the safe directions of a cell as a bit mask.
+     *
+     * @param cell the cell index.
+     * @return a mask with bit {@code d} set if direction {@code d} leads to a TRACK or FINISH cell.
+     */
+    public int mask(int cell) {
+        int row = rank(cell, false);
+        return row == rank(cell, true) ? 0 : masks[row] & 0xFF;
+    }
+
+    /**
+     * Returns the total number of edges of the graph.
+     *
+     * @return the edge count.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+}
@@ -0,0 +1,131 @@
+package unicam.formula1.model.snapshot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable checkpoint of a {@link unicam.formula1.model.GameEngine}: tick count, race status, state of the
+ * engine random generator and the state of every player that started the race, eliminated ones included.
+ * Snapshots are captured between ticks and encoded in a compact binary format by {@link #write(DataOutput)}.
+ *
+ * @param tick the number of ticks played.
+ * @param raceOn false once a player has reached the finish line.
+ * @param randomState the state of the engine random generator.
+ * @param players the state of every player, in the order the engine moves them.
+ */
+public record RaceSnapshot(int tick, boolean raceOn, long randomState, List<PlayerState> players) {
+
+    private static final int MAGIC = 0x46315353;
+    private static final short VERSION = 3;
+    private static final int ALIVE = 1;
+    private static final int FINISHED = 2;
+    private static final int HAS_LAST_MOVE = 4;
+    private static final int HAS_RANDOM = 8;
+
+    /**
+     * Coordinate stored for a missing position or a position outside the track.
+     */
+    public static final int NO_COORDINATE = Integer.MIN_VALUE;
+
+    /**
+     * Copies the player list, so that the snapshot cannot change.
+     */
+    public RaceSnapshot {
+        players = List.copyOf(players);
+    }
+
+    /**
+     * Encodes the snapshot.
+     *
+     * @param out the destination of the encoded snapshot.
+     * @throws IOException if the destination cannot be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(tick);
+        out.writeBoolean(raceOn);
+        out.writeLong(randomState);
+        out.writeInt(players.size());
+        for (PlayerState player : players) {
+            int flags = (player.alive() ? ALIVE : 0)
+                    | (player.finished() ? FINISHED : 0)
+                    | (player.hasLastMove() ? HAS_LAST_MOVE : 0)
+                    | (player.hasRandom() ? HAS_RANDOM : 0);
+            out.writeUTF(player.name());
+            out.writeByte(flags);
+            out.writeInt(player.finishTick());
+            out.writeInt(player.progress());
+            out.writeInt(player.x());
+            out.writeInt(player.y());
+            if (player.hasLastMove()) {
+                out.writeInt(player.lastX());
+                out.writeInt(player.lastY());
+            }
+            if (player.hasRandom()) {
+                out.writeLong(player.randomState());
+            }
+        }
+    }
+
+    /**
+     * Decodes a snapshot written by {@link #write(DataOutput)}.
+     *
+     * @param in the source of the encoded snapshot.
+     * @return the snapshot.
+     * @throws IOException if the source cannot be read or does not hold a snapshot.
+     */
+    public static RaceSnapshot read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+            throw new IOException("Not a race snapshot or unsupported version");
+        }
+        int tick = in.readInt();
+        boolean raceOn = in.readBoolean();
+        long randomState = in.readLong();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid player count " + count);
+        }
+        List<PlayerState> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            int flags = in.readByte();
+            int finishTick = in.readInt();
+            int progress = in.readInt();
+            int x = in.readInt();
+            int y = in.readInt();
+            boolean hasLastMove = (flags & HAS_LAST_MOVE) != 0;
+            int lastX = hasLastMove ? in.readInt() : NO_COORDINATE;
+            int lastY = hasLastMove ? in.readInt() : NO_COORDINATE;
+            boolean hasRandom = (flags & HAS_RANDOM) != 0;
+            long playerRandom = hasRandom ? in.readLong() : 0;
+            players.add(new PlayerState(name, (flags & ALIVE) != 0, (flags & FINISHED) != 0, finishTick, progress,
+                    x, y, hasLastMove, lastX, lastY, hasRandom, playerRandom));
+        }
+        return new RaceSnapshot(tick, raceOn, randomState, players);
+    }
+
+    /**
+     * State of one player.
+     *
+     * @param name the name of the player.
+     * @param alive true if the player is still in the race.
+     * @param finished true if the player completed the race.
+     * @param finishTick the tick at which the player finished, or
+     *        {@link unicam.formula1.model.GameEngine#NOT_FINISHED}.
+     * @param progress the lap progress of the player, as counted by {@link unicam.formula1.model.sim.LapCourse}.
+     * @param x the x coordinate of the position, or {@link #NO_COORDINATE}.
+     * @param y the y coordinate of the position, or {@link #NO_COORDINATE}.
+     * @param hasLastMove true if the player has moved at least once.
+     * @param lastX the x coordinate where the last move started, or {@link #NO_COORDINATE}.
+     * @param lastY the y coordinate where the last move started, or {@link #NO_COORDINATE}.
+     * @param hasRandom true if the state of the player random generator was captured.
+     * @param randomState the state of the player random generator.
+     */
+    public record PlayerState(String name, boolean alive, boolean finished, int finishTick, int progress, int x, int y,
+                              boolean hasLastMove, int lastX, int lastY, boolean hasRandom, long randomState) {
+    }
+}
@@ -0,0 +1,119 @@
+package unicam.formula1.model.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes {@link RaceSnapshot}s to a file on a background thread, so the tick loop only pays for capturing
+ * the snapshot. Only the latest submitted snapshot matters: if several are submitted while one is being
+ * written, the intermediate ones are skipped. Every write goes to a temporary file that atomically replaces
+ * the previous snapshot, so a crash during a write leaves the last complete snapshot in place.
+ */
+public class SnapshotWriter implements Closeable {
+
+    private final Path file;
+    private final ExecutorService executor;
+    private final AtomicReference<RaceSnapshot> pending;
+    private volatile Future<?> lastWrite;
+
+    /**
+     * Constructs a writer for the given file.
+     *
+     * @param file the snapshot file.
+     */
+    public SnapshotWriter(Path file) {
+        this.file = file;
+        this.pending = new AtomicReference<>();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a snapshot to be written, replacing any snapshot still waiting to be written.
+     *
+     * @param snapshot the snapshot.
+     */
+    public void submit(RaceSnapshot snapshot) {
+        if (pending.getAndSet(snapshot) == null) {
+            lastWrite = executor.submit(this::writePending);
+        }
+    }
+
+    /**
+     * Waits until every submitted snapshot has been written.
+     *
+     * @throws IOException if the last write failed.
+     */
+    public void flush() throws IOException {
+        Future<?> write = executor.submit(() -> { });
+        try {
+            write.get();
+            Future<?> last = lastWrite;
+            if (last != null) {
+                last.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing a snapshot", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof UncheckedIOException io ? io.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Writes the pending snapshots and stops the background thread.
+     *
+     * @throws IOException if the last write failed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Reads a snapshot file.
+     *
+     * @param file the snapshot file.
+     * @return the snapshot.
+     * @throws IOException if the file cannot be read or does not hold a snapshot.
+     */
+    public static RaceSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return RaceSnapshot.read(in);
+        }
+    }
+
+    private void writePending() {
+        RaceSnapshot snapshot = pending.getAndSet(null);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                snapshot.write(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package unicam.formula1.model.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.LongPredicate;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Estimates the probabilities of the outcomes of several experiments, such as the chance of winning from each
+ * start position, running trials in batches until every estimate is as precise as requested.
+ * <p>
+ * An {@link Experiment} has one or more outcomes and every trial yields at most one of them, so a single race
+ * credits the winner and counts as a trial for every start position. After every batch each outcome gets a
+ * Wilson score interval at the requested confidence, and an outcome is done once the half-width of its
+ * interval is within the precision. The next batch is shared among the experiments with open outcomes in
+ * proportion to the trials their least precise outcome is still expected to need, so nearly certain
+ * experiments stop early and the effort goes to the uncertain ones. Every experiment first gets a minimum
+ * number of trials, which keeps the intervals from being trusted on a handful of outcomes.
+ * <p>
+ * Trial {@code i} of experiment {@code e} uses a seed derived from the seed of the run, {@code e} and
+ * {@code i} only. Allocation depends only on the counts of finished batches, so a run is fully determined by
+ * its seed whatever the parallelism. Trials of a batch run in parallel on a dedicated pool.
+ */
+public final class AdaptiveMonteCarlo {
+
+    /**
+     * Outcome index returned by a trial in which none of the outcomes happened.
+     */
+    public static final int NO_OUTCOME = -1;
+
+    private final List<Experiment> experiments;
+    private final double precision;
+    private final double z;
+    private final int minTrials;
+    private final int batchSize;
+    private final long maxTrials;
+    private final int parallelism;
+
+    /**
+     * An experiment to estimate.
+     *
+     * @param outcomes the names of the outcomes in reports.
+     * @param trial the trial, given its seed and returning the index of the outcome that happened or
+     *              {@link #NO_OUTCOME}, safe to call from several threads.
+     */
+    public record Experiment(List<String> outcomes, LongToIntFunction trial) {
+
+        /**
+         * Constructs an experiment, copying the outcome names.
+         *
+         * @param outcomes the names of the outcomes.
+         * @param trial the trial.
+         */
+        public Experiment {
+            outcomes = List.copyOf(outcomes);
+            if (outcomes.isEmpty()) {
+                throw new IllegalArgumentException("An experiment needs at least one outcome");
+            }
+        }
+
+        /**
+         * Creates an experiment with a single outcome, a trial that either succeeds or fails.
+         *
+         * @param name the name of the outcome.
+         * @param trial the trial, true on success, given its seed and safe to call from several threads.
+         * @return the experiment.
+         */
+        public static Experiment of(String name, LongPredicate trial) {
+            return new Experiment(List.of(name), seed -> trial.test(seed) ? 0 : NO_OUTCOME);
+        }
+    }
+
+    /**
+     * The estimate of an outcome.
+     *
+     * @param name the name of the outcome.
+     * @param trials the number of trials run.
+     * @param successes the number of trials yielding the outcome.
+     * @param lower the lower bound of the confidence interval.
+     * @param upper the upper bound of the confidence interval.
+     */
+    public record Estimate(String name, long trials, long successes, double lower, double upper) {
+
+        /**
+         * Returns the observed success rate.
+         *
+         * @return the success rate, 0 without trials.
+         */
+        public double mean() {
+            return trials == 0 ? 0 : (double) successes / trials;
+        }
+
+        /**
+         * Returns the half-width of the confidence interval.
+         *
+         * @return the half-width.
+         */
+        public double halfWidth() {
+            return (upper - lower) / 2;
+        }
+    }
+
+    /**
+     * The outcome of a run.
+     *
+     * @param estimates the estimate of every outcome, experiment after experiment.
+     * @param trials the total number of trials run.
+     * @param batches the number of batches run.
+     * @param converged whether every estimate reached the precision before the trial budget ran out.
+     */
+    public record Result(List<Estimate> estimates, long trials, int batches, boolean converged) {
+
+        /**
+         * Formats the estimates as a table.
+         *
+         * @return the report.
+         */
+        public String report() {
+            StringBuilder report = new StringBuilder();
+            for (Estimate estimate : estimates) {
+                report.append(String.format(Locale.ROOT, "%-16s %7.4f  [%.4f, %.4f]  %d trials%n", estimate.name(),
+                        estimate.mean(), estimate.lower(), estimate.upper(), estimate.trials()));
+            }
+            report.append(trials).append(" trials in ").append(batches).append(" batches")
+                    .append(converged ? "" : ", precision not reached").append(System.lineSeparator());
+            return report.toString();
+        }
+    }
+
+    /**
+     * Constructs an estimator.
+     *
+     * @param experiments the experiments to estimate.
+     * @param precision the largest half-width of the confidence intervals.
+     * @param confidence the confidence level of the intervals, such as 0.95.
+     * @param minTrials the trials every experiment runs before its intervals are trusted.
+     * @param batchSize the number of trials of a batch.
+     * @param maxTrials the budget of trials of the whole run.
+     * @param parallelism the number of threads running trials.
+     */
+    public AdaptiveMonteCarlo(List<Experiment> experiments, double precision, double confidence, int minTrials,
+                              int batchSize, long maxTrials, int parallelism) {
+        if (experiments.isEmpty() || !(precision > 0 && precision < 0.5) || !(confidence > 0 && confidence < 1)
+                || minTrials <= 0 || batchSize <= 0 || maxTrials <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid estimator settings");
+        }
+        this.experiments = List.copyOf(experiments);
+        this.precision = precision;
+        this.z = normalQuantile(1 - (1 - confidence) / 2);
+        this.minTrials = minTrials;
+        this.batchSize = batchSize;
+        this.maxTrials = maxTrials;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs batches until every estimate reaches the precision or the budget runs out.
+     *
+     * @param seed the seed of the run.
+     * @return the estimates.
+     */
+    public Result run(long seed) {
+        int count = experiments.size();
+        long[] trials = new long[count];
+        long[][] successes = new long[count][];
+        for (int e = 0; e < count; e++) {
+            successes[e] = new long[experiments.get(e).outcomes().size()];
+        }
+        long total = 0;
+        int batches = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (total < maxTrials) {
+                int[] allocation = allocate(trials, successes, maxTrials - total);
+                long planned = 0;
+                for (int share : allocation) {
+                    planned += share;
+                }
+                if (planned == 0) {
+                    break;
+                }
+                runBatch(pool, seed, allocation, trials, successes);
+                total += planned;
+                batches++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+        List<Estimate> estimates = new ArrayList<>();
+        boolean converged = true;
+        for (int e = 0; e < count; e++) {
+            for (int k = 0; k < successes[e].length; k++) {
+                Estimate estimate = estimate(experiments.get(e).outcomes().get(k), trials[e], successes[e][k]);
+                converged &= isDone(estimate);
+                estimates.add(estimate);
+            }
+        }
+        return new Result(estimates, total, batches, converged);
+    }
+
+    /**
+     * Shares the next batch among the open experiments: first up to the minimum of trials, then in proportion
+     * to the trials the least precise outcome of each experiment still needs, with at least one trial per open
+     * experiment.
+     */
+    private int[] allocate(long[] trials, long[][] successes, long budget) {
+        int count = experiments.size();
+        int[] allocation = new int[count];
+        long[] needed = new long[count];
+        long neededTotal = 0;
+        long available = Math.min(batchSize, budget);
+        for (int e = 0; e < count && available > 0; e++) {
+            if (trials[e] < minTrials) {
+                allocation[e] = (int) Math.min(minTrials - trials[e], available);
+                available -= allocation[e];
+                continue;
+            }
+            for (int k = 0; k < successes[e].length; k++) {
+                if (!isDone(estimate(null, trials[e], successes[e][k]))) {
+                    needed[e] = Math.max(needed[e], neededTrials(trials[e], successes[e][k]));
+                }
+            }
+            neededTotal += needed[e];
+        }
+        if (neededTotal == 0 || available == 0) {
+            return allocation;
+        }
+        long share = available;
+        for (int e = 0; e < count && available > 0; e++) {
+            if (needed[e] > 0) {
+                long trialsOfExperiment = Math.max(1, Math.min(needed[e], share * needed[e] / neededTotal));
+                allocation[e] = (int) Math.min(trialsOfExperiment, available);
+                available -= allocation[e];
+            }
+        }
+        return allocation;
+    }
+
+    /**
+     * Returns the additional trials a case needs for its interval to reach the precision, from the normal
+     * approximation with the Agresti-Coull estimate of the rate, which stays away from zero variance.
+     */
+    private long neededTrials(long trials, long successes) {
+        double rate = (successes + z * z / 2) / (trials + z * z);
+        double required = z * z * rate * (1 - rate) / (precision * precision);
+        return Math.max(1, (long) Math.ceil(required) - trials);
+    }
+
+    private boolean isDone(Estimate estimate) {
+        return estimate.trials() >= minTrials && estimate.halfWidth() <= precision;
+    }
+
+    /**
+     * Computes the Wilson score interval of an outcome.
+     */
+    private Estimate estimate(String name, long trials, long successes) {
+        if (trials == 0) {
+            return new Estimate(name, 0, 0, 0, 1);
+        }
+        double rate = (double) successes / trials;
+        double z2 = z * z;
+        double denominator = 1 + z2 / trials;
+        double center = (rate + z2 / (2 * trials)) / denominator;
+        double margin = z * Math.sqrt(rate * (1 - rate) / trials + z2 / (4.0 * trials * trials)) / denominator;
+        return new Estimate(name, trials, successes, Math.max(0, center - margin),
+                Math.min(1, center + margin));
+    }
+
+    /**
+     * Runs the trials of a batch in parallel and adds their outcomes to the counts.
+     */
+    private void runBatch(ForkJoinPool pool, long seed, int[] allocation, long[] trials, long[][] successes) {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int e = 0; e < allocation.length; e++) {
+            LongToIntFunction trial = experiments.get(e).trial();
+            for (int i = 0; i < allocation[e]; i++) {
+                long trialSeed = trialSeed(seed, e, trials[e] + i);
+                tasks.add(() -> trial.applyAsInt(trialSeed));
+                owners.add(e);
+            }
+        }
+        try {
+            List<Future<Integer>> outcomes = pool.invokeAll(tasks);
+            for (int t = 0; t < outcomes.size(); t++) {
+                int e = owners.get(t);
+                int outcome = outcomes.get(t).get();
+                if (outcome != NO_OUTCOME && (outcome < 0 || outcome >= successes[e].length)) {
+                    throw new IllegalStateException("Trial returned unknown outcome " + outcome);
+                }
+                trials[e]++;
+                if (outcome != NO_OUTCOME) {
+                    successes[e][outcome]++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Trials interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Trial failed", e.getCause());
+        }
+    }
+
+    /**
+     * Derives the seed of a trial with the SplitMix64 finalizer.
+     */
+    private static long trialSeed(long seed, int experiment, long index) {
+        long mixed = seed + 0x9E3779B97F4A7C15L * (index + 1) + 0xBF58476D1CE4E5B9L * (experiment + 1);
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    /**
+     * Returns the quantile of the standard normal distribution, by bisection on its distribution function.
+     */
+    private static double normalQuantile(double probability) {
+        double low = -10;
+        double high = 10;
+        for (int i = 0; i < 100; i++) {
+            double middle = (low + high) / 2;
+            if (normalCdf(middle) < probability) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Standard normal distribution function, from the error function approximation 7.1.26 of Abramowitz
+     * and Stegun, accurate to about 1e-7.
+     */
+    private static double normalCdf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x) / Math.sqrt(2));
+        double polynomial = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429))));
+        double erf = 1 - polynomial * Math.exp(-x * x / 2);
+        return x >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+}
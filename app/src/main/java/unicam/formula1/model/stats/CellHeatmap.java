@@ -0,0 +1,163 @@
+package unicam.formula1.model.stats;
+
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Number of visits and crashes of every cell of a track, kept in two {@code int[]} indexed like the
+ * {@link TrackGrid}. A heatmap is not thread-safe: parallel simulations give every worker its own heatmap
+ * and merge them once all races are over, so counting never contends.
+ */
+public final class CellHeatmap {
+
+    private final TrackGrid grid;
+    private final int[] visits;
+    private final int[] crashes;
+
+    /**
+     * Constructs an empty heatmap.
+     *
+     * @param grid the track grid whose cells are counted.
+     */
+    public CellHeatmap(TrackGrid grid) {
+        this.grid = grid;
+        this.visits = new int[grid.size()];
+        this.crashes = new int[grid.size()];
+    }
+
+    /**
+     * Runs headless races of default bots on all start cells and counts where the cars go and crash.
+     * Race {@code i} uses the seed {@code seed + i}, so the result does not depend on the number of threads.
+     *
+     * @param grid the track grid the races run on.
+     * @param races the number of races.
+     * @param maxTicks the number of ticks after which a race is stopped.
+     * @param seed the seed of the first race.
+     * @param threads the number of worker threads.
+     * @return the merged heatmap of all races.
+     */
+    public static CellHeatmap simulate(TrackGrid grid, int races, int maxTicks, long seed, int threads) {
+        if (races < 0 || maxTicks <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Invalid simulation settings");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CellHeatmap>> workers = new ArrayList<>();
+            for (int worker = 0; worker < threads; worker++) {
+                int first = worker;
+                workers.add(pool.submit(() -> {
+                    CellHeatmap local = new CellHeatmap(grid);
+                    local.simulate(first, threads, races, maxTicks, seed);
+                    return local;
+                }));
+            }
+            CellHeatmap total = new CellHeatmap(grid);
+            for (Future<CellHeatmap> worker : workers) {
+                total.merge(worker.get());
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the cell of every car still racing, typically once per tick.
+     *
+     * @param state the state of the race.
+     */
+    public void recordVisits(RaceState state) {
+        for (int car = 0; car < state.getCarCount(); car++) {
+            if (state.isAlive(car)) {
+                visits[state.getPosition(car)]++;
+            }
+        }
+    }
+
+    /**
+     * Counts a crash.
+     *
+     * @param cell the index of the cell where the car crashed.
+     */
+    public void recordCrash(int cell) {
+        crashes[cell]++;
+    }
+
+    /**
+     * Adds the counts of another heatmap of the same track to these.
+     *
+     * @param other the heatmap to merge.
+     */
+    public void merge(CellHeatmap other) {
+        if (other.visits.length != visits.length) {
+            throw new IllegalArgumentException("Heatmaps belong to different tracks");
+        }
+        for (int cell = 0; cell < visits.length; cell++) {
+            visits[cell] += other.visits[cell];
+            crashes[cell] += other.crashes[cell];
+        }
+    }
+
+    /**
+     * Returns the track grid of the heatmap.
+     *
+     * @return the track grid.
+     */
+    public TrackGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the visit counts, indexed by cell.
+     *
+     * @return the visit counts, not to be modified.
+     */
+    public int[] getVisits() {
+        return visits;
+    }
+
+    /**
+     * Returns the crash counts, indexed by cell.
+     *
+     * @return the crash counts, not to be modified.
+     */
+    public int[] getCrashes() {
+        return crashes;
+    }
+
+    /**
+     * Runs every {@code stride}-th race starting from {@code first}.
+     */
+    private void simulate(int first, int stride, int races, int maxTicks, long seed) {
+        int[] starts = grid.cellsOf(CellType.START);
+        RaceState race = new RaceState(grid, starts);
+        for (int i = first; i < races; i += stride) {
+            race.reset(starts);
+            SplittableRandom random = new SplittableRandom(seed + i);
+            recordVisits(race);
+            while (!race.isTerminated() && race.getTick() < maxTicks) {
+                race.step(random);
+                recordVisits(race);
+            }
+            for (int car = 0; car < race.getCarCount(); car++) {
+                if (!race.isAlive(car)) {
+                    recordCrash(race.getPosition(car));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package unicam.formula1.model.stats;
+
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Recorded trajectory of a winning car, one cell per tick from the start to the finish line,
+ * which can be replayed next to a live race.
+ */
+public final class GhostLap {
+
+    private final TrackGrid grid;
+    private final int[] cells;
+
+    /**
+     * Constructs a ghost lap from a trajectory.
+     *
+     * @param grid the track grid of the trajectory.
+     * @param cells the cell index occupied at every tick, starting with the start cell.
+     */
+    public GhostLap(TrackGrid grid, int[] cells) {
+        if (cells.length == 0) {
+            throw new IllegalArgumentException("A ghost lap needs at least one cell");
+        }
+        this.grid = grid;
+        this.cells = cells.clone();
+    }
+
+    /**
+     * Runs headless races of default bots on all start cells and keeps the trajectory of the fastest winner.
+     * Race {@code i} uses the seed {@code seed + i}.
+     *
+     * @param grid the track grid the races run on.
+     * @param races the number of races.
+     * @param maxTicks the number of ticks after which a race is stopped.
+     * @param seed the seed of the first race.
+     * @return the fastest lap, or null if no race was won.
+     */
+    public static GhostLap fastest(TrackGrid grid, int races, int maxTicks, long seed) {
+        int[] starts = grid.cellsOf(CellType.START);
+        RaceState race = new RaceState(grid, starts);
+        int[][] trajectories = new int[starts.length][maxTicks + 1];
+        int[] best = null;
+        for (int i = 0; i < races; i++) {
+            race.reset(starts);
+            SplittableRandom random = new SplittableRandom(seed + i);
+            int limit = best == null ? maxTicks : best.length - 2;
+            record(race, trajectories);
+            while (!race.isTerminated() && race.getTick() < limit) {
+                race.step(random);
+                record(race, trajectories);
+            }
+            int winner = race.getWinner();
+            if (winner != RaceState.NO_WINNER && (best == null || race.getTick() + 1 < best.length)) {
+                best = Arrays.copyOf(trajectories[winner], race.getTick() + 1);
+            }
+        }
+        return best == null ? null : new GhostLap(grid, best);
+    }
+
+    private static void record(RaceState race, int[][] trajectories) {
+        for (int car = 0; car < race.getCarCount(); car++) {
+            trajectories[car][race.getTick()] = race.getPosition(car);
+        }
+    }
+
+    /**
+     * Returns the number of ticks of the lap.
+     *
+     * @return the index of the tick the car reached the finish line.
+     */
+    public int getTicks() {
+        return cells.length - 1;
+    }
+
+    /**
+     * Returns the cell occupied at a tick; after the finish the ghost stays on the finish line.
+     *
+     * @param tick the tick.
+     * @return the cell index.
+     */
+    public int cell(int tick) {
+        return cells[Math.min(Math.max(tick, 0), cells.length - 1)];
+    }
+
+    /**
+     * Returns the x coordinate of the cell occupied at a tick.
+     *
+     * @param tick the tick.
+     * @return the x coordinate.
+     */
+    public int x(int tick) {
+        return grid.x(cell(tick));
+    }
+
+    /**
+     * Returns the y coordinate of the cell occupied at a tick.
+     *
+     * @param tick the tick.
+     * @return the y coordinate.
+     */
+    public int y(int tick) {
+        return grid.y(cell(tick));
+    }
+}
@@ -0,0 +1,133 @@
+package unicam.formula1.model.stats;
+
+import unicam.formula1.utils.metrics.LogBuckets;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch of non-negative values counting {@link LogBuckets} in a primitive array.
+ * Values below {@code 2^precision} are counted exactly, larger values with a relative error below
+ * {@code 2^-precision}. Memory is fixed by the precision, whatever the number of recorded values.
+ * A sketch is not thread-safe: each worker records into its own sketch and sketches are merged afterwards.
+ */
+public final class LogSketch {
+
+    private final LogBuckets buckets;
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param precision the number of bits of each value kept exactly, between 1 and 16.
+     */
+    public LogSketch(int precision) {
+        this.buckets = new LogBuckets(precision);
+        this.counts = new long[buckets.count()];
+    }
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value to record.
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts[buckets.bucket(clamped)]++;
+        count++;
+        sum += clamped;
+        min = Math.min(min, clamped);
+        max = Math.max(max, clamped);
+    }
+
+    /**
+     * Adds the values of another sketch of the same precision to this one.
+     *
+     * @param other the sketch to merge.
+     */
+    public void merge(LogSketch other) {
+        if (other.buckets.precision() != buckets.precision()) {
+            throw new IllegalArgumentException("Sketches have a different precision");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Returns an estimate of the value below which the given fraction of the recorded values falls.
+     *
+     * @param quantile the quantile, between 0 and 1.
+     * @return the estimated value, or 0 if nothing was recorded.
+     */
+    public long quantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long lower = buckets.lowerBound(i);
+                long upper = buckets.upperBound(i);
+                return Math.max(min, Math.min(max, lower + (upper - lower) / 2));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return the minimum, or 0 if nothing was recorded.
+     */
+    public long min() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum.
+     */
+    public long max() {
+        return max;
+    }
+}
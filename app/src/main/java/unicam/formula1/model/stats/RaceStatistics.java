@@ -0,0 +1,304 @@
+package unicam.formula1.model.stats;
+
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.util.Arrays;
+
+/**
+ * Constant-memory statistics over any number of races on one track: win rate per start position,
+ * distribution of race lengths, finishing ticks and crash counts per cell. Everything is kept in primitive
+ * arrays sized by the track, so no per-race record is held.
+ * Statistics are not thread-safe: each worker updates its own instance and instances are merged.
+ */
+public final class RaceStatistics {
+
+    private static final int SKETCH_PRECISION = 6;
+
+    private final TrackGrid grid;
+    private final int[] startCells;
+    private final int maxTicks;
+    private final long[] startRaces;
+    private final long[] startWins;
+    private final long[] raceTicks;
+    private final long[] crashes;
+    private final LogSketch finishTicks;
+    private long races;
+    private long crashCount;
+
+    /**
+     * Constructs empty statistics.
+     *
+     * @param grid the track grid the races run on.
+     * @param maxTicks the longest race length counted exactly; longer races share one overflow bucket.
+     */
+    public RaceStatistics(TrackGrid grid, int maxTicks) {
+        this.grid = grid;
+        this.startCells = grid.cellsOf(CellType.START);
+        this.maxTicks = maxTicks;
+        this.startRaces = new long[startCells.length];
+        this.startWins = new long[startCells.length];
+        this.raceTicks = new long[maxTicks + 2];
+        this.crashes = new long[grid.size()];
+        this.finishTicks = new LogSketch(SKETCH_PRECISION);
+    }
+
+    /**
+     * Records the outcome of a finished race: crashes, the finishing tick of every car that finished,
+     * and the winner.
+     *
+     * @param state the final state of the race.
+     * @param startPositions the start cell of every car of the race.
+     */
+    public void recordRace(RaceState state, int[] startPositions) {
+        for (int car = 0; car < state.getCarCount(); car++) {
+            if (!state.isAlive(car)) {
+                recordCrash(state.getPosition(car));
+            }
+            if (state.getFinishTick(car) != RaceState.NOT_FINISHED) {
+                recordFinish(state.getFinishTick(car));
+            }
+        }
+        recordRace(startPositions, state.getWinner(), state.getTick());
+    }
+
+    /**
+     * Records the start positions, winner and length of a race.
+     *
+     * @param startPositions the start cell of every car of the race.
+     * @param winner the index of the winning car, or {@link RaceState#NO_WINNER}.
+     * @param ticks the number of ticks the race lasted.
+     */
+    public void recordRace(int[] startPositions, int winner, int ticks) {
+        races++;
+        for (int car = 0; car < startPositions.length; car++) {
+            int slot = Arrays.binarySearch(startCells, startPositions[car]);
+            if (slot >= 0) {
+                startRaces[slot]++;
+                if (car == winner) {
+                    startWins[slot]++;
+                }
+            }
+        }
+        raceTicks[Math.min(Math.max(ticks, 0), maxTicks + 1)]++;
+    }
+
+    /**
+     * Records a crash.
+     *
+     * @param cell the index of the cell where the car crashed.
+     */
+    public void recordCrash(int cell) {
+        crashCount++;
+        if (cell >= 0 && cell < crashes.length) {
+            crashes[cell]++;
+        }
+    }
+
+    /**
+     * Records the tick at which a car crossed the finish line.
+     *
+     * @param tick the finishing tick.
+     */
+    public void recordFinish(int tick) {
+        finishTicks.record(tick);
+    }
+
+    /**
+     * Adds the statistics of another worker on the same track to these.
+     *
+     * @param other the statistics to merge.
+     */
+    public void merge(RaceStatistics other) {
+        if (other.crashes.length != crashes.length || other.maxTicks != maxTicks) {
+            throw new IllegalArgumentException("Statistics were collected on a different track or range");
+        }
+        races += other.races;
+        crashCount += other.crashCount;
+        add(startRaces, other.startRaces);
+        add(startWins, other.startWins);
+        add(raceTicks, other.raceTicks);
+        add(crashes, other.crashes);
+        finishTicks.merge(other.finishTicks);
+    }
+
+    /**
+     * Returns an independent copy of these statistics.
+     *
+     * @return the copy.
+     */
+    public RaceStatistics copy() {
+        RaceStatistics copy = new RaceStatistics(grid, maxTicks);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Clears all statistics.
+     */
+    public void clear() {
+        races = 0;
+        crashCount = 0;
+        Arrays.fill(startRaces, 0);
+        Arrays.fill(startWins, 0);
+        Arrays.fill(raceTicks, 0);
+        Arrays.fill(crashes, 0);
+        finishTicks.clear();
+    }
+
+    /**
+     * Returns the number of recorded races.
+     *
+     * @return the race count.
+     */
+    public long getRaces() {
+        return races;
+    }
+
+    /**
+     * Returns the number of recorded crashes.
+     *
+     * @return the crash count.
+     */
+    public long getCrashCount() {
+        return crashCount;
+    }
+
+    /**
+     * Returns the start cells of the track, in the order used by the per-start statistics.
+     *
+     * @return the start cell indices.
+     */
+    public int[] getStartCells() {
+        return startCells.clone();
+    }
+
+    /**
+     * Returns the fraction of cars starting on a cell that won their race.
+     *
+     * @param startCell the index of a start cell.
+     * @return the win rate, or 0 if no car started there.
+     */
+    public double getWinRate(int startCell) {
+        int slot = Arrays.binarySearch(startCells, startCell);
+        return slot < 0 || startRaces[slot] == 0 ? 0 : (double) startWins[slot] / startRaces[slot];
+    }
+
+    /**
+     * Returns the number of cars that started on a cell.
+     *
+     * @param startCell the index of a start cell.
+     * @return the number of starts.
+     */
+    public long getStarts(int startCell) {
+        int slot = Arrays.binarySearch(startCells, startCell);
+        return slot < 0 ? 0 : startRaces[slot];
+    }
+
+    /**
+     * Returns the number of cars that won starting on a cell.
+     *
+     * @param startCell the index of a start cell.
+     * @return the number of wins.
+     */
+    public long getWins(int startCell) {
+        int slot = Arrays.binarySearch(startCells, startCell);
+        return slot < 0 ? 0 : startWins[slot];
+    }
+
+    /**
+     * Returns the number of crashes on a cell.
+     *
+     * @param cell the cell index.
+     * @return the crash count of the cell.
+     */
+    public long getCrashes(int cell) {
+        return crashes[cell];
+    }
+
+    /**
+     * Returns the race length below which the given fraction of races falls.
+     *
+     * @param quantile the quantile, between 0 and 1.
+     * @return the race length in ticks; races longer than the exact range report the range plus one.
+     */
+    public int getTickQuantile(double quantile) {
+        if (races == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * races));
+        long seen = 0;
+        for (int ticks = 0; ticks < raceTicks.length; ticks++) {
+            seen += raceTicks[ticks];
+            if (seen >= rank) {
+                return ticks;
+            }
+        }
+        return maxTicks + 1;
+    }
+
+    /**
+     * Returns the sketch of the finishing ticks.
+     *
+     * @return the finishing tick sketch.
+     */
+    public LogSketch getFinishTicks() {
+        return finishTicks;
+    }
+
+    /**
+     * Formats a summary of the statistics.
+     *
+     * @param topCrashCells the number of cells with the most crashes to list.
+     * @return the textual summary.
+     */
+    public String report(int topCrashCells) {
+        StringBuilder report = new StringBuilder();
+        report.append("races ").append(races).append('\n');
+        for (int slot = 0; slot < startCells.length; slot++) {
+            report.append(String.format("start (%d, %d) starts=%d wins=%d winRate=%.4f%n",
+                    grid.x(startCells[slot]), grid.y(startCells[slot]), startRaces[slot], startWins[slot],
+                    startRaces[slot] == 0 ? 0.0 : (double) startWins[slot] / startRaces[slot]));
+        }
+        report.append(String.format("ticks p50=%d p90=%d p99=%d%n",
+                getTickQuantile(0.5), getTickQuantile(0.9), getTickQuantile(0.99)));
+        report.append(String.format("finish count=%d mean=%.2f p50=%d p90=%d p99=%d%n", finishTicks.count(),
+                finishTicks.mean(), finishTicks.quantile(0.5), finishTicks.quantile(0.9), finishTicks.quantile(0.99)));
+        report.append("crashes ").append(crashCount).append('\n');
+        for (int cell : topCrashCells(topCrashCells)) {
+            report.append(String.format("crash (%d, %d) %d%n", grid.x(cell), grid.y(cell), crashes[cell]));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Returns the cells with the most crashes, keeping only a bounded selection while scanning.
+     */
+    private int[] topCrashCells(int limit) {
+        int[] top = new int[Math.max(0, limit)];
+        int size = 0;
+        for (int cell = 0; cell < crashes.length; cell++) {
+            if (crashes[cell] == 0) {
+                continue;
+            }
+            int position = size < top.length ? size++ : top.length;
+            while (position > 0 && crashes[top[position - 1]] < crashes[cell]) {
+                if (position < top.length) {
+                    top[position] = top[position - 1];
+                }
+                position--;
+            }
+            if (position < top.length) {
+                top[position] = cell;
+            }
+        }
+        return Arrays.copyOf(top, size);
+    }
+
+    private static void add(long[] total, long[] values) {
+        for (int i = 0; i < total.length; i++) {
+            total[i] += values[i];
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package unicam.formula1.model.stats;
+
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Writes the outcome of every car of every race as CSV with a fixed schema, one row per car:
+ * {@value #HEADER}
+ * <p>
+ * {@code seed} is the seed of the race, {@code track} the {@link TrackGrid#checksum()} of its track and
+ * {@code ticks} its length, repeated on the rows of all its cars. The start and crash cells are coordinates,
+ * and a car that did not crash or finish has -1 as crash cell, finishing tick and rank.
+ * <p>
+ * Rows are encoded straight into a direct buffer and written to a {@link FileChannel} in blocks of
+ * {@value #BLOCK} bytes. Files are named {@code <prefix>-<number>.csv} and a new one is started, with its own
+ * header, before a file would grow beyond the size limit, so every file holds whole rows. Numbering goes on
+ * after the files already in the directory, which are never overwritten. A writer is not thread-safe:
+ * parallel workers give each its own prefix.
+ */
+public class ResultsWriter implements Closeable {
+
+    /**
+     * Header line of every file.
+     */
+    public static final String HEADER = "seed,track,car,start_x,start_y,finish_tick,crash_x,crash_y,rank,ticks";
+
+    private static final int BLOCK = 1 << 20;
+    private static final int MAX_ROW = 256;
+    private static final byte[] HEADER_LINE = (HEADER + "\n").getBytes(StandardCharsets.US_ASCII);
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxFileBytes;
+    private final ByteBuffer buffer;
+    private final byte[] digits;
+    private FileChannel channel;
+    private int fileNumber;
+    private long fileBytes;
+    private long rows;
+
+    /**
+     * Constructs a writer.
+     *
+     * @param directory the directory of the files.
+     * @param prefix the beginning of the file names.
+     * @param maxFileBytes the largest size of a file.
+     * @throws IOException if the directory cannot be created or listed.
+     */
+    public ResultsWriter(Path directory, String prefix, long maxFileBytes) throws IOException {
+        if (maxFileBytes < HEADER_LINE.length + MAX_ROW) {
+            throw new IllegalArgumentException("Files must be able to hold at least one row");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.prefix = prefix;
+        this.maxFileBytes = maxFileBytes;
+        this.buffer = ByteBuffer.allocateDirect(BLOCK);
+        this.digits = new byte[20];
+        List<Path> existing = files(directory, prefix);
+        this.fileNumber = existing.isEmpty() ? 0 : number(existing.get(existing.size() - 1), prefix) + 1;
+    }
+
+    /**
+     * Lists the files written with a prefix, in the order they were written.
+     *
+     * @param directory the directory of the files.
+     * @param prefix the beginning of the file names.
+     * @return the files.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public static List<Path> files(Path directory, String prefix) throws IOException {
+        Pattern name = Pattern.compile(Pattern.quote(prefix) + "-(\\d+)\\.csv");
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            entries.filter(file -> name.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingInt(file -> number(file, prefix)))
+                    .forEach(files::add);
+        }
+        return files;
+    }
+
+    private static int number(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(prefix.length() + 1, name.length() - ".csv".length()));
+    }
+
+    /**
+     * Writes the rows of a finished race.
+     *
+     * @param seed the seed of the race.
+     * @param track the checksum of the track.
+     * @param state the final state of the race.
+     * @param startPositions the start cell of every car.
+     * @throws IOException if a file cannot be written.
+     */
+    public void record(long seed, long track, RaceState state, int[] startPositions) throws IOException {
+        TrackGrid grid = state.getGrid();
+        for (int car = 0; car < state.getCarCount(); car++) {
+            if (channel == null || fileBytes + buffer.position() + MAX_ROW > maxFileBytes) {
+                roll();
+            }
+            if (buffer.remaining() < MAX_ROW) {
+                drain();
+            }
+            int start = startPositions[car];
+            boolean crashed = !state.isAlive(car);
+            int crash = state.getPosition(car);
+            put(seed).put(track).put(car)
+                    .put(grid.x(start)).put(grid.y(start))
+                    .put(state.getFinishTick(car))
+                    .put(crashed ? grid.x(crash) : -1).put(crashed ? grid.y(crash) : -1)
+                    .put(state.getRank(car));
+            putNumber(state.getTick());
+            buffer.put((byte) '\n');
+            rows++;
+        }
+    }
+
+    /**
+     * Returns the number of rows written.
+     *
+     * @return the row count.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Writes the buffered rows to the current file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void flush() throws IOException {
+        if (channel != null) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes the buffered rows and closes the current file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                drain();
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private ResultsWriter put(long value) {
+        putNumber(value);
+        buffer.put((byte) ',');
+        return this;
+    }
+
+    private void putNumber(long value) {
+        // digits are taken from the negative value, which also covers Long.MIN_VALUE
+        if (value < 0) {
+            buffer.put((byte) '-');
+        } else {
+            value = -value;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value < 0);
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+
+    /**
+     * Finishes the current file, if any, and starts the next one with the header.
+     */
+    private void roll() throws IOException {
+        close();
+        Path file = directory.resolve(String.format("%s-%05d.csv", prefix, fileNumber++));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        fileBytes = 0;
+        buffer.put(HEADER_LINE);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,129 @@
+package unicam.formula1.model.stats;
+
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gathers the {@link RaceStatistics} of several workers into one total and periodically writes a snapshot
+ * of it to a file. Workers record races in their own statistics without any synchronization and publish
+ * them from time to time; publishing merges them into the total and clears them, so the memory used does
+ * not grow with the number of races. Snapshots replace the file atomically, so readers never see a partial
+ * report.
+ */
+public final class StatisticsCollector implements Closeable {
+
+    private static final int TOP_CRASH_CELLS = 10;
+
+    private final TrackGrid grid;
+    private final int maxTicks;
+    private final RaceStatistics total;
+    private final Path snapshot;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a collector.
+     *
+     * @param grid the track grid the races run on.
+     * @param maxTicks the longest race length counted exactly.
+     * @param snapshot the file the snapshots are written to, or null to disable them.
+     * @param intervalMillis the milliseconds between two snapshots.
+     */
+    public StatisticsCollector(TrackGrid grid, int maxTicks, Path snapshot, long intervalMillis) {
+        this.grid = grid;
+        this.maxTicks = maxTicks;
+        this.total = new RaceStatistics(grid, maxTicks);
+        this.snapshot = snapshot;
+        if (snapshot == null) {
+            this.scheduler = null;
+        } else {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "statistics-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleAtFixedRate(this::writeSnapshotQuietly,
+                    intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Creates empty statistics for a worker.
+     *
+     * @return the statistics of the worker, to be published to this collector.
+     */
+    public RaceStatistics newWorker() {
+        return new RaceStatistics(grid, maxTicks);
+    }
+
+    /**
+     * Merges the statistics of a worker into the total and clears them.
+     *
+     * @param worker the statistics of the worker.
+     */
+    public void publish(RaceStatistics worker) {
+        synchronized (total) {
+            total.merge(worker);
+        }
+        worker.clear();
+    }
+
+    /**
+     * Returns a copy of the statistics published so far.
+     *
+     * @return the total statistics.
+     */
+    public RaceStatistics snapshot() {
+        synchronized (total) {
+            return total.copy();
+        }
+    }
+
+    /**
+     * Writes the current statistics to the snapshot file, replacing the previous snapshot.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeSnapshot() throws IOException {
+        if (snapshot == null) {
+            return;
+        }
+        String report = snapshot().report(TOP_CRASH_CELLS);
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        Files.writeString(temporary, report, StandardCharsets.UTF_8);
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stops the periodic snapshots and writes a final one.
+     *
+     * @throws IOException if the final snapshot cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        writeSnapshot();
+    }
+
+    /**
+     * Writes a periodic snapshot, reporting a failure instead of throwing it, since an exception would cancel
+     * every later snapshot.
+     */
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            System.err.println("Cannot write the statistics snapshot " + snapshot + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package unicam.formula1.model.stats;
+
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command line tool running headless races of default bots on all available processors and reporting their
+ * {@link RaceStatistics}. Races go on after the winner until every car has finished or crashed, so finishing
+ * ticks cover the whole field. Every worker publishes its statistics to a {@link StatisticsCollector} after a
+ * batch of races, and the collector writes a snapshot of the total at a fixed interval.
+ * Race {@code i} uses the seed {@code seed + i}, so the final totals do not depend on the number of threads.
+ * Given a results directory, every worker also writes the outcome of each car with its own
+ * {@link ResultsWriter}.
+ * <p>
+ * Usage: {@code StatisticsRunner <track file> [races] [snapshot file] [interval millis] [seed] [results directory]}
+ */
+public class StatisticsRunner {
+
+    private static final int MAX_TICKS = 1000;
+    private static final int BATCH = 1024;
+    private static final long RESULTS_FILE_BYTES = 256L << 20;
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args the command line arguments.
+     * @throws Exception if the track cannot be read or a worker fails.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: StatisticsRunner <track file> [races] [snapshot file] [interval millis] [seed]"
+                    + " [results directory]");
+            System.exit(1);
+        }
+        int races = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Path snapshot = args.length > 2 ? Path.of(args[2]) : null;
+        long interval = args.length > 3 ? Long.parseLong(args[3]) : 1000L;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0L;
+        Path results = args.length > 5 ? Path.of(args[5]) : null;
+        TrackGrid grid;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]))) {
+            grid = TrackGrid.of(new CircuitParser().parseFile(reader));
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        try (StatisticsCollector collector = new StatisticsCollector(grid, MAX_TICKS, snapshot, interval)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int worker = 0; worker < threads; worker++) {
+                    int first = worker;
+                    workers.add(pool.submit(() -> {
+                        try (ResultsWriter writer = results == null ? null
+                                : new ResultsWriter(results, "results-" + first, RESULTS_FILE_BYTES)) {
+                            runWorker(grid, collector, writer, first, threads, races, seed);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+            System.out.print(collector.snapshot().report(10));
+        }
+        System.out.println((System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Runs every {@code stride}-th race starting from {@code first}, publishing after each batch and writing
+     * the results of every race if a writer is given.
+     */
+    private static void runWorker(TrackGrid grid, StatisticsCollector collector, ResultsWriter writer, int first,
+                                  int stride, int races, long seed) throws IOException {
+        int[] startCells = grid.cellsOf(CellType.START);
+        int[] starts = startCells.clone();
+        RaceState race = new RaceState(grid, starts);
+        race.setFullClassification(true);
+        RaceStatistics statistics = collector.newWorker();
+        long track = grid.checksum();
+        int pending = 0;
+        for (int i = first; i < races; i += stride) {
+            race.reset(starts);
+            SplittableRandom random = new SplittableRandom(seed + i);
+            while (!race.isTerminated() && race.getTick() < MAX_TICKS) {
+                race.step(random);
+            }
+            statistics.recordRace(race, starts);
+            if (writer != null) {
+                writer.record(seed + i, track, race, starts);
+            }
+            if (++pending == BATCH) {
+                collector.publish(statistics);
+                pending = 0;
+            }
+        }
+        collector.publish(statistics);
+    }
+}
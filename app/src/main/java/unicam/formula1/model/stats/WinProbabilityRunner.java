@@ -0,0 +1,99 @@
+package unicam.formula1.model.stats;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.utils.Printer;
+import unicam.formula1.utils.SnapshotRandom;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line tool estimating the probability of winning from every start position of a track with an
+ * {@link AdaptiveMonteCarlo} run of {@link GameEngine} races between default bots, stopping as soon as
+ * every estimate reaches the requested precision. Every race credits the start position of its winner, so
+ * all the estimates come from the same races and add up to the share of races with a winner.
+ * <p>
+ * Usage: {@code WinProbabilityRunner <track file> [precision] [confidence] [seed] [max races]}
+ */
+public class WinProbabilityRunner {
+
+    private static final int MAX_TICKS = 1000;
+    private static final int MIN_RACES = 100;
+    private static final int BATCH = 2000;
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the track cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: WinProbabilityRunner <track file> [precision] [confidence] [seed] [max races]");
+            System.exit(1);
+        }
+        double precision = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+        double confidence = args.length > 2 ? Double.parseDouble(args[2]) : 0.95;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0L;
+        long maxRaces = args.length > 4 ? Long.parseLong(args[4]) : 10_000_000L;
+        Track track;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]))) {
+            track = new CircuitParser().parseFile(reader);
+        }
+        Printer.setEnabled(false);
+        AdaptiveMonteCarlo estimator = new AdaptiveMonteCarlo(List.of(startExperiment(track)), precision,
+                confidence, MIN_RACES, BATCH, maxRaces, Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        AdaptiveMonteCarlo.Result result = estimator.run(seed);
+        System.out.print(result.report());
+        System.out.println((System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Returns the experiment of a track: a trial is a race of default bots on every start position, whose
+     * outcome is the start position of the winner.
+     *
+     * @param track the track.
+     * @return the experiment, with one outcome per start position.
+     */
+    public static AdaptiveMonteCarlo.Experiment startExperiment(Track track) {
+        LapCourse course = LapCourse.of(TrackGrid.of(track), track.getCourse());
+        List<String> names = new ArrayList<>();
+        for (Cell start : track.getStartPositions()) {
+            names.add("(" + start.getX() + ", " + start.getY() + ")");
+        }
+        return new AdaptiveMonteCarlo.Experiment(names, seed -> winner(track, course, seed));
+    }
+
+    /**
+     * Runs a race and returns the start position of its winner.
+     */
+    private static int winner(Track track, LapCourse course, long seed) {
+        List<Player<Cell>> players = new ArrayList<>();
+        for (Cell start : track.getStartPositions()) {
+            players.add(new BotPlayer("Bot " + (players.size() + 1), start, track, BotParameters.DEFAULT,
+                    new SnapshotRandom(seed * 31 + players.size())));
+        }
+        // the engine drops crashed players from the list it is given
+        List<Player<Cell>> roster = List.copyOf(players);
+        GameEngine<Cell> engine = new GameEngine<>(players, seed);
+        engine.setCourse(course);
+        while (!engine.isTerminated() && engine.getTick() < MAX_TICKS) {
+            engine.play();
+        }
+        List<Player<Cell>> classification = engine.getClassification();
+        return classification.isEmpty() ? AdaptiveMonteCarlo.NO_OUTCOME : roster.indexOf(classification.get(0));
+    }
+}
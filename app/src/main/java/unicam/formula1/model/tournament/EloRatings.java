@@ -0,0 +1,50 @@
+package unicam.formula1.model.tournament;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Elo ratings of the entrants of a tournament. Every entrant starts at {@link #INITIAL_RATING}, and each
+ * result moves the two ratings by at most {@link #K_FACTOR} points, depending on how expected it was.
+ * Ratings depend on the order of the results, so tournaments apply them in schedule order.
+ */
+public class EloRatings {
+
+    /**
+     * Rating of an entrant without results.
+     */
+    public static final double INITIAL_RATING = 1500;
+
+    /**
+     * Maximum rating change of a single result.
+     */
+    public static final double K_FACTOR = 16;
+
+    private final Map<String, Double> ratings = new LinkedHashMap<>();
+
+    /**
+     * Applies the result of a match.
+     *
+     * @param first the name of the first entrant.
+     * @param second the name of the second entrant.
+     * @param score the score of the first entrant: 1 for a win, 0.5 for a draw, 0 for a loss.
+     */
+    public void record(String first, String second, double score) {
+        double firstRating = getRating(first);
+        double secondRating = getRating(second);
+        double expected = 1 / (1 + Math.pow(10, (secondRating - firstRating) / 400));
+        double change = K_FACTOR * (score - expected);
+        ratings.put(first, firstRating + change);
+        ratings.put(second, secondRating - change);
+    }
+
+    /**
+     * Returns the rating of an entrant.
+     *
+     * @param name the name of the entrant.
+     * @return the rating, {@link #INITIAL_RATING} if the entrant has no results.
+     */
+    public double getRating(String name) {
+        return ratings.getOrDefault(name, INITIAL_RATING);
+    }
+}
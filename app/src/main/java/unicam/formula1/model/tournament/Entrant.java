@@ -0,0 +1,26 @@
+package unicam.formula1.model.tournament;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.utils.SnapshotRandom;
+
+/**
+ * Participant of a tournament: a unique name and the factory creating its players.
+ *
+ * @param name the name of the entrant, unique within a tournament.
+ * @param factory the factory creating the players of the entrant.
+ */
+public record Entrant(String name, PlayerFactory factory) {
+
+    /**
+     * Creates an entrant racing {@link BotPlayer}s with the given parameters.
+     *
+     * @param name the name of the entrant.
+     * @param parameters the behavior parameters of its bots.
+     * @return the entrant.
+     */
+    public static Entrant bot(String name, BotParameters parameters) {
+        return new Entrant(name, (playerName, start, track, seed) ->
+                new BotPlayer(playerName, start, track, parameters, new SnapshotRandom(seed)));
+    }
+}
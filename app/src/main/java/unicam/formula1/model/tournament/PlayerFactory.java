@@ -0,0 +1,23 @@
+package unicam.formula1.model.tournament;
+
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.abstracts.Player;
+
+/**
+ * Creates the player of an entrant for one race of a tournament.
+ */
+@FunctionalInterface
+public interface PlayerFactory {
+
+    /**
+     * Creates a player.
+     *
+     * @param name the name of the player.
+     * @param start the start position of the player.
+     * @param track the track of the race, shared with other races and not to be modified.
+     * @param seed the seed the player should derive its random choices from, so that races can be replayed.
+     * @return the new player.
+     */
+    Player<Cell> create(String name, Cell start, ITrack<Cell> track, long seed);
+}
@@ -0,0 +1,341 @@
+package unicam.formula1.model.tournament;
+
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.abstracts.Player;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * League between entrants across a set of tracks. Every pair of entrants races once per track and round,
+ * swapping start positions every round, and each race is won by the first player completing the course.
+ * Races where nobody finishes, or both players finish in the same tick, are draws.
+ * <p>
+ * Matches are independent, so they run on a work-stealing pool and parse every track only once through a
+ * {@link TrackCache}. Every result is appended to a log as soon as it is known, and a league started again
+ * with the same log skips the matches already recorded, so an interrupted league resumes where it stopped.
+ * The log starts with the league seed, and a league refuses to resume a log written with another seed.
+ * Each match has its own seed derived from the league seed, and ratings are computed from the results in
+ * schedule order once all matches are over, so standings depend neither on the parallelism nor on resumes.
+ */
+public class Tournament {
+
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+    private static final String SEED_HEADER = "# seed ";
+
+    private final List<Path> tracks;
+    private final List<Entrant> entrants;
+    private final int rounds;
+    private final long seed;
+    private final int maxTicks;
+    private final TrackCache cache;
+
+    /**
+     * Constructs a tournament.
+     *
+     * @param tracks the track files raced on.
+     * @param entrants the entrants, with unique names.
+     * @param rounds the number of times every pair races on every track.
+     * @param seed the seed of the league.
+     * @param maxTicks the number of ticks after which an unfinished race is stopped.
+     * @param cache the cache of parsed tracks, possibly shared with other tournaments.
+     */
+    public Tournament(List<Path> tracks, List<Entrant> entrants, int rounds, long seed, int maxTicks,
+                      TrackCache cache) {
+        if (tracks.isEmpty() || entrants.size() < 2 || rounds <= 0 || maxTicks <= 0) {
+            throw new IllegalArgumentException("A tournament needs tracks, two entrants, rounds and ticks");
+        }
+        Set<String> names = new HashSet<>();
+        for (Entrant entrant : entrants) {
+            if (!names.add(entrant.name()) || entrant.name().isBlank() || entrant.name().matches(".*[\\s/].*")) {
+                throw new IllegalArgumentException("Invalid or duplicate entrant name: " + entrant.name());
+            }
+        }
+        Set<String> trackNames = new HashSet<>();
+        for (Path track : tracks) {
+            if (!trackNames.add(track.getFileName().toString())) {
+                throw new IllegalArgumentException("Duplicate track file name: " + track.getFileName());
+            }
+        }
+        this.tracks = List.copyOf(tracks);
+        this.entrants = List.copyOf(entrants);
+        this.rounds = rounds;
+        this.seed = seed;
+        this.maxTicks = maxTicks;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns every match of the league, in schedule order.
+     *
+     * @return the schedule.
+     */
+    public List<Match> schedule() {
+        List<Match> matches = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            for (Path track : tracks) {
+                for (int first = 0; first < entrants.size(); first++) {
+                    for (int second = first + 1; second < entrants.size(); second++) {
+                        // Names cannot contain '/', so the id cannot be read in two ways
+                        String id = round + "/" + track.getFileName() + "/" + entrants.get(first).name()
+                                + "/" + entrants.get(second).name();
+                        long matchSeed = seed + matches.size() * SEED_STRIDE;
+                        matches.add(new Match(id, track, first, second, round, matchSeed));
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Plays the league, skipping the matches already recorded in the result log and appending the others.
+     *
+     * @param resultLog the file recording the result of every match, created if missing.
+     * @param parallelism the number of threads playing matches.
+     * @return the outcome of the league.
+     * @throws IOException if the result log cannot be read or written, or was written with another seed.
+     */
+    public Result run(Path resultLog, int parallelism) throws IOException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        checkSeed(resultLog);
+        List<Match> schedule = schedule();
+        Map<String, Double> scores = new HashMap<>(readLog(resultLog));
+        int resumed = 0;
+        List<Match> pending = new ArrayList<>();
+        for (Match match : schedule) {
+            if (scores.containsKey(match.id())) {
+                resumed++;
+            } else {
+                pending.add(match);
+            }
+        }
+        try (BufferedWriter log = openLog(resultLog, seed)) {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (Match match : pending) {
+                tasks.add(() -> {
+                    double score = play(match);
+                    synchronized (log) {
+                        log.write(match.id() + "\t" + score);
+                        log.newLine();
+                        log.flush();
+                        scores.put(match.id(), score);
+                    }
+                    return null;
+                });
+            }
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (Future<Void> task : pool.invokeAll(tasks)) {
+                    task.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Tournament interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IllegalStateException("Match failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return standings(schedule, scores, pending.size(), resumed);
+    }
+
+    /**
+     * Plays a match and returns the score of its first entrant.
+     */
+    private double play(Match match) {
+        TrackCache.Entry entry = cache.get(match.track());
+        Track track = entry.track();
+        List<Cell> starts = track.getStartPositions();
+        if (starts.size() < 2) {
+            throw new IllegalArgumentException("Track " + match.track() + " has fewer than two start positions");
+        }
+        SplittableRandom random = new SplittableRandom(match.seed());
+        int side = match.round() % 2;
+        Entrant first = entrants.get(match.first());
+        Entrant second = entrants.get(match.second());
+        Player<Cell> firstPlayer = first.factory().create(first.name(), starts.get(side), track, random.nextLong());
+        Player<Cell> secondPlayer = second.factory().create(second.name(), starts.get(1 - side), track,
+                random.nextLong());
+        GameEngine<Cell> engine = new GameEngine<>(new ArrayList<>(List.of(firstPlayer, secondPlayer)),
+                random.nextLong());
+        engine.setCourse(entry.course());
+        engine.setFullClassification(true);
+        while (!engine.isTerminated() && engine.getTick() < maxTicks) {
+            engine.play();
+        }
+        int firstTick = finishTick(engine, firstPlayer);
+        int secondTick = finishTick(engine, secondPlayer);
+        return firstTick < secondTick ? 1 : firstTick > secondTick ? 0 : 0.5;
+    }
+
+    private static int finishTick(GameEngine<Cell> engine, Player<Cell> player) {
+        int tick = engine.getFinishTick(player);
+        return tick == GameEngine.NOT_FINISHED ? Integer.MAX_VALUE : tick;
+    }
+
+    /**
+     * Computes ratings and records from the scores, applying the results in schedule order.
+     */
+    private Result standings(List<Match> schedule, Map<String, Double> scores, int played, int resumed) {
+        EloRatings ratings = new EloRatings();
+        int[][] records = new int[entrants.size()][3];
+        for (Match match : schedule) {
+            double score = scores.get(match.id());
+            ratings.record(entrants.get(match.first()).name(), entrants.get(match.second()).name(), score);
+            int outcome = score == 1 ? 0 : score == 0.5 ? 1 : 2;
+            records[match.first()][outcome]++;
+            records[match.second()][2 - outcome]++;
+        }
+        List<Standing> standings = new ArrayList<>();
+        for (int i = 0; i < entrants.size(); i++) {
+            String name = entrants.get(i).name();
+            standings.add(new Standing(name, ratings.getRating(name), records[i][0], records[i][1], records[i][2]));
+        }
+        standings.sort(Comparator.comparingDouble(Standing::rating).reversed());
+        return new Result(standings, played, resumed);
+    }
+
+    /**
+     * Checks that a result log, if it has any content, was written by a league with the same seed.
+     */
+    private void checkSeed(Path resultLog) throws IOException {
+        if (!Files.exists(resultLog) || Files.size(resultLog) == 0) {
+            return;
+        }
+        String header;
+        try (BufferedReader reader = Files.newBufferedReader(resultLog, StandardCharsets.UTF_8)) {
+            header = reader.readLine();
+        }
+        if (header == null || !header.equals(SEED_HEADER + seed)) {
+            throw new IOException("Result log " + resultLog + " was not written by a league with seed " + seed);
+        }
+    }
+
+    /**
+     * Reads the scores recorded in a result log, ignoring a last line cut short by an interruption.
+     *
+     * @param resultLog the result log.
+     * @return the score of the first entrant of every recorded match, by match id.
+     * @throws IOException if the log cannot be read.
+     */
+    public static Map<String, Double> readLog(Path resultLog) throws IOException {
+        Map<String, Double> scores = new HashMap<>();
+        if (!Files.exists(resultLog)) {
+            return scores;
+        }
+        for (String line : Files.readAllLines(resultLog, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if (fields.length != 2) {
+                continue;
+            }
+            try {
+                double score = Double.parseDouble(fields[1]);
+                if (score == 0 || score == 0.5 || score == 1) {
+                    scores.put(fields[0], score);
+                }
+            } catch (NumberFormatException ignored) {
+                // partial line written before an interruption
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Opens the result log for appending, starting a new log with the seed of the league and ending a partial
+     * last line first so new results start on their own.
+     */
+    private static BufferedWriter openLog(Path resultLog, long seed) throws IOException {
+        boolean empty = !Files.exists(resultLog) || Files.size(resultLog) == 0;
+        boolean partial = !empty && !endsWithNewline(resultLog);
+        BufferedWriter writer = Files.newBufferedWriter(resultLog, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (empty) {
+            writer.write(SEED_HEADER + seed);
+            writer.newLine();
+        } else if (partial) {
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        return content[content.length - 1] == '\n';
+    }
+
+    /**
+     * Race between two entrants on a track.
+     *
+     * @param id the identifier of the match in the result log.
+     * @param track the track file.
+     * @param first the index of the first entrant.
+     * @param second the index of the second entrant.
+     * @param round the round of the match, deciding the start positions.
+     * @param seed the seed of the match.
+     */
+    public record Match(String id, Path track, int first, int second, int round, long seed) {
+    }
+
+    /**
+     * Rating and record of an entrant.
+     *
+     * @param name the name of the entrant.
+     * @param rating the Elo rating of the entrant.
+     * @param wins the number of matches won.
+     * @param draws the number of matches drawn.
+     * @param losses the number of matches lost.
+     */
+    public record Standing(String name, double rating, int wins, int draws, int losses) {
+    }
+
+    /**
+     * Outcome of a league.
+     *
+     * @param standings the standings, from the highest rating.
+     * @param played the number of matches played by this run.
+     * @param resumed the number of matches taken from the result log.
+     */
+    public record Result(List<Standing> standings, int played, int resumed) {
+
+        /**
+         * Formats the standings as a table.
+         *
+         * @return the standings, one entrant per line.
+         */
+        public String report() {
+            StringBuilder report = new StringBuilder(String.format("%-20s %8s %5s %5s %5s%n",
+                    "Entrant", "Rating", "W", "D", "L"));
+            for (Standing standing : standings) {
+                report.append(String.format("%-20s %8.1f %5d %5d %5d%n", standing.name(), standing.rating(),
+                        standing.wins(), standing.draws(), standing.losses()));
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package unicam.formula1.model.tournament;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.utils.Printer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line tool playing a league between bot variants on a set of tracks and printing the standings.
+ * Running it again with the same arguments and result log resumes an interrupted league.
+ * <p>
+ * Usage: {@code TournamentRunner <result log> <rounds> <seed> <track file>...}
+ */
+public class TournamentRunner {
+
+    private static final int MAX_TICKS = 1000;
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args the command line arguments.
+     * @throws Exception if a track or the result log cannot be read, or a match fails.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: TournamentRunner <result log> <rounds> <seed> <track file>...");
+            System.exit(1);
+        }
+        List<Path> tracks = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            tracks.add(Path.of(args[i]));
+        }
+        Printer.setEnabled(false);
+        Tournament tournament = new Tournament(tracks, entrants(), Integer.parseInt(args[1]),
+                Long.parseLong(args[2]), MAX_TICKS, new TrackCache());
+        long start = System.nanoTime();
+        Tournament.Result result = tournament.run(Path.of(args[0]), Runtime.getRuntime().availableProcessors());
+        System.out.print(result.report());
+        System.out.println(result.played() + " matches played, " + result.resumed() + " resumed, "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Returns the bot variants taking part in the league.
+     */
+    private static List<Entrant> entrants() {
+        double crash = BotParameters.DEFAULT.crashProbability();
+        return List.of(
+                Entrant.bot("default", BotParameters.DEFAULT),
+                Entrant.bot("steady", new BotParameters(crash, 0.8)),
+                Entrant.bot("erratic", new BotParameters(crash, 0.2)),
+                Entrant.bot("reckless", new BotParameters(crash * 2, 0.5)));
+    }
+}
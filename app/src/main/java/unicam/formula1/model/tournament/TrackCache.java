@@ -0,0 +1,61 @@
+package unicam.formula1.model.tournament;
+
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe cache of parsed tracks, so that every track file is parsed and compiled only once however many
+ * races use it. Cached tracks are shared by concurrent races, which only read them.
+ */
+public class TrackCache {
+
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the parsed track and compiled course of a file, parsing it on first use.
+     *
+     * @param file the track file.
+     * @return the cached entry.
+     * @throws UncheckedIOException if the file cannot be read or parsed.
+     */
+    public Entry get(Path file) {
+        return entries.computeIfAbsent(file.toAbsolutePath().normalize(), TrackCache::load);
+    }
+
+    /**
+     * Returns the number of cached tracks.
+     *
+     * @return the cache size.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static Entry load(Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            Track track = new CircuitParser().parseFile(reader);
+            return new Entry(track, LapCourse.of(TrackGrid.of(track), track.getCourse()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load track " + file, e);
+        }
+    }
+
+    /**
+     * Parsed track with its compiled course.
+     *
+     * @param track the parsed track.
+     * @param course the compiled course of the track.
+     */
+    public record Entry(Track track, LapCourse course) {
+    }
+}
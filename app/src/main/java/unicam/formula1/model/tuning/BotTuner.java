@@ -0,0 +1,59 @@
+package unicam.formula1.model.tuning;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line tool tuning the {@link BotParameters} of a bot for a circuit with a {@link GeneticOptimizer},
+ * scoring every candidate with a {@link FitnessEvaluator} on all available processors.
+ * <p>
+ * Usage: {@code BotTuner <track file> [generations] [population] [races] [rivals] [seed]
+ * [min crash probability]}
+ */
+public class BotTuner {
+
+    private static final int MAX_TICKS = 1000;
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the track cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BotTuner <track file> [generations] [population] [races] [rivals] [seed] "
+                    + "[min crash probability]");
+            System.exit(1);
+        }
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int population = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+        int races = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int rivals = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 0L;
+        double minCrash = args.length > 6 ? Double.parseDouble(args[6]) : BotParameters.DEFAULT.crashProbability();
+        TrackGrid grid;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]))) {
+            grid = TrackGrid.of(new CircuitParser().parseFile(reader));
+        }
+        FitnessEvaluator evaluator = new FitnessEvaluator(grid, rivals, races, MAX_TICKS, seed);
+        GeneticOptimizer optimizer = new GeneticOptimizer(
+                new double[]{minCrash, 0},
+                new double[]{1, 1},
+                genome -> evaluator.evaluate(BotParameters.fromVector(genome)),
+                Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        GeneticOptimizer.Result result = optimizer.optimize(population, generations, seed);
+        BotParameters best = BotParameters.fromVector(result.best());
+        System.out.println("Default bot win rate: " + evaluator.evaluate(BotParameters.DEFAULT));
+        System.out.println("Best parameters: " + best + " with win rate " + result.fitness());
+        System.out.println(optimizer.getEvaluations() + " evaluations, " + optimizer.getCacheHits()
+                + " cache hits, " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
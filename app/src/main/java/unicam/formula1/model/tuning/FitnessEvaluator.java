@@ -0,0 +1,75 @@
+package unicam.formula1.model.tuning;
+
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.util.SplittableRandom;
+
+/**
+ * Scores bot parameters by the share of headless races a candidate bot wins against default bots.
+ * Race {@code i} always uses the seed {@code seed + i} and rotates the candidate over the start cells,
+ * so every candidate meets the same conditions and scores are both comparable and repeatable.
+ * Races run on {@link RaceState}, which follows the rules of {@link unicam.formula1.model.GameEngine}.
+ */
+public final class FitnessEvaluator {
+
+    private static final int CANDIDATE = 0;
+
+    private final TrackGrid grid;
+    private final int[] startCells;
+    private final int rivals;
+    private final int races;
+    private final int maxTicks;
+    private final long seed;
+
+    /**
+     * Constructs an evaluator.
+     *
+     * @param grid the track grid the races run on.
+     * @param rivals the number of default bots racing against the candidate.
+     * @param races the number of races per evaluation.
+     * @param maxTicks the number of ticks after which a race counts as lost.
+     * @param seed the seed of the first race.
+     */
+    public FitnessEvaluator(TrackGrid grid, int rivals, int races, int maxTicks, long seed) {
+        this.grid = grid;
+        this.startCells = grid.cellsOf(CellType.START);
+        if (startCells.length == 0) {
+            throw new IllegalArgumentException("Track has no start positions");
+        }
+        if (rivals < 0 || races <= 0 || maxTicks <= 0) {
+            throw new IllegalArgumentException("Invalid evaluation settings");
+        }
+        this.rivals = rivals;
+        this.races = races;
+        this.maxTicks = maxTicks;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs all races of an evaluation with the given candidate.
+     *
+     * @param candidate the parameters of the candidate bot.
+     * @return the fraction of races won by the candidate, between 0 and 1.
+     */
+    public double evaluate(BotParameters candidate) {
+        int[] starts = new int[rivals + 1];
+        RaceState race = new RaceState(grid, starts);
+        double wins = 0;
+        for (int i = 0; i < races; i++) {
+            for (int car = 0; car < starts.length; car++) {
+                starts[car] = startCells[(i + car) % startCells.length];
+            }
+            race.reset(starts);
+            race.setParameters(CANDIDATE, candidate);
+            SplittableRandom random = new SplittableRandom(seed + i);
+            while (!race.isTerminated() && race.getTick() < maxTicks) {
+                race.step(random);
+            }
+            wins += race.reward(CANDIDATE);
+        }
+        return wins / races;
+    }
+}
@@ -0,0 +1,245 @@
+package unicam.formula1.model.tuning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Genetic optimizer maximizing a fitness function over bounded real vectors.
+ * Every generation keeps the best individuals, then breeds the rest of the population with tournament
+ * selection, blend crossover and Gaussian mutation. Genes are rounded to a fixed grid, so repeated genomes
+ * such as surviving elites are recognized and their fitness is taken from a cache instead of being evaluated
+ * again. The fitness function must therefore be deterministic. Uncached genomes of a generation are evaluated
+ * in parallel on a dedicated pool, and a run is fully determined by its seed.
+ */
+public final class GeneticOptimizer {
+
+    private static final int ELITES = 2;
+    private static final int TOURNAMENT_SIZE = 3;
+    private static final double BLEND = 0.25;
+    private static final double MUTATION_RATE = 0.3;
+    private static final double MUTATION_SCALE = 0.1;
+    private static final double RESOLUTION = 1e-4;
+
+    private final double[] lower;
+    private final double[] upper;
+    private final ToDoubleFunction<double[]> fitness;
+    private final int parallelism;
+    private final Map<Genome, Double> cache;
+    private final LongAdder evaluations;
+    private final LongAdder cacheHits;
+
+    /**
+     * Constructs an optimizer.
+     *
+     * @param lower the lower bound of every gene.
+     * @param upper the upper bound of every gene.
+     * @param fitness the deterministic function to maximize, safe to call from several threads.
+     * @param parallelism the number of threads evaluating genomes.
+     */
+    public GeneticOptimizer(double[] lower, double[] upper, ToDoubleFunction<double[]> fitness, int parallelism) {
+        if (lower.length != upper.length || lower.length == 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid optimizer settings");
+        }
+        for (int i = 0; i < lower.length; i++) {
+            if (!(lower[i] <= upper[i])) {
+                throw new IllegalArgumentException("Lower bound exceeds upper bound for gene " + i);
+            }
+        }
+        this.lower = lower.clone();
+        this.upper = upper.clone();
+        this.fitness = fitness;
+        this.parallelism = parallelism;
+        this.cache = new ConcurrentHashMap<>();
+        this.evaluations = new LongAdder();
+        this.cacheHits = new LongAdder();
+    }
+
+    /**
+     * Runs the optimization.
+     *
+     * @param populationSize the number of individuals per generation.
+     * @param generations the number of generations.
+     * @param seed the seed of the run.
+     * @return the best genome found.
+     */
+    public Result optimize(int populationSize, int generations, long seed) {
+        if (populationSize <= ELITES || generations <= 0) {
+            throw new IllegalArgumentException("Population must exceed " + ELITES + " and generations be positive");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] population = new double[populationSize][];
+        for (int i = 0; i < populationSize; i++) {
+            double[] genome = new double[lower.length];
+            for (int g = 0; g < genome.length; g++) {
+                genome[g] = lower[g] + random.nextDouble() * (upper[g] - lower[g]);
+            }
+            population[i] = quantize(genome);
+        }
+        double[] history = new double[generations];
+        double[] best = null;
+        double bestFitness = Double.NEGATIVE_INFINITY;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int generation = 0; generation < generations; generation++) {
+                double[] scores = evaluate(population, pool);
+                Integer[] ranking = new Integer[populationSize];
+                for (int i = 0; i < populationSize; i++) {
+                    ranking[i] = i;
+                }
+                Arrays.sort(ranking, Comparator.comparingDouble((Integer i) -> -scores[i]));
+                if (scores[ranking[0]] > bestFitness) {
+                    bestFitness = scores[ranking[0]];
+                    best = population[ranking[0]].clone();
+                }
+                history[generation] = scores[ranking[0]];
+                if (generation < generations - 1) {
+                    population = breed(population, scores, ranking, random);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return new Result(best, bestFitness, history);
+    }
+
+    /**
+     * Returns the number of fitness evaluations performed.
+     *
+     * @return the evaluation count.
+     */
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Returns the number of genomes whose fitness was found in the cache.
+     *
+     * @return the cache hit count.
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Scores a population, evaluating in parallel the genomes missing from the cache.
+     */
+    private double[] evaluate(double[][] population, ForkJoinPool pool) {
+        Map<Genome, double[]> missing = new LinkedHashMap<>();
+        for (double[] genome : population) {
+            Genome key = new Genome(genome);
+            if (cache.containsKey(key)) {
+                cacheHits.increment();
+            } else {
+                missing.putIfAbsent(key, genome);
+            }
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        missing.forEach((key, genome) -> tasks.add(() -> {
+            cache.put(key, fitness.applyAsDouble(genome.clone()));
+            evaluations.increment();
+            return null;
+        }));
+        try {
+            for (Future<Void> task : pool.invokeAll(tasks)) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Evaluation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Evaluation failed", e.getCause());
+        }
+        double[] scores = new double[population.length];
+        for (int i = 0; i < population.length; i++) {
+            scores[i] = cache.get(new Genome(population[i]));
+        }
+        return scores;
+    }
+
+    private double[][] breed(double[][] population, double[] scores, Integer[] ranking, SplittableRandom random) {
+        double[][] next = new double[population.length][];
+        for (int i = 0; i < ELITES; i++) {
+            next[i] = population[ranking[i]];
+        }
+        for (int i = ELITES; i < next.length; i++) {
+            double[] first = population[tournament(scores, random)];
+            double[] second = population[tournament(scores, random)];
+            double[] child = new double[lower.length];
+            for (int g = 0; g < child.length; g++) {
+                double blend = -BLEND + random.nextDouble() * (1 + 2 * BLEND);
+                child[g] = first[g] + blend * (second[g] - first[g]);
+                if (random.nextDouble() < MUTATION_RATE) {
+                    child[g] += random.nextGaussian() * MUTATION_SCALE * (upper[g] - lower[g]);
+                }
+            }
+            next[i] = quantize(child);
+        }
+        return next;
+    }
+
+    private static int tournament(double[] scores, SplittableRandom random) {
+        int winner = random.nextInt(scores.length);
+        for (int i = 1; i < TOURNAMENT_SIZE; i++) {
+            int challenger = random.nextInt(scores.length);
+            if (scores[challenger] > scores[winner]) {
+                winner = challenger;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Clamps genes into their bounds and rounds them to the resolution grid.
+     */
+    private double[] quantize(double[] genome) {
+        for (int g = 0; g < genome.length; g++) {
+            double range = upper[g] - lower[g];
+            double clamped = Math.max(lower[g], Math.min(upper[g], genome[g]));
+            if (range == 0) {
+                genome[g] = lower[g];
+            } else {
+                double step = range * RESOLUTION;
+                genome[g] = Math.min(upper[g], lower[g] + Math.round((clamped - lower[g]) / step) * step);
+            }
+        }
+        return genome;
+    }
+
+    /**
+     * Outcome of an optimization.
+     *
+     * @param best the best genome found.
+     * @param fitness the fitness of the best genome.
+     * @param bestPerGeneration the best fitness of every generation.
+     */
+    public record Result(double[] best, double fitness, double[] bestPerGeneration) {
+    }
+
+    /**
+     * Cache key comparing genomes by value.
+     */
+    private record Genome(double[] genes) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Genome genome && Arrays.equals(genes, genome.genes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(genes);
+        }
+    }
+}
@@ -5,11 +5,24 @@ import unicam.formula1.model.abstracts.Player;
 
 public class Printer {
 
+    private static volatile boolean enabled = true;
+
+    /**
+     * Enables or disables every message, for instance when many races run headless in the same process.
+     * @param enabled true to print messages, false to discard them.
+     */
+    public static void setEnabled(boolean enabled) {
+        Printer.enabled = enabled;
+    }
+
     /**
      * Prints the current position of the player.
      * @param player The player whose position is to be printed.
      */
     public static void printPlayerPosition(Player<?> player) {
+        if (!enabled) {
+            return;
+        }
         ICell<?> pos = player.getCurrentPosition();
         System.out.println(player.getName() + " è a posizione (" + pos.getX() + ", " + pos.getY() + ")");
     }
@@ -20,6 +33,9 @@ public class Printer {
      * @param newPosition The new position of the player after the move.
      */
     public static void printMove(Player<?> player, ICell<?> newPosition) {
+        if (!enabled) {
+            return;
+        }
         if (newPosition != null) {
             System.out.println(player.getName() + " si è mosso a (" + newPosition.getX() + ", " + newPosition.getY() + ")");
         } else {
@@ -32,6 +48,9 @@ public class Printer {
      * @param player The player who has been eliminated.
      */
     public static void printPlayerElimination(Player<?> player) {
+        if (!enabled) {
+            return;
+        }
         System.out.println(player.getName() + " è stato eliminato dalla gara.");
     }
 
@@ -40,7 +59,22 @@ public class Printer {
      * @param player The player who has won.
      */
     public static void printPlayerVictory(Player<?> player) {
+        if (!enabled) {
+            return;
+        }
         System.out.println(player.getName() + " ha vinto la gara!");
     }
 
+    /**
+     * Announces that a player has crossed the finish line after the winner.
+     * @param player The player who has finished.
+     * @param rank The finishing position of the player.
+     */
+    public static void printPlayerFinish(Player<?> player, int rank) {
+        if (!enabled) {
+            return;
+        }
+        System.out.println(player.getName() + " ha tagliato il traguardo in posizione " + rank + ".");
+    }
+
 }
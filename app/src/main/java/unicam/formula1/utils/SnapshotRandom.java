@@ -0,0 +1,78 @@
+package unicam.formula1.utils;
+
+import java.util.Random;
+
+/**
+ * {@link Random} whose internal state can be read and restored, so that a simulation can be checkpointed
+ * and resumed with exactly the same sequence of random numbers. It produces the same numbers as
+ * {@link Random} for the same seed, except for {@link #nextGaussian()}, which does not cache a second value
+ * so that the whole state fits in one {@code long}. Unlike {@link Random} it is not thread-safe.
+ */
+public class SnapshotRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    // Assigned by setSeed during the superclass constructor, so it must not have an initializer
+    private long state;
+
+    /**
+     * Constructs a generator with a seed that is very likely distinct from any other invocation.
+     */
+    public SnapshotRandom() {
+        super();
+    }
+
+    /**
+     * Constructs a generator with the given seed.
+     *
+     * @param seed the initial seed.
+     */
+    public SnapshotRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Returns the current state of the generator.
+     *
+     * @return the 48-bit state.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a state returned by {@link #getState()}.
+     *
+     * @param state the state to restore.
+     */
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    @Override
+    public double nextGaussian() {
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+    }
+}
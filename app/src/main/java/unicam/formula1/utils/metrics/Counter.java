@@ -0,0 +1,44 @@
+package unicam.formula1.utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a striped {@link LongAdder}, so that threads updating it concurrently
+ * do not contend on a single memory location.
+ */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Adds one to the counter.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Adds the given amount to the counter.
+     *
+     * @param amount the amount to add.
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Returns the current value of the counter.
+     *
+     * @return the sum of all increments.
+     */
+    public long get() {
+        return count.sum();
+    }
+
+    /**
+     * Resets the counter to zero.
+     */
+    public void reset() {
+        count.reset();
+    }
+}
@@ -0,0 +1,84 @@
+package unicam.formula1.utils.metrics;
+
+/**
+ * Metrics of the race engine and the track parser, held in a global {@link MetricsRegistry}.
+ * Recording is switched on with the {@code formula1.metrics} system property. The switch is a constant,
+ * so when it is off the JIT compiler removes the instrumentation together with its timing calls.
+ * With {@code formula1.metrics.report} also set, the report is printed when the JVM exits.
+ * Custom JFR events are emitted independently, whenever a recording enables them.
+ */
+public final class EngineMetrics {
+
+    /**
+     * Whether metrics are recorded.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("formula1.metrics");
+
+    /**
+     * The registry holding the engine metrics.
+     */
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    /**
+     * Number of ticks played.
+     */
+    public static final Counter TICKS = REGISTRY.counter("engine.ticks");
+
+    /**
+     * Duration of every tick, in nanoseconds.
+     */
+    public static final Histogram TICK_NANOS = REGISTRY.histogram("engine.tick.nanos");
+
+    /**
+     * Duration of every main move computation, in nanoseconds.
+     */
+    public static final Histogram MAIN_MOVE_NANOS = REGISTRY.histogram("player.mainMove.nanos");
+
+    /**
+     * Duration of every adjacent move computation, in nanoseconds.
+     */
+    public static final Histogram ADJACENT_MOVE_NANOS = REGISTRY.histogram("player.adjacentMove.nanos");
+
+    /**
+     * Number of players that crashed.
+     */
+    public static final Counter CRASHES = REGISTRY.counter("engine.crashes");
+
+    /**
+     * Number of players removed from a race.
+     */
+    public static final Counter ELIMINATIONS = REGISTRY.counter("engine.eliminations");
+
+    /**
+     * Duration of every track parse, in nanoseconds.
+     */
+    public static final Histogram PARSE_NANOS = REGISTRY.histogram("parser.parse.nanos");
+
+    static {
+        if (ENABLED && Boolean.getBoolean("formula1.metrics.report")) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(report()), "metrics-report"));
+        }
+    }
+
+    private EngineMetrics() {
+    }
+
+    /**
+     * Returns the average number of ticks played per second since the metrics were last reset.
+     *
+     * @return the tick rate.
+     */
+    public static double ticksPerSecond() {
+        double elapsed = REGISTRY.elapsedSeconds();
+        return elapsed == 0 ? 0 : TICKS.get() / elapsed;
+    }
+
+    /**
+     * Formats all engine metrics.
+     *
+     * @return the textual report.
+     */
+    public static String report() {
+        return REGISTRY.report() + String.format("engine.ticks.perSecond %.1f%n", ticksPerSecond());
+    }
+}
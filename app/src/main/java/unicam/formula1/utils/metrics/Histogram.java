@@ -0,0 +1,106 @@
+package unicam.formula1.utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values over a fixed set of {@link LogBuckets}. Every power of two is split
+ * into four buckets, so recorded values are reported with a relative error below 25%, and recording is a
+ * couple of bit operations plus a striped counter update.
+ */
+public final class Histogram {
+
+    private static final LogBuckets BUCKETING = new LogBuckets(2);
+    private static final int BUCKETS = BUCKETING.count();
+
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public Histogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value to record.
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        buckets[BUCKETING.bucket(clamped)].increment();
+        count.increment();
+        sum.add(clamped);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count.
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return the sum.
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum() / n;
+    }
+
+    /**
+     * Returns an upper bound of the value below which the given fraction of the recorded values falls.
+     *
+     * @param quantile the quantile, between 0 and 1.
+     * @return the upper bound of the bucket holding the quantile, or 0 if nothing was recorded.
+     */
+    public long percentile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BUCKETING.upperBound(i);
+            }
+        }
+        return BUCKETING.upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+    }
+}
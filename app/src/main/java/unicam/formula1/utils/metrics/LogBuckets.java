@@ -0,0 +1,87 @@
+package unicam.formula1.utils.metrics;
+
+/**
+ * Logarithmic bucketing of non-negative values shared by histograms and sketches. Values below
+ * {@code 2^precision} get a bucket each, and every larger power of two is split into {@code 2^precision}
+ * buckets, so a bucket bounds its values with a relative error below {@code 2^-precision}. Finding the
+ * bucket of a value is a couple of bit operations.
+ */
+public final class LogBuckets {
+
+    private final int precision;
+    private final int subBuckets;
+    private final int count;
+
+    /**
+     * Constructs a bucketing.
+     *
+     * @param precision the number of bits of each value kept exactly, between 1 and 16.
+     */
+    public LogBuckets(int precision) {
+        if (precision < 1 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 1 and 16");
+        }
+        this.precision = precision;
+        this.subBuckets = 1 << precision;
+        // Positive longs have at most 63 significant bits
+        this.count = subBuckets * (Long.SIZE - precision);
+    }
+
+    /**
+     * Returns the number of bits of each value kept exactly.
+     *
+     * @return the precision.
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Returns the number of buckets covering every non-negative long.
+     *
+     * @return the bucket count.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value the non-negative value.
+     * @return the bucket index.
+     */
+    public int bucket(long value) {
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - precision)) & (subBuckets - 1);
+        return subBuckets * (exponent - precision + 1) + sub;
+    }
+
+    /**
+     * Returns the smallest value of a bucket.
+     *
+     * @param bucket the bucket index.
+     * @return the lower bound.
+     */
+    public long lowerBound(int bucket) {
+        if (bucket < subBuckets) {
+            return bucket;
+        }
+        int exponent = bucket / subBuckets + precision - 1;
+        long sub = bucket % subBuckets;
+        return (subBuckets + sub) << (exponent - precision);
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     *
+     * @param bucket the bucket index.
+     * @return the upper bound.
+     */
+    public long upperBound(int bucket) {
+        return bucket == count - 1 ? Long.MAX_VALUE : lowerBound(bucket + 1) - 1;
+    }
+}
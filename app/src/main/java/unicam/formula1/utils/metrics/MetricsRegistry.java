@@ -0,0 +1,71 @@
+package unicam.formula1.utils.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Registry of named {@link Counter} and {@link Histogram} metrics. Metrics are created on first use and
+ * then looked up once and kept in fields by the code updating them, so the registry is never on a hot path.
+ */
+public final class MetricsRegistry {
+
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private volatile long startNanos = System.nanoTime();
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name the metric name.
+     * @return the counter.
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it if needed.
+     *
+     * @param name the metric name.
+     * @return the histogram.
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Returns the seconds elapsed since the registry was created or last reset.
+     *
+     * @return the elapsed time in seconds.
+     */
+    public double elapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    /**
+     * Resets every metric and the elapsed time.
+     */
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Formats every metric, one per line, in name order.
+     *
+     * @return the textual report.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        counters.forEach((name, counter) -> report.append(name).append(' ').append(counter.get()).append('\n'));
+        histograms.forEach((name, histogram) -> report.append(name)
+                .append(" count=").append(histogram.count())
+                .append(" mean=").append(String.format("%.1f", histogram.mean()))
+                .append(" p50=").append(histogram.percentile(0.5))
+                .append(" p99=").append(histogram.percentile(0.99))
+                .append(" p999=").append(histogram.percentile(0.999))
+                .append('\n'));
+        return report.toString();
+    }
+}
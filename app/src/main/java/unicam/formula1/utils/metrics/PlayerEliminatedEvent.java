@@ -0,0 +1,21 @@
+package unicam.formula1.utils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted when a player is removed from a race.
+ */
+@Name("unicam.formula1.PlayerEliminated")
+@Label("Player Eliminated")
+@Category("Formula 1")
+public class PlayerEliminatedEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Crashed")
+    public boolean crashed;
+}
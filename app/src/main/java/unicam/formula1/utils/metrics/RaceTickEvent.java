@@ -0,0 +1,30 @@
+package unicam.formula1.utils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering one tick of the race engine.
+ */
+@Name("unicam.formula1.RaceTick")
+@Label("Race Tick")
+@Category("Formula 1")
+@Description("One round of moves of all players")
+public class RaceTickEvent extends Event {
+
+    @Label("Players")
+    @Description("Players moved during the tick")
+    public int players;
+
+    @Label("Main Moves")
+    public int mainMoves;
+
+    @Label("Adjacent Moves")
+    public int adjacentMoves;
+
+    @Label("Crashes")
+    public int crashes;
+}
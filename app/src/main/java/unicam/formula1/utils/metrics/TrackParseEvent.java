@@ -0,0 +1,21 @@
+package unicam.formula1.utils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering the parsing of a track configuration.
+ */
+@Name("unicam.formula1.TrackParse")
+@Label("Track Parse")
+@Category("Formula 1")
+public class TrackParseEvent extends Event {
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -2,27 +2,50 @@ package unicam.formula1.view;
 
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import unicam.formula1.model.Cell;
+import unicam.formula1.model.abstracts.CellType;
 import unicam.formula1.model.abstracts.ITrack;
 import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.stats.CellHeatmap;
+import unicam.formula1.model.stats.GhostLap;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Visual representation of the racetrack and players. This class manages the rendering of the track
- * and players onto a canvas, using distinct colors to differentiate between various elements and players.
+ * and players, using distinct colors to differentiate between various elements and players.
+ * The track is drawn once into an image, with an optional heatmap above it. Players leave bounded trails
+ * on a transparent canvas that is only appended to, and are redrawn, together with an optional ghost lap,
+ * on a transparent canvas on top.
  */
 public class TrackView extends Pane {
 
     private static final int CELL_SIZE = 30;  // The size of each cell in pixels
+    private static final int HEAT_ALPHA = 200;  // The opacity of the hottest cell of the heatmap
+    private static final int[] CELL_COLORS = cellColors();  // ARGB color of each cell type, by ordinal
+    private static final int DEFAULT_TRAIL_LENGTH = 20;  // The number of positions kept in each trail
+    private static final double TRAIL_OPACITY = 0.5;
+    private static final Color GHOST_COLOR = Color.WHITE.deriveColor(0, 1, 1, 0.6);
     private final ITrack<Cell> track;
     private final List<Player<Cell>> players;
     private final Canvas canvas;
     private final Map<Player<Cell>, Color> playerColors;
+    private final ImageView trackLayer;
+    private final ImageView heatmapLayer;
+    private final Canvas trailCanvas;
+    private final Map<Player<Cell>, TrailBuffer> trails;
+    private final int trailLength;
+    private int ticksSinceTrailRedraw;
+    private GhostLap ghost;
+    private int frame;
 
     /**
      * Constructs a TrackView with specified track and players.
@@ -31,15 +54,59 @@ public class TrackView extends Pane {
      * @param players the list of players whose positions are to be shown on the track.
      */
     public TrackView(ITrack<Cell> track, List<Player<Cell>> players) {
+        this(track, players, DEFAULT_TRAIL_LENGTH);
+    }
+
+    /**
+     * Constructs a TrackView with specified track, players and trail length.
+     *
+     * @param track the track to be displayed.
+     * @param players the list of players whose positions are to be shown on the track.
+     * @param trailLength the number of past positions shown behind each player.
+     */
+    public TrackView(ITrack<Cell> track, List<Player<Cell>> players, int trailLength) {
+        if (trailLength <= 0) {
+            throw new IllegalArgumentException("Trail length must be positive");
+        }
         this.track = track;
         this.players = players;
         this.canvas = new Canvas(track.getWidth() * CELL_SIZE, track.getHeight() * CELL_SIZE);
+        this.trailCanvas = new Canvas(canvas.getWidth(), canvas.getHeight());
         this.playerColors = new HashMap<>();
-        this.getChildren().add(canvas);
+        this.trails = new HashMap<>();
+        this.trailLength = trailLength;
+        this.trackLayer = createLayer();
+        this.heatmapLayer = createLayer();
+        this.getChildren().addAll(trackLayer, heatmapLayer, trailCanvas, canvas);
         assignColorsToPlayers();
         drawTrack();
     }
 
+    /**
+     * Builds the color table of the cell types.
+     */
+    private static int[] cellColors() {
+        int[] colors = new int[CellType.values().length];
+        for (CellType type : CellType.values()) {
+            Color color = switch (type) {
+                case TRACK -> Color.GRAY;
+                case START -> Color.GREEN;
+                case FINISH -> Color.RED;
+                case OIL -> Color.BLACK;
+                case OFF_TRACK -> Color.BROWN;
+            };
+            colors[type.ordinal()] = toArgb(color);
+        }
+        return colors;
+    }
+
+    private static int toArgb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
     /**
      * Assigns unique colors to each player for visual distinction on the canvas.
      */
@@ -53,39 +120,31 @@ public class TrackView extends Pane {
     }
 
     /**
-     * Draws the track onto the canvas based on the cell types of each cell in the track.
+     * Draws the track into an image holding one pixel per cell, colored from {@link #CELL_COLORS} and written
+     * with a single bulk {@link javafx.scene.image.PixelWriter} call. Colors come from the cell types, so no
+     * cell object is created, and cells without a type are off-track. The image is scaled up to the cell size
+     * without smoothing, so drawing costs one pass over the cells however large the track is.
      */
     private void drawTrack() {
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        Cell[][] cells = track.getCellsAsMatrix();
+        int width = track.getWidth();
+        int[] pixels = new int[width * track.getHeight()];
         for (int y = 0; y < track.getHeight(); y++) {
-            for (int x = 0; x < track.getWidth(); x++) {
-                Cell cell = cells[y][x];
-                if (cell != null) {
-                    switch (cell.getCellType()) {
-                        case TRACK:
-                            gc.setFill(Color.GRAY);
-                            break;
-                        case START:
-                            gc.setFill(Color.GREEN);
-                            break;
-                        case FINISH:
-                            gc.setFill(Color.RED);
-                            break;
-                        case OIL:
-                            gc.setFill(Color.BLACK);
-                            break;
-                        case OFF_TRACK:
-                            gc.setFill(Color.BROWN);
-                            break;
-                        default:
-                            gc.setFill(Color.WHITE);
-                            break;
-                    }
-                    gc.fillRect(x * CELL_SIZE, y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+            for (int x = 0; x < width; x++) {
+                CellType type = track.getCellType(x, y);
+                if (type == null) {
+                    type = CellType.OFF_TRACK;
                 }
+                pixels[y * width + x] = CELL_COLORS[type.ordinal()];
             }
         }
+        trackLayer.setImage(toImage(pixels));
+    }
+
+    /**
+     * Draws the track again after its cells changed, for instance after a reload of the track file.
+     */
+    public void refreshTrack() {
+        drawTrack();
     }
 
     /**
@@ -93,15 +152,78 @@ public class TrackView extends Pane {
      * whenever the game state changes and a visual update is needed.
      */
     public void update() {
-        drawTrack();
+        updateTrails();
         drawPlayers();
+        frame++;
+    }
+
+    /**
+     * Shows a ghost replaying a lap alongside the race, one position per update.
+     *
+     * @param ghost the lap to replay, or null to hide the ghost.
+     */
+    public void setGhost(GhostLap ghost) {
+        this.ghost = ghost;
     }
 
     /**
-     * Draws players on the track, placing a colored oval at each player's current position.
+     * Appends the newest position of every player to its trail and draws only the new segment.
+     * Segments leaving a trail cannot be erased one by one, so every {@code trailLength} updates the trail
+     * canvas is cleared and redrawn from the trail buffers: the cost stays constant per player and update,
+     * and at most {@code 2 * trailLength} positions are visible behind a player.
+     */
+    private void updateTrails() {
+        boolean redraw = ++ticksSinceTrailRedraw >= trailLength;
+        GraphicsContext gc = trailCanvas.getGraphicsContext2D();
+        gc.setLineWidth(CELL_SIZE / 5.0);
+        for (Player<Cell> player : players) {
+            Cell pos = player.getCurrentPosition();
+            if (pos == null || pos.getX() < 0 || pos.getY() < 0) {
+                continue;
+            }
+            TrailBuffer trail = trails.computeIfAbsent(player, p -> new TrailBuffer(trailLength));
+            int last = trail.size() - 1;
+            if (last >= 0 && trail.x(last) == pos.getX() && trail.y(last) == pos.getY()) {
+                continue;
+            }
+            trail.add(pos.getX(), pos.getY());
+            if (!redraw && trail.size() > 1) {
+                drawTrailSegment(gc, player, trail, trail.size() - 2);
+            }
+        }
+        if (redraw) {
+            ticksSinceTrailRedraw = 0;
+            trails.keySet().retainAll(new HashSet<>(players));
+            gc.clearRect(0, 0, trailCanvas.getWidth(), trailCanvas.getHeight());
+            trails.forEach((player, trail) -> {
+                for (int i = 0; i < trail.size() - 1; i++) {
+                    drawTrailSegment(gc, player, trail, i);
+                }
+            });
+        }
+    }
+
+    /**
+     * Draws the segment of a trail going from a point to the following one.
+     */
+    private void drawTrailSegment(GraphicsContext gc, Player<Cell> player, TrailBuffer trail, int from) {
+        double half = CELL_SIZE / 2.0;
+        gc.setStroke(playerColors.getOrDefault(player, Color.WHITE).deriveColor(0, 1, 1, TRAIL_OPACITY));
+        gc.strokeLine(trail.x(from) * CELL_SIZE + half, trail.y(from) * CELL_SIZE + half,
+                trail.x(from + 1) * CELL_SIZE + half, trail.y(from + 1) * CELL_SIZE + half);
+    }
+
+    /**
+     * Draws players on the transparent overlay above the track, placing a colored oval at each player's
+     * current position, and the ghost at its position for the current update.
      */
     private void drawPlayers() {
         GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (ghost != null) {
+            gc.setFill(GHOST_COLOR);
+            gc.fillOval(ghost.x(frame) * CELL_SIZE, ghost.y(frame) * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+        }
         for (Player<Cell> player : players) {
             Cell pos = player.getCurrentPosition();
             if (pos != null) {
@@ -111,4 +233,63 @@ public class TrackView extends Pane {
         }
     }
 
+    /**
+     * Shows a heatmap over the track. Each cell becomes one pixel of an image written with a single bulk
+     * {@link javafx.scene.image.PixelWriter} call and scaled up to the cell size, so the cost does not depend
+     * on the number of draw calls. Counts are shown on a logarithmic scale, from transparent to opaque red.
+     *
+     * @param heatmap the heatmap of the displayed track.
+     * @param crashes true to show the crash counts, false to show the visit counts.
+     */
+    public void showHeatmap(CellHeatmap heatmap, boolean crashes) {
+        int width = track.getWidth();
+        int height = track.getHeight();
+        int[] counts = crashes ? heatmap.getCrashes() : heatmap.getVisits();
+        if (counts.length != width * height) {
+            throw new IllegalArgumentException("Heatmap does not belong to the displayed track");
+        }
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        double scale = max == 0 ? 0 : 1 / Math.log1p(max);
+        int[] pixels = new int[counts.length];
+        for (int cell = 0; cell < counts.length; cell++) {
+            double heat = Math.log1p(counts[cell]) * scale;
+            int alpha = (int) (heat * HEAT_ALPHA);
+            int green = (int) ((1 - heat) * 255);
+            pixels[cell] = alpha << 24 | 0xFF << 16 | green << 8;
+        }
+        heatmapLayer.setImage(toImage(pixels));
+    }
+
+    /**
+     * Hides the heatmap shown by {@link #showHeatmap(CellHeatmap, boolean)}.
+     */
+    public void hideHeatmap() {
+        heatmapLayer.setImage(null);
+    }
+
+    /**
+     * Creates an image of the track size from ARGB pixels in row-major order, one per cell.
+     */
+    private WritableImage toImage(int[] pixels) {
+        int width = track.getWidth();
+        WritableImage image = new WritableImage(width, track.getHeight());
+        image.getPixelWriter().setPixels(0, 0, width, track.getHeight(), PixelFormat.getIntArgbInstance(),
+                pixels, 0, width);
+        return image;
+    }
+
+    /**
+     * Creates a view showing a one-pixel-per-cell image scaled up to the cell size.
+     */
+    private ImageView createLayer() {
+        ImageView layer = new ImageView();
+        layer.setSmooth(false);
+        layer.setMouseTransparent(true);
+        layer.setFitWidth(track.getWidth() * CELL_SIZE);
+        layer.setFitHeight(track.getHeight() * CELL_SIZE);
+        return layer;
+    }
 }
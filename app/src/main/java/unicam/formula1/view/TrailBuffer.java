@@ -0,0 +1,85 @@
+package unicam.formula1.view;
+
+/**
+ * Bounded trail of grid coordinates kept in two primitive ring buffers. Once full, every new point
+ * overwrites the oldest one, so a trail never allocates after construction.
+ */
+public class TrailBuffer {
+
+    private final int[] xs;
+    private final int[] ys;
+    private int head;
+    private int size;
+
+    /**
+     * Constructs an empty trail.
+     *
+     * @param capacity the maximum number of points kept.
+     */
+    public TrailBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Trail capacity must be positive");
+        }
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+    }
+
+    /**
+     * Appends a point, overwriting the oldest one if the trail is full.
+     *
+     * @param x the x coordinate of the point.
+     * @param y the y coordinate of the point.
+     */
+    public void add(int x, int y) {
+        xs[head] = x;
+        ys[head] = y;
+        head = (head + 1) % xs.length;
+        if (size < xs.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Returns the number of points of the trail.
+     *
+     * @return the number of points.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the x coordinate of a point.
+     *
+     * @param i the index of the point, 0 being the oldest.
+     * @return the x coordinate.
+     */
+    public int x(int i) {
+        return xs[slot(i)];
+    }
+
+    /**
+     * Returns the y coordinate of a point.
+     *
+     * @param i the index of the point, 0 being the oldest.
+     * @return the y coordinate.
+     */
+    public int y(int i) {
+        return ys[slot(i)];
+    }
+
+    /**
+     * Removes every point.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private int slot(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return Math.floorMod(head - size + i, xs.length);
+    }
+}
@@ -0,0 +1,75 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.utils.SnapshotRandom;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassificationTest {
+
+    @Test
+    void testRaceStateRanksEveryFinisher() throws IOException {
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(
+                new BufferedReader(new StringReader("6 4\n######\n#S..F#\n#S..F#\n######\n"))));
+        RaceState race = new RaceState(grid, new int[]{grid.index(1, 1), grid.index(1, 2)});
+        race.setFullClassification(true);
+        race.move(0, grid.index(2, 1));
+        race.move(0, grid.index(3, 1));
+        race.move(0, grid.index(4, 1));
+        assertEquals(0, race.getWinner());
+        assertFalse(race.isTerminated(), "The second car is still racing.");
+        race.move(1, grid.index(2, 2));
+        race.move(1, grid.index(3, 2));
+        race.move(1, grid.index(4, 2));
+        assertTrue(race.isTerminated());
+        assertEquals(1, race.getRank(0));
+        assertEquals(2, race.getRank(1));
+        assertEquals(2, race.getFinishedCount());
+    }
+
+    @Test
+    void testEngineClassifiesEveryPlayer() throws IOException {
+        ITrack<Cell> track = new CircuitParser().parseFile(new BufferedReader(
+                new InputStreamReader(getClass().getClassLoader().getResourceAsStream("track.txt"))));
+        for (long seed = 0; seed < 20; seed++) {
+            List<Player<Cell>> players = new ArrayList<>();
+            List<Cell> starts = track.getStartPositions();
+            for (int i = 0; i < starts.size(); i++) {
+                players.add(new BotPlayer("Bot " + i, starts.get(i), track, BotParameters.DEFAULT,
+                        new SnapshotRandom(seed * 31 + i)));
+            }
+            List<Player<Cell>> roster = List.copyOf(players);
+            GameEngine<Cell> engine = new GameEngine<>(players, seed);
+            engine.setFullClassification(true);
+            while (!engine.isTerminated() && engine.getTick() < 10_000) {
+                engine.play();
+            }
+            assertTrue(engine.isTerminated());
+            List<Player<Cell>> classification = engine.getClassification();
+            for (int rank = 1; rank < classification.size(); rank++) {
+                assertTrue(engine.getFinishTick(classification.get(rank - 1))
+                        <= engine.getFinishTick(classification.get(rank)));
+            }
+            for (Player<Cell> player : roster) {
+                assertEquals(classification.contains(player), !player.hasCrashed(),
+                        "Every player either finishes or crashes.");
+            }
+        }
+    }
+}
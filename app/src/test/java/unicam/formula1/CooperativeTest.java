@@ -0,0 +1,78 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.CooperativeTeam;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.ReservationTable;
+import unicam.formula1.utils.Printer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CooperativeTest {
+
+    @Test
+    void testReservationTable() {
+        ReservationTable table = new ReservationTable(2);
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i % 7, i);
+        }
+        assertEquals(1000, table.size());
+        assertEquals(42, table.get(42, 0));
+        assertEquals(ReservationTable.NONE, table.get(42, 1));
+        table.put(42, 0, 7);
+        assertEquals(7, table.get(42, 0));
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(ReservationTable.NONE, table.get(42, 0));
+    }
+
+    @Test
+    void testCarsNeverShareACell() throws IOException {
+        int width = 40;
+        int height = 30;
+        StringBuilder content = new StringBuilder(width + " " + height + "\n");
+        content.append("F".repeat(width)).append("\n");
+        for (int y = 1; y < height - 1; y++) {
+            content.append(".".repeat(width)).append("\n");
+        }
+        content.append("S".repeat(width)).append("\n");
+        Track track = new CircuitParser().parseFile(new BufferedReader(new StringReader(content.toString())));
+        CooperativeTeam team = new CooperativeTeam(track, 8, new Random(5));
+        List<Player<Cell>> players = new ArrayList<>();
+        for (Cell start : track.getStartPositions()) {
+            players.add(team.join("Car " + players.size(), start));
+        }
+        Printer.setEnabled(false);
+        try {
+            GameEngine<Cell> engine = new GameEngine<>(players, 5);
+            engine.setFullClassification(true);
+            while (!engine.isTerminated() && engine.getTick() < 100) {
+                engine.play();
+                Set<Integer> occupied = new HashSet<>();
+                for (Player<Cell> player : engine.getPlayers()) {
+                    Cell position = player.getCurrentPosition();
+                    assertTrue(occupied.add(position.getY() * width + position.getX()),
+                            "Two cars share a cell at tick " + engine.getTick());
+                }
+            }
+            assertTrue(engine.isTerminated());
+            assertTrue(engine.getClassification().size() > width / 2);
+            assertTrue(team.getReplans() > 1);
+        } finally {
+            Printer.setEnabled(true);
+        }
+    }
+}
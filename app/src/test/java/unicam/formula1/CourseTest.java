@@ -0,0 +1,63 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.Course;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.sim.LapCourse;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CourseTest {
+
+    private static final String TRACK = "7 3\n#######\n#S...F#\n#######\n";
+
+    @Test
+    void testParseCourseDirectives() throws IOException {
+        Track track = new CircuitParser().parseFile(
+                new BufferedReader(new StringReader(TRACK + "laps 2\ngate 3 1 3 1\n")));
+        assertEquals(2, track.getCourse().laps());
+        assertEquals(1, track.getCourse().gates().size());
+        assertTrue(track.getCourse().gates().get(0).contains(3, 1));
+
+        Track plain = new CircuitParser().parseFile(new BufferedReader(new StringReader(TRACK)));
+        assertEquals(Course.SINGLE_LAP, plain.getCourse());
+        assertThrows(IOException.class, () -> new CircuitParser().parseFile(
+                new BufferedReader(new StringReader(TRACK + "gate 3 1 9 1\n"))));
+    }
+
+    @Test
+    void testLapsRequireGatesInOrder() throws IOException {
+        Track track = new CircuitParser().parseFile(
+                new BufferedReader(new StringReader(TRACK + "laps 2\ngate 3 1 3 1\n")));
+        TrackGrid grid = TrackGrid.of(track);
+        LapCourse course = LapCourse.of(grid, track.getCourse());
+        assertEquals(0, course.gate(grid.index(3, 1)));
+        assertEquals(1, course.gate(grid.index(5, 1)));
+        assertEquals(LapCourse.NO_GATE, course.gate(grid.index(2, 1)));
+
+        RaceState race = new RaceState(grid, new int[]{grid.index(1, 1), grid.index(1, 1)});
+        race.setCourse(course);
+        race.move(0, grid.index(2, 1));
+        race.move(0, grid.index(3, 1));
+        race.move(0, grid.index(4, 1));
+        race.move(0, grid.index(5, 1));
+        assertEquals(1, course.lap(race.getProgress(0)));
+        assertEquals(RaceState.NO_WINNER, race.getWinner());
+        race.move(0, grid.index(4, 1));
+        race.move(0, grid.index(5, 1));
+        assertEquals(RaceState.NO_WINNER, race.getWinner(), "The finish line only counts after the gate.");
+        race.move(0, grid.index(4, 1));
+        race.move(0, grid.index(3, 1));
+        race.move(0, grid.index(4, 1));
+        race.move(0, grid.index(5, 1));
+        assertEquals(0, race.getWinner());
+        assertTrue(course.isComplete(race.getProgress(0)));
+    }
+}
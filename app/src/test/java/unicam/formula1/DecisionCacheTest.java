@@ -0,0 +1,45 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.policy.DecisionCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecisionCacheTest {
+
+    @Test
+    void testHitsAndMisses() {
+        DecisionCache cache = new DecisionCache(8);
+        assertEquals(DecisionCache.MISSING, cache.get(DecisionCache.key(3, 1)));
+        cache.put(DecisionCache.key(3, 1), 5);
+        assertEquals(5, cache.get(DecisionCache.key(3, 1)));
+        assertEquals(5, cache.computeIfAbsent(DecisionCache.key(3, 1), key -> fail("Decision should be cached.")));
+        assertEquals(2, cache.getHits(), "Two lookups should have hit.");
+        assertEquals(1, cache.getMisses(), "One lookup should have missed.");
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        DecisionCache cache = new DecisionCache(4, 1);
+        for (int key = 0; key < 100; key++) {
+            cache.put(key, key * 2);
+        }
+        assertEquals(4, cache.size(), "Cache should never hold more than its capacity.");
+        assertEquals(96, cache.getEvictions(), "Every insertion past the capacity should evict.");
+        for (int key = 96; key < 100; key++) {
+            assertEquals(key * 2, cache.get(key), "Most recent entries should still be cached.");
+        }
+    }
+
+    @Test
+    void testReferencedEntriesSurviveEviction() {
+        DecisionCache cache = new DecisionCache(4, 1);
+        for (int key = 0; key < 4; key++) {
+            cache.put(key, key);
+        }
+        cache.get(0);
+        cache.put(10, 10);
+        assertEquals(0, cache.get(0), "Recently used entry should not be evicted.");
+        assertEquals(DecisionCache.MISSING, cache.get(1), "Oldest unused entry should be evicted.");
+    }
+}
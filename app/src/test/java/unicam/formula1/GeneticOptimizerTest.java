@@ -0,0 +1,44 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.model.tuning.FitnessEvaluator;
+import unicam.formula1.model.tuning.GeneticOptimizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeneticOptimizerTest {
+
+    @Test
+    void testOptimizerFindsMaximum() {
+        GeneticOptimizer optimizer = new GeneticOptimizer(new double[]{0, 0}, new double[]{1, 1},
+                genome -> -Math.pow(genome[0] - 0.3, 2) - Math.pow(genome[1] - 0.7, 2), 2);
+        GeneticOptimizer.Result result = optimizer.optimize(20, 40, 42L);
+        assertEquals(0.3, result.best()[0], 0.05);
+        assertEquals(0.7, result.best()[1], 0.05);
+        assertTrue(optimizer.getCacheHits() > 0, "Surviving elites should be taken from the cache.");
+    }
+
+    @Test
+    void testRunsAreDeterministic() {
+        GeneticOptimizer first = new GeneticOptimizer(new double[]{0}, new double[]{1}, genome -> genome[0], 2);
+        GeneticOptimizer second = new GeneticOptimizer(new double[]{0}, new double[]{1}, genome -> genome[0], 3);
+        assertArrayEquals(first.optimize(8, 5, 7L).best(), second.optimize(8, 5, 7L).best());
+    }
+
+    @Test
+    void testFitnessIsRepeatable() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getClassLoader().getResourceAsStream("track.txt")));
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(reader));
+        FitnessEvaluator evaluator = new FitnessEvaluator(grid, 2, 50, 500, 3L);
+        assertEquals(evaluator.evaluate(BotParameters.DEFAULT), evaluator.evaluate(BotParameters.DEFAULT),
+                "Same seeds should give the same score.");
+    }
+}
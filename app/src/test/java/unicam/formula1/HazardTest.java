@@ -0,0 +1,141 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.HazardSpawner;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.TrackPatch;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.DistanceField;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HazardTest {
+
+    private static Track resourceTrack() throws IOException {
+        return new CircuitParser().parseFile(new BufferedReader(new InputStreamReader(
+                HazardTest.class.getResourceAsStream("/track.txt"))));
+    }
+
+    /**
+     * Recomputes the field from scratch with a breadth-first search from the finish line.
+     */
+    private static int[] bfs(TrackGrid grid) {
+        int[] distance = new int[grid.size()];
+        Arrays.fill(distance, DistanceField.UNREACHABLE);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int cell : grid.cellsOf(CellType.FINISH)) {
+            distance[cell] = 0;
+            queue.add(cell);
+        }
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            for (int d = 0; d < TrackGrid.DIRECTIONS; d++) {
+                int neighbor = grid.neighbor(cell, d);
+                if (neighbor != TrackGrid.NO_CELL && distance[neighbor] == DistanceField.UNREACHABLE) {
+                    distance[neighbor] = distance[cell] + 1;
+                    if (grid.type(neighbor).isDrivable()) {
+                        queue.add(neighbor);
+                    }
+                }
+            }
+        }
+        return distance;
+    }
+
+    @Test
+    void testRepairedFieldMatchesRecomputation() throws IOException {
+        Track track = resourceTrack();
+        List<Player<Cell>> players = new ArrayList<>();
+        for (Cell start : track.getStartPositions()) {
+            players.add(new BotPlayer("Bot " + players.size(), start, track));
+        }
+        HazardSpawner spawner = new HazardSpawner(track, 0.8, 5, new Random(3));
+        DistanceField field = DistanceField.of(TrackGrid.of(track));
+        int oil = TrackGrid.of(track).cellsOf(CellType.OIL).length;
+        int spills = 0;
+        for (int tick = 0; tick < 200; tick++) {
+            TrackPatch patch = spawner.step(players);
+            spills += (int) patch.changes().stream().filter(c -> c.type() == CellType.OIL).count();
+            field.apply(patch);
+            TrackGrid grid = TrackGrid.of(track);
+            int[] expected = bfs(grid);
+            for (int cell = 0; cell < grid.size(); cell++) {
+                assertEquals(expected[cell], field.distance(cell), "Cell " + cell + " at tick " + tick);
+            }
+        }
+        assertTrue(spills > 50);
+        assertTrue(spawner.getSpills().length <= 5, "Spills clear after their lifetime.");
+        assertEquals(oil + spawner.getSpills().length, TrackGrid.of(track).cellsOf(CellType.OIL).length);
+        for (Player<Cell> player : players) {
+            assertEquals(CellType.START, track.getCell(player.getCurrentPosition().getX(),
+                    player.getCurrentPosition().getY()).getCellType());
+        }
+    }
+
+    @Test
+    void testRepairCostIsLocal() throws IOException {
+        int size = 200;
+        StringBuilder content = new StringBuilder(size + " " + size + "\n");
+        for (int y = 0; y < size; y++) {
+            content.append("F").append(".".repeat(size - 1)).append("\n");
+        }
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(
+                new BufferedReader(new StringReader(content.toString()))));
+        DistanceField field = DistanceField.of(grid);
+        assertEquals(size - 1, field.distance(size - 1, 0));
+        field.update(grid.index(size - 3, size / 2), CellType.OIL);
+        assertTrue(field.getLastRepair() < size, "Repaired " + field.getLastRepair() + " cells.");
+        field.update(grid.index(1, size / 2), CellType.OIL);
+        assertEquals(2, field.distance(2, size / 2), "The car goes around the oil diagonally.");
+        assertTrue(field.getLastRepair() < size * 2, "Repaired " + field.getLastRepair() + " cells.");
+        field.update(grid.index(1, size / 2), CellType.TRACK);
+        assertEquals(1, field.distance(1, size / 2));
+    }
+
+    @Test
+    void testSpillsLandOnThinRibbons() throws IOException {
+        int size = 1000;
+        StringBuilder content = new StringBuilder(size + " " + size + "\n");
+        for (int y = 0; y < size; y++) {
+            content.append(y == 500 ? "#S" + ".".repeat(size - 4) + "F#" : "#".repeat(size)).append("\n");
+        }
+        Track track = new CircuitParser().parseFile(new BufferedReader(new StringReader(content.toString())));
+        HazardSpawner spawner = new HazardSpawner(track, 1, 1000, new Random(5));
+        for (int tick = 0; tick < 50; tick++) {
+            assertEquals(1, spawner.step(List.of()).changes().size(), "Every step spills at tick " + tick);
+        }
+        assertEquals(50, spawner.getSpills().length);
+        for (int cell : spawner.getSpills()) {
+            assertEquals(CellType.OIL, track.getCellType(cell % size, cell / size));
+        }
+    }
+
+    @Test
+    void testClearingKeepsCellsChangedMeanwhile() throws IOException {
+        Track track = new CircuitParser().parseFile(new BufferedReader(new StringReader("5 1\nS...F\n")));
+        HazardSpawner spawner = new HazardSpawner(track, 1, 2, new Random(1));
+        TrackPatch spill = spawner.step(List.of());
+        TrackPatch.Change change = spill.changes().get(0);
+        track.apply(new TrackPatch(List.of(new TrackPatch.Change(change.x(), change.y(), CellType.OFF_TRACK)),
+                track.getCourse()));
+        spawner.step(List.of());
+        spawner.step(List.of());
+        assertEquals(CellType.OFF_TRACK, track.getCellType(change.x(), change.y()),
+                "A cell that is no longer oil is left as it was.");
+    }
+}
@@ -0,0 +1,103 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.TrackPatch;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.DistanceField;
+import unicam.formula1.model.sim.HierarchicalPlanner;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HierarchicalPathTest {
+
+    /**
+     * Builds a track of open ground scattered with walls, with the finish line along the top row.
+     */
+    private static Track scatteredTrack(int width, int height, double walls, long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder content = new StringBuilder(width + " " + height + "\n");
+        content.append("F".repeat(width)).append("\n");
+        for (int y = 1; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                content.append(random.nextDouble() < walls ? '#' : '.');
+            }
+            content.append("\n");
+        }
+        return new CircuitParser().parseFile(new BufferedReader(new StringReader(content.toString())));
+    }
+
+    private static void assertValidPath(Track track, Cell start, List<Cell> path) {
+        Cell previous = start;
+        for (Cell cell : path) {
+            assertTrue(Math.abs(cell.getX() - previous.getX()) <= 1 && Math.abs(cell.getY() - previous.getY()) <= 1,
+                    "Cells " + previous + " and " + cell + " are not adjacent.");
+            assertTrue(cell.getCellType().isDrivable());
+            previous = cell;
+        }
+        assertEquals(CellType.FINISH, path.get(path.size() - 1).getCellType());
+    }
+
+    @Test
+    void testPathsMatchFlatSearch() throws IOException {
+        Track track = scatteredTrack(70, 50, 0.3, 7);
+        DistanceField field = DistanceField.of(TrackGrid.of(track));
+        HierarchicalPlanner planner = new HierarchicalPlanner(track, 8, 4);
+        assertEquals(63, planner.getClusterCount());
+        long exact = 0;
+        long found = 0;
+        for (int y = 1; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                Cell start = track.getCell(x, y);
+                if (start.getCellType() != CellType.TRACK) {
+                    continue;
+                }
+                List<Cell> path = planner.path(start);
+                int distance = field.distance(x, y);
+                if (distance == DistanceField.UNREACHABLE) {
+                    assertTrue(path.isEmpty(), "No path from " + start);
+                } else {
+                    assertValidPath(track, start, path);
+                    assertTrue(path.size() >= distance);
+                    exact += distance;
+                    found += path.size();
+                }
+            }
+        }
+        assertTrue(found <= exact * 1.2, "Paths are " + found + " steps against " + exact + ".");
+    }
+
+    @Test
+    void testChangesRebuildNearbyClusters() throws IOException {
+        Track track = scatteredTrack(64, 64, 0, 1);
+        HierarchicalPlanner planner = new HierarchicalPlanner(track, 16, 2);
+        Cell start = track.getCell(20, 40);
+        assertEquals(40, planner.path(start).size());
+        List<TrackPatch.Change> wall = new ArrayList<>();
+        for (int x = 0; x < track.getWidth() - 1; x++) {
+            wall.add(new TrackPatch.Change(x, 20, CellType.OFF_TRACK));
+        }
+        TrackPatch patch = new TrackPatch(wall, track.getCourse());
+        track.apply(patch);
+        planner.apply(patch);
+        assertTrue(planner.getLastRebuild() <= 12);
+        List<Cell> detour = planner.path(start);
+        assertValidPath(track, start, detour);
+        assertEquals(63, detour.size(), "The car goes through the gap at the end of the wall.");
+        wall.add(new TrackPatch.Change(track.getWidth() - 1, 20, CellType.OFF_TRACK));
+        patch = new TrackPatch(wall, track.getCourse());
+        track.apply(patch);
+        planner.apply(patch);
+        assertTrue(planner.path(start).isEmpty());
+    }
+}
@@ -0,0 +1,48 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.MctsBotPlayer;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MctsBotTest {
+
+    private static Track parse(String layout) throws IOException {
+        return new CircuitParser().parseFile(new BufferedReader(new StringReader(layout)));
+    }
+
+    @Test
+    void testBotPrefersFinish() throws IOException {
+        // Moving left leads to a dead end, moving right reaches the finish line
+        Track track = parse("5 3\n#####\n#.SF#\n#####\n");
+        MctsBotPlayer bot = new MctsBotPlayer("Mcts", track.getCell(2, 1), track, 10, 2);
+        assertEquals(CellType.FINISH, bot.mainMove().getCellType(), "Bot should move to the finish line.");
+    }
+
+    @Test
+    void testStateCopyIsIndependent() throws IOException {
+        Track track = parse("6 3\n######\n#S...#\n######\n");
+        TrackGrid grid = TrackGrid.of(track);
+        RaceState state = new RaceState(grid, new int[]{grid.index(1, 1), grid.index(1, 1)});
+        RaceState copy = state.copy();
+        copy.move(0, grid.index(2, 1));
+        assertEquals(grid.index(1, 1), state.getPosition(0), "Original state should not change.");
+        assertEquals(grid.index(2, 1), copy.getPosition(0), "Copied state should move.");
+
+        RaceState first = state.copy();
+        RaceState second = state.copy();
+        first.step(new SplittableRandom(7));
+        second.step(new SplittableRandom(7));
+        assertEquals(first.getPosition(1), second.getPosition(1), "Same seed should give the same rollout.");
+    }
+}
@@ -0,0 +1,35 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.utils.metrics.Histogram;
+import unicam.formula1.utils.metrics.MetricsRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(500.5, histogram.mean(), 1e-9);
+        long median = histogram.percentile(0.5);
+        assertTrue(median >= 500 && median < 500 * 1.25, "Median should be within the bucket error.");
+        assertTrue(histogram.percentile(1.0) >= 1000, "Maximum should be covered by the last bucket.");
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.percentile(1.0));
+    }
+
+    @Test
+    void testRegistryReusesMetrics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("ticks").add(3);
+        registry.counter("ticks").increment();
+        assertEquals(4, registry.counter("ticks").get());
+        assertSame(registry.histogram("latency"), registry.histogram("latency"));
+        assertTrue(registry.report().contains("ticks 4"));
+    }
+}
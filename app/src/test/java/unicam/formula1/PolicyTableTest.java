@@ -0,0 +1,56 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.PolicyBotPlayer;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.policy.PolicyTable;
+import unicam.formula1.model.policy.ValueIteration;
+import unicam.formula1.model.sim.MoveModel;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PolicyTableTest {
+
+    private static Track parse(String layout) throws IOException {
+        return new CircuitParser().parseFile(new BufferedReader(new StringReader(layout)));
+    }
+
+    @Test
+    void testPolicyRoundTrip(@TempDir Path dir) throws IOException {
+        Track track = parse("7 3\n#######\n#..S.F#\n#######\n");
+        TrackGrid grid = TrackGrid.of(track);
+        byte[] policy = new ValueIteration(grid, 1000).solve();
+        Path file = dir.resolve("track.policy");
+        PolicyTable.write(file, grid, policy);
+
+        PolicyTable table = PolicyTable.open(file);
+        assertTrue(table.matches(grid), "Table should match the track it was computed for.");
+        int start = grid.index(3, 1);
+        int action = table.action(start, MoveModel.NO_VELOCITY);
+        assertEquals(grid.index(4, 1), grid.neighbor(start, action), "Policy should head towards the finish.");
+        assertEquals(PolicyTable.NO_ACTION, table.action(grid.index(0, 0), MoveModel.NO_VELOCITY),
+                "Off-track cells should have no action.");
+    }
+
+    @Test
+    void testPolicyBotRejectsOtherTrack(@TempDir Path dir) throws IOException {
+        Track track = parse("7 3\n#######\n#..S.F#\n#######\n");
+        Track other = parse("7 3\n#######\n#F.S..#\n#######\n");
+        TrackGrid grid = TrackGrid.of(track);
+        Path file = dir.resolve("track.policy");
+        PolicyTable.write(file, grid, new ValueIteration(grid, 1000).solve());
+        PolicyTable table = PolicyTable.open(file);
+
+        assertDoesNotThrow(() -> new PolicyBotPlayer("Policy", track.getCell(3, 1), track, table));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PolicyBotPlayer("Policy", other.getCell(3, 1), other, table));
+    }
+}
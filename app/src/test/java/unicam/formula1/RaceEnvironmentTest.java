@@ -0,0 +1,106 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.controller.EnvironmentServer;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.rl.RaceEnvironment;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RaceEnvironmentTest {
+
+    // Direction indices follow the order used by CircuitParser
+    private static final byte LEFT = 0;
+    private static final byte RIGHT = 1;
+
+    private static TrackGrid grid() throws IOException {
+        return TrackGrid.of(new CircuitParser().parseFile(
+                new BufferedReader(new StringReader("6 3\n######\n#.S.F#\n######\n"))));
+    }
+
+    @Test
+    void testObservationPatch() throws IOException {
+        RaceEnvironment environment = new RaceEnvironment(grid(), 2, 0, 1, 100, 1L);
+        environment.reset();
+        assertEquals(11, environment.getObservationSize(), "A 3x3 patch plus the velocity is expected.");
+        byte[] observations = environment.getObservations();
+        assertEquals(CellType.START.ordinal(), observations[4], "The car should be at the center of the patch.");
+        assertEquals(CellType.OFF_TRACK.ordinal(), observations[1], "The cell above the car is off track.");
+    }
+
+    @Test
+    void testRewardsAndAutoReset() throws IOException {
+        RaceEnvironment environment = new RaceEnvironment(grid(), 1, 0, 1, 100, 1L);
+        environment.reset();
+        environment.step(new byte[]{RIGHT});
+        assertEquals(RaceEnvironment.STEP_REWARD, environment.getRewards()[0]);
+        assertEquals(0, environment.getDones()[0]);
+        assertEquals(1, environment.getObservations()[9], "Velocity should point right.");
+
+        environment.step(new byte[]{RIGHT});
+        assertEquals(RaceEnvironment.FINISH_REWARD, environment.getRewards()[0]);
+        assertEquals(1, environment.getDones()[0]);
+        assertEquals(CellType.START.ordinal(), environment.getObservations()[4], "Episode should restart.");
+
+        environment.step(new byte[]{LEFT});
+        environment.step(new byte[]{LEFT});
+        assertEquals(RaceEnvironment.CRASH_REWARD, environment.getRewards()[0]);
+        assertEquals(1, environment.getDones()[0]);
+    }
+
+    @Test
+    void testServerRoundTrip() throws Exception {
+        RaceEnvironment environment = new RaceEnvironment(grid(), 3, 0, 1, 100, 1L);
+        try (EnvironmentServer server = new EnvironmentServer(environment,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            Thread serving = new Thread(() -> {
+                try {
+                    server.serve();
+                } catch (IOException ignored) {
+                }
+            });
+            serving.start();
+            try (SocketChannel client = SocketChannel.open(server.getAddress())) {
+                ByteBuffer hello = read(client, 8);
+                assertEquals(3, hello.getInt());
+                assertEquals(11, hello.getInt());
+
+                client.write(ByteBuffer.wrap(new byte[]{'R'}));
+                read(client, 3 * (11 + 4 + 1));
+                client.write(ByteBuffer.wrap(new byte[]{'S', RIGHT, RIGHT, RIGHT}));
+                ByteBuffer result = read(client, 3 * (11 + 4 + 1));
+                assertEquals(RaceEnvironment.STEP_REWARD, result.getFloat(3 * 11));
+                client.write(ByteBuffer.wrap(new byte[]{'Q'}));
+            }
+            try (SocketChannel client = SocketChannel.open(server.getAddress())) {
+                read(client, 8);
+                client.write(ByteBuffer.wrap(new byte[]{'X'}));
+                assertEquals('E', read(client, 1).get());
+                assertEquals(-1, client.read(ByteBuffer.allocate(1)), "A bad client is disconnected.");
+            }
+            try (SocketChannel client = SocketChannel.open(server.getAddress())) {
+                assertEquals(3, read(client, 8).getInt(), "The server keeps serving after a bad client.");
+                client.write(ByteBuffer.wrap(new byte[]{'Q'}));
+            }
+        }
+    }
+
+    private static ByteBuffer read(SocketChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            assertTrue(channel.read(buffer) >= 0, "Server closed the connection.");
+        }
+        return buffer.flip();
+    }
+}
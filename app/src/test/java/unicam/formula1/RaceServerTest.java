@@ -0,0 +1,70 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.controller.RaceServer;
+import unicam.formula1.utils.Printer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RaceServerTest {
+
+    @Test
+    void testRaceStreamsFramesUntilClassification() throws IOException, InterruptedException {
+        Printer.setEnabled(false);
+        try (RaceServer server = new RaceServer(0)) {
+            server.start();
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://localhost:" + server.getPort();
+            String track = "7 4\n#######\n#SS..F#\n#.....#\n#######\n";
+            HttpResponse<String> upload = client.send(HttpRequest.newBuilder(URI.create(base + "/tracks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(track)).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, upload.statusCode());
+            Matcher trackId = Pattern.compile("\"track\":\"(\\w+)\"").matcher(upload.body());
+            assertTrue(trackId.find());
+
+            HttpResponse<String> race = client.send(HttpRequest.newBuilder(
+                            URI.create(base + "/races?track=" + trackId.group(1) + "&seed=4&tickMillis=1"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, race.statusCode());
+            Matcher raceId = Pattern.compile("\"id\":\"(\\w+)\"").matcher(race.body());
+            assertTrue(raceId.find());
+
+            List<String> frames = client.send(HttpRequest.newBuilder(
+                            URI.create(base + "/races/" + raceId.group(1) + "/stream")).build(),
+                    HttpResponse.BodyHandlers.ofLines()).body().toList();
+            assertFalse(frames.isEmpty());
+            assertTrue(frames.get(frames.size() - 1).contains("\"classification\""),
+                    "The last frame should hold the classification.");
+
+            String summary = "";
+            for (int attempt = 0; attempt < 100 && !summary.contains("\"finished\":true"); attempt++) {
+                Thread.sleep(10);
+                summary = client.send(HttpRequest.newBuilder(URI.create(base + "/races/" + raceId.group(1))).build(),
+                        HttpResponse.BodyHandlers.ofString()).body();
+            }
+            assertTrue(summary.contains("\"finished\":true"), summary);
+            List<String> replay = client.send(HttpRequest.newBuilder(
+                            URI.create(base + "/races/" + raceId.group(1) + "/stream")).build(),
+                    HttpResponse.BodyHandlers.ofLines()).body().toList();
+            assertEquals(List.of(frames.get(frames.size() - 1)), replay, "A finished race keeps its final frame.");
+            assertEquals(200, client.send(HttpRequest.newBuilder(URI.create(base + "/races/" + raceId.group(1)))
+                    .DELETE().build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+
+            HttpResponse<String> missing = client.send(
+                    HttpRequest.newBuilder(URI.create(base + "/races/" + raceId.group(1))).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(404, missing.statusCode());
+        } finally {
+            Printer.setEnabled(true);
+        }
+    }
+}
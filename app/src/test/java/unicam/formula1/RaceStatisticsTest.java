@@ -0,0 +1,217 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.RaceState;
+import unicam.formula1.model.stats.AdaptiveMonteCarlo;
+import unicam.formula1.model.stats.CellHeatmap;
+import unicam.formula1.model.stats.LogSketch;
+import unicam.formula1.model.stats.RaceStatistics;
+import unicam.formula1.model.stats.ResultsWriter;
+import unicam.formula1.model.stats.StatisticsCollector;
+import unicam.formula1.model.stats.WinProbabilityRunner;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.utils.Printer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RaceStatisticsTest {
+
+    @Test
+    void testMergedWorkersMatchSingleCollector() throws IOException {
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(
+                new BufferedReader(new StringReader("6 3\n######\n#SS.F#\n######\n"))));
+        int[] starts = {grid.index(1, 1), grid.index(2, 1)};
+        RaceStatistics single = new RaceStatistics(grid, 100);
+        RaceStatistics first = new RaceStatistics(grid, 100);
+        RaceStatistics second = new RaceStatistics(grid, 100);
+        for (int race = 0; race < 10; race++) {
+            RaceStatistics worker = race % 2 == 0 ? first : second;
+            int winner = race % 3 == 0 ? 0 : 1;
+            for (RaceStatistics statistics : new RaceStatistics[]{single, worker}) {
+                statistics.recordRace(starts, winner, race + 2);
+                statistics.recordFinish(race + 2);
+                statistics.recordCrash(grid.index(3, 0));
+            }
+        }
+        first.merge(second);
+        assertEquals(single.report(3), first.report(3));
+        assertEquals(10, first.getRaces());
+        assertEquals(0.4, first.getWinRate(starts[0]), 1e-9);
+        assertEquals(0.6, first.getWinRate(starts[1]), 1e-9);
+        assertEquals(10, first.getCrashes(grid.index(3, 0)));
+        assertEquals(6, first.getTickQuantile(0.5));
+    }
+
+    @Test
+    void testSketchQuantilesWithinRelativeError() {
+        LogSketch sketch = new LogSketch(6);
+        for (long value = 1; value <= 100_000; value++) {
+            sketch.record(value);
+        }
+        assertEquals(100_000, sketch.count());
+        long median = sketch.quantile(0.5);
+        assertTrue(Math.abs(median - 50_000) <= 50_000 / 32, "Median should be within the sketch precision.");
+        assertEquals(1, sketch.min());
+        assertEquals(100_000, sketch.max());
+    }
+
+    @Test
+    void testHeatmapDoesNotDependOnThreadCount() throws IOException {
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(
+                new BufferedReader(new StringReader("7 4\n#######\n#SS..F#\n#.....#\n#######\n"))));
+        CellHeatmap single = CellHeatmap.simulate(grid, 200, 100, 7, 1);
+        CellHeatmap parallel = CellHeatmap.simulate(grid, 200, 100, 7, 3);
+        assertArrayEquals(single.getVisits(), parallel.getVisits());
+        assertArrayEquals(single.getCrashes(), parallel.getCrashes());
+        assertTrue(single.getVisits()[grid.index(1, 1)] >= 200, "Every race should visit the start cells.");
+        assertEquals(0, single.getVisits()[grid.index(0, 0)]);
+        assertTrue(Arrays.stream(single.getCrashes()).sum() > 0, "Some cars should crash.");
+    }
+
+    @Test
+    void testSnapshotsGoOnAfterAFailure(@TempDir Path dir) throws IOException, InterruptedException {
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(
+                new BufferedReader(new StringReader("6 3\n######\n#SS.F#\n######\n"))));
+        Path missing = dir.resolve("later");
+        Path snapshot = missing.resolve("snapshot.txt");
+        try (StatisticsCollector collector = new StatisticsCollector(grid, 100, snapshot, 5)) {
+            Thread.sleep(50);
+            Files.createDirectory(missing);
+            for (int attempt = 0; attempt < 200 && !Files.exists(snapshot); attempt++) {
+                Thread.sleep(10);
+            }
+            assertTrue(Files.exists(snapshot), "Snapshots resume once the directory exists.");
+            assertNotNull(collector.snapshot());
+        }
+    }
+
+    @Test
+    void testResultsRollOverWholeRows(@TempDir Path dir) throws IOException {
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(new BufferedReader(new InputStreamReader(
+                RaceStatisticsTest.class.getResourceAsStream("/track.txt")))));
+        int[] starts = grid.cellsOf(CellType.START);
+        RaceState race = new RaceState(grid, starts);
+        race.setFullClassification(true);
+        List<String> expected = new ArrayList<>();
+        try (ResultsWriter writer = new ResultsWriter(dir, "results", 4096)) {
+            for (int i = 0; i < 200; i++) {
+                race.reset(starts);
+                SplittableRandom random = new SplittableRandom(i);
+                while (!race.isTerminated() && race.getTick() < 1000) {
+                    race.step(random);
+                }
+                writer.record(Long.MIN_VALUE + i, grid.checksum(), race, starts);
+                int car = i % starts.length;
+                int crash = race.isAlive(car) ? -1 : race.getPosition(car);
+                expected.add((Long.MIN_VALUE + i) + "," + grid.checksum() + "," + car + ","
+                        + grid.x(starts[car]) + "," + grid.y(starts[car]) + "," + race.getFinishTick(car) + ","
+                        + (crash < 0 ? -1 : grid.x(crash)) + "," + (crash < 0 ? -1 : grid.y(crash)) + ","
+                        + race.getRank(car) + "," + race.getTick());
+            }
+            assertEquals(200L * starts.length, writer.getRows());
+        }
+        List<Path> files = ResultsWriter.files(dir, "results");
+        assertTrue(files.size() > 3);
+        List<String> rows = new ArrayList<>();
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 4096);
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(ResultsWriter.HEADER, lines.get(0));
+            lines.subList(1, lines.size()).forEach(line -> assertEquals(10, line.split(",").length));
+            rows.addAll(lines.subList(1, lines.size()));
+        }
+        assertEquals(200 * starts.length, rows.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(expected.get(i), rows.get(i * starts.length + i % starts.length));
+        }
+        try (ResultsWriter writer = new ResultsWriter(dir, "results", 4096)) {
+            writer.record(0, 0, race, starts);
+        }
+        assertEquals(files.size() + 1, ResultsWriter.files(dir, "results").size(), "Existing files are kept.");
+    }
+
+    @Test
+    void testAdaptiveEstimatesStopAtPrecision() {
+        List<AdaptiveMonteCarlo.Experiment> cases = new ArrayList<>();
+        for (double rate : new double[]{0.5, 0.02, 0.3, 0.995}) {
+            cases.add(AdaptiveMonteCarlo.Experiment.of("p=" + rate,
+                    seed -> new SplittableRandom(seed).nextDouble() < rate));
+        }
+        AdaptiveMonteCarlo.Result result = new AdaptiveMonteCarlo(cases, 0.02, 0.95, 50, 1000, 1_000_000, 4).run(7);
+        assertTrue(result.converged());
+        long total = 0;
+        for (int c = 0; c < cases.size(); c++) {
+            AdaptiveMonteCarlo.Estimate estimate = result.estimates().get(c);
+            assertTrue(estimate.halfWidth() <= 0.02);
+            assertTrue(estimate.lower() <= estimate.mean() && estimate.mean() <= estimate.upper());
+            total += estimate.trials();
+        }
+        assertEquals(total, result.trials());
+        assertTrue(result.estimates().get(0).trials() > 5 * result.estimates().get(3).trials(),
+                "The uncertain case gets the effort.");
+        assertTrue(result.trials() < 4 * 2401, "Cheaper than a fixed count sized for the worst case.");
+        assertEquals(0.5, result.estimates().get(0).mean(), 0.04);
+        assertEquals(result, new AdaptiveMonteCarlo(cases, 0.02, 0.95, 50, 1000, 1_000_000, 1).run(7));
+
+        AdaptiveMonteCarlo.Result capped = new AdaptiveMonteCarlo(cases, 0.001, 0.95, 50, 1000, 3000, 2).run(7);
+        assertFalse(capped.converged());
+        assertEquals(3000, capped.trials());
+    }
+
+    @Test
+    void testSharedTrialsCreditOneOutcome() {
+        // one die roll credits one of three faces, the remaining half of the rolls credit none
+        AdaptiveMonteCarlo.Experiment die = new AdaptiveMonteCarlo.Experiment(List.of("a", "b", "c"), seed -> {
+            double roll = new SplittableRandom(seed).nextDouble();
+            return roll < 0.3 ? 0 : roll < 0.45 ? 1 : roll < 0.5 ? 2 : AdaptiveMonteCarlo.NO_OUTCOME;
+        });
+        AdaptiveMonteCarlo.Result result = new AdaptiveMonteCarlo(List.of(die), 0.02, 0.95, 50, 500, 1_000_000, 3)
+                .run(11);
+        assertTrue(result.converged());
+        long successes = 0;
+        for (AdaptiveMonteCarlo.Estimate estimate : result.estimates()) {
+            assertEquals(result.trials(), estimate.trials(), "Every roll is a trial of every face.");
+            assertTrue(estimate.halfWidth() <= 0.02);
+            successes += estimate.successes();
+        }
+        assertTrue(successes <= result.trials());
+        assertEquals(0.3, result.estimates().get(0).mean(), 0.04);
+        assertEquals(0.05, result.estimates().get(2).mean(), 0.04);
+    }
+
+    @Test
+    void testWinProbabilitiesOfStartPositions() throws IOException {
+        Track track = new CircuitParser().parseFile(new BufferedReader(
+                new InputStreamReader(getClass().getClassLoader().getResourceAsStream("track.txt"))));
+        Printer.setEnabled(false);
+        try {
+            List<AdaptiveMonteCarlo.Experiment> races = List.of(WinProbabilityRunner.startExperiment(track));
+            AdaptiveMonteCarlo.Result result = new AdaptiveMonteCarlo(races, 0.1, 0.9, 20, 100, 300, 2).run(1);
+            assertEquals(result, new AdaptiveMonteCarlo(races, 0.1, 0.9, 20, 100, 300, 2).run(1));
+            assertEquals(track.getStartPositions().size(), result.estimates().size());
+            long wins = 0;
+            for (AdaptiveMonteCarlo.Estimate estimate : result.estimates()) {
+                assertEquals(result.trials(), estimate.trials(), "Every race is a trial of every start.");
+                wins += estimate.successes();
+            }
+            assertTrue(wins > 0 && wins <= result.trials(), "A race has at most one winner.");
+        } finally {
+            Printer.setEnabled(true);
+        }
+    }
+}
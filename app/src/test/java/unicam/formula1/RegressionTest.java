@@ -0,0 +1,57 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.bench.Baseline;
+import unicam.formula1.model.bench.RegressionSuite;
+import unicam.formula1.utils.Printer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegressionTest {
+
+    private static Baseline committedBaseline() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                RegressionTest.class.getResourceAsStream("/performance/baseline.properties"))) {
+            return Baseline.read(reader);
+        }
+    }
+
+    @Test
+    void testGoldenSeedsKeepTheirOutcomes() throws IOException {
+        Baseline baseline = committedBaseline();
+        Printer.setEnabled(false);
+        try {
+            for (RegressionSuite.Scenario scenario : RegressionSuite.SCENARIOS) {
+                if (!scenario.name().equals("huge")) {
+                    assertEquals(baseline.getDigest(scenario.name()),
+                            RegressionSuite.digest(scenario.track(), scenario),
+                            "Outcomes of " + scenario.name() + " changed.");
+                }
+            }
+        } finally {
+            Printer.setEnabled(true);
+        }
+    }
+
+    @Test
+    void testRegressionsAreReported() throws IOException {
+        Baseline baseline = Baseline.read(new StringReader("""
+                track.digest=00ff
+                track.ticksPerSecond=1000
+                track.parseMillis=100
+                track.peakHeapMb=10
+                track.bytesPerTick=500
+                tolerance.ticksPerSecond=0.1
+                """));
+        assertTrue(baseline.compare(new RegressionSuite.Measurement("track", "00ff", 950, 120, 40, 550)).isEmpty());
+        assertEquals(1, baseline.compare(new RegressionSuite.Measurement("track", "00fe", 950, 120, 40, 550)).size());
+        assertEquals(4, baseline.compare(new RegressionSuite.Measurement("track", "00ff", 850, 160, 60, 700)).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> baseline.compare(new RegressionSuite.Measurement("other", "00ff", 1, 1, 1, 1)));
+    }
+}
@@ -0,0 +1,76 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.abstracts.ITrack;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.snapshot.RaceSnapshot;
+import unicam.formula1.model.snapshot.SnapshotWriter;
+import unicam.formula1.utils.SnapshotRandom;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTest {
+
+    @Test
+    void testSnapshotRandomMatchesRandomAndRestores() {
+        Random reference = new Random(42);
+        SnapshotRandom random = new SnapshotRandom(42);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(reference.nextInt(1000), random.nextInt(1000));
+        }
+        long state = random.getState();
+        double expected = random.nextDouble();
+        random.setState(state);
+        assertEquals(expected, random.nextDouble());
+    }
+
+    @Test
+    void testResumedRaceMatchesUninterruptedRace(@TempDir Path directory) throws IOException {
+        ITrack<Cell> track = new CircuitParser().parseFile(new BufferedReader(
+                new InputStreamReader(getClass().getClassLoader().getResourceAsStream("track.txt"))));
+        GameEngine<Cell> original = new GameEngine<>(bots(track, 1), 5);
+        for (int i = 0; i < 3 && !original.isTerminated(); i++) {
+            original.play();
+        }
+        Path file = directory.resolve("race.snapshot");
+        try (SnapshotWriter writer = new SnapshotWriter(file)) {
+            writer.submit(original.snapshot());
+        }
+        RaceSnapshot snapshot = SnapshotWriter.read(file);
+        assertEquals(original.snapshot(), snapshot);
+
+        GameEngine<Cell> resumed = new GameEngine<>(bots(track, 99), 77);
+        resumed.restore(snapshot);
+        assertEquals(original.getTick(), resumed.getTick());
+        while (!original.isTerminated()) {
+            original.play();
+            resumed.play();
+            assertEquals(original.snapshot(), resumed.snapshot());
+        }
+        assertTrue(resumed.isTerminated());
+    }
+
+    private static List<Player<Cell>> bots(ITrack<Cell> track, long seed) {
+        List<Player<Cell>> players = new ArrayList<>();
+        List<Cell> starts = track.getStartPositions();
+        for (int i = 0; i < starts.size(); i++) {
+            players.add(new BotPlayer("Bot " + i, starts.get(i), track, BotParameters.DEFAULT,
+                    new SnapshotRandom(seed + i)));
+        }
+        return players;
+    }
+}
@@ -0,0 +1,78 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unicam.formula1.model.BotParameters;
+import unicam.formula1.model.tournament.EloRatings;
+import unicam.formula1.model.tournament.Entrant;
+import unicam.formula1.model.tournament.Tournament;
+import unicam.formula1.model.tournament.TrackCache;
+import unicam.formula1.utils.Printer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testEloRatingsAreZeroSum() {
+        EloRatings ratings = new EloRatings();
+        ratings.record("a", "b", 1);
+        assertEquals(EloRatings.INITIAL_RATING + EloRatings.K_FACTOR / 2, ratings.getRating("a"), 1e-9);
+        assertEquals(2 * EloRatings.INITIAL_RATING, ratings.getRating("a") + ratings.getRating("b"), 1e-9);
+        ratings.record("a", "b", 0.5);
+        assertTrue(ratings.getRating("a") < EloRatings.INITIAL_RATING + EloRatings.K_FACTOR / 2,
+                "A draw against a weaker entrant costs rating.");
+    }
+
+    @Test
+    void testInterruptedLeagueResumesWithSameStandings() throws IOException {
+        Printer.setEnabled(false);
+        try {
+            Path first = dir.resolve("first.txt");
+            try (InputStream in = getClass().getResourceAsStream("/track.txt")) {
+                Files.copy(in, first);
+            }
+            Path second = Files.writeString(dir.resolve("second.txt"), "8 4\n########\n#S....F#\n#S....F#\n########\n");
+            List<Entrant> entrants = List.of(
+                    Entrant.bot("default", BotParameters.DEFAULT),
+                    Entrant.bot("steady", new BotParameters(BotParameters.DEFAULT.crashProbability(), 0.8)),
+                    Entrant.bot("erratic", new BotParameters(BotParameters.DEFAULT.crashProbability(), 0.2)));
+            TrackCache cache = new TrackCache();
+            Tournament tournament = new Tournament(List.of(first, second), entrants, 2, 7L, 500, cache);
+            int matches = tournament.schedule().size();
+            assertEquals(2 * 2 * 3, matches);
+
+            Path fullLog = dir.resolve("full.log");
+            Tournament.Result full = tournament.run(fullLog, 4);
+            assertEquals(matches, full.played());
+            assertEquals(2, cache.size(), "Each track is parsed once.");
+            int games = full.standings().stream().mapToInt(s -> s.wins() + s.draws() + s.losses()).sum();
+            assertEquals(2 * matches, games);
+
+            // The seed header and five results, then a result cut short
+            List<String> lines = Files.readAllLines(fullLog);
+            Path partialLog = dir.resolve("partial.log");
+            Files.writeString(partialLog, String.join("\n", lines.subList(0, 6)) + "\n" + lines.get(6).substring(0, 3));
+            Tournament.Result resumed = tournament.run(partialLog, 2);
+            assertEquals(5, resumed.resumed());
+            assertEquals(matches - 5, resumed.played());
+            assertEquals(full.standings(), resumed.standings());
+            assertEquals(matches, Tournament.readLog(partialLog).size());
+
+            Tournament reseeded = new Tournament(List.of(first, second), entrants, 2, 8L, 500, cache);
+            assertThrows(IOException.class, () -> reseeded.run(fullLog, 1),
+                    "A log written with another seed is not resumed.");
+        } finally {
+            Printer.setEnabled(true);
+        }
+    }
+}
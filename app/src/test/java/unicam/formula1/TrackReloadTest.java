@@ -0,0 +1,145 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unicam.formula1.controller.TrackReloader;
+import unicam.formula1.model.BotPlayer;
+import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.GameEngine;
+import unicam.formula1.model.Track;
+import unicam.formula1.model.TrackPatch;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.abstracts.Player;
+import unicam.formula1.model.sim.TrackGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrackReloadTest {
+
+    private static final String TRACK = "7 4\n#######\n#S...F#\n#S...F#\n#######\n";
+    private static final String EDITED = "7 4\n#######\n#S.O.F#\n#S..FF#\n#######\nlaps 2\n";
+
+    @TempDir
+    Path dir;
+
+    private static Track parse(String content) throws IOException {
+        return new CircuitParser().parseFile(new BufferedReader(new StringReader(content)));
+    }
+
+    @Test
+    void testPatchedTrackMatchesFullParse() throws IOException {
+        Track track = parse(TRACK);
+        TrackPatch patch = new CircuitParser().parsePatch(new BufferedReader(new StringReader(EDITED)),
+                TrackGrid.of(track));
+        assertEquals(2, patch.changes().size());
+        track.apply(patch);
+        Track expected = parse(EDITED);
+        assertEquals(expected.getCourse(), track.getCourse());
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                Cell cell = track.getCell(x, y);
+                assertEquals(expected.getCell(x, y).getCellType(), cell.getCellType());
+                assertEquals(describe(expected.getCell(x, y).getNeighbors()), describe(cell.getNeighbors()));
+                for (Cell neighbor : cell.getNeighbors()) {
+                    assertSame(track.getCell(neighbor.getX(), neighbor.getY()), neighbor, "Links point to live cells.");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPatchRejectsResizedTrack() throws IOException {
+        Track track = parse(TRACK);
+        assertThrows(IOException.class, () -> new CircuitParser().parsePatch(
+                new BufferedReader(new StringReader("3 1\nS.F\n")), TrackGrid.of(track)));
+    }
+
+    @Test
+    void testReloaderAppliesFileChangesBetweenTicks() throws Exception {
+        Path file = Files.writeString(dir.resolve("track.txt"), TRACK);
+        Track track = parse(TRACK);
+        List<Player<Cell>> players = new ArrayList<>();
+        for (Cell start : track.getStartPositions()) {
+            players.add(new BotPlayer("Bot " + players.size(), start, track));
+        }
+        GameEngine<Cell> engine = new GameEngine<>(players, 1L);
+        try (TrackReloader reloader = new TrackReloader(file, track)) {
+            engine.setCourse(reloader.getCourse());
+            reloader.start();
+            Files.writeString(file, TRACK.replace("#S...F#\n#S", "#S.O.F#\n#S"));
+            long deadline = System.currentTimeMillis() + 10_000;
+            boolean applied = false;
+            while (!applied && System.currentTimeMillis() < deadline) {
+                try {
+                    applied = reloader.applyPending(engine);
+                } catch (IOException e) {
+                    // read while the file was being written, the next event brings the whole file
+                }
+                Thread.sleep(20);
+            }
+            assertTrue(applied, "The change should be picked up.");
+            assertEquals(CellType.OIL, track.getCell(3, 1).getCellType());
+            assertEquals(CellType.OIL, reloader.getGrid().type(reloader.getGrid().index(3, 1)));
+
+            Files.writeString(file, EDITED);
+            deadline = System.currentTimeMillis() + 10_000;
+            IOException rejected = null;
+            while (rejected == null && System.currentTimeMillis() < deadline) {
+                try {
+                    reloader.applyPending(engine);
+                } catch (IOException e) {
+                    rejected = e;
+                }
+                Thread.sleep(20);
+            }
+            assertNotNull(rejected, "Changing the number of laps mid-race is rejected.");
+            assertEquals(CellType.TRACK, track.getCell(4, 2).getCellType());
+        }
+    }
+
+    @Test
+    void testReloadEliminatesPlayersOnBlockedCells() throws Exception {
+        String content = "7 5\n#######\n#S...F#\n#S...F#\n#S...F#\n#######\n";
+        Path file = Files.writeString(dir.resolve("track.txt"), content);
+        Track track = parse(content);
+        List<Player<Cell>> players = new ArrayList<>();
+        for (Cell start : track.getStartPositions()) {
+            players.add(new BotPlayer("Bot " + players.size(), start, track));
+        }
+        List<Player<Cell>> roster = List.copyOf(players);
+        GameEngine<Cell> engine = new GameEngine<>(players, 1L);
+        try (TrackReloader reloader = new TrackReloader(file, track)) {
+            engine.setCourse(reloader.getCourse());
+            reloader.start();
+            Files.writeString(file, content.replace("#S...F#\n#S...F#\n#S", "#O...F#\n##...F#\n#S"));
+            long deadline = System.currentTimeMillis() + 10_000;
+            boolean applied = false;
+            while (!applied && System.currentTimeMillis() < deadline) {
+                try {
+                    applied = reloader.applyPending(engine);
+                } catch (IOException e) {
+                    // read while the file was being written, the next event brings the whole file
+                }
+                Thread.sleep(20);
+            }
+            assertTrue(applied, "The change should be picked up.");
+            Player<Cell> survivor = roster.stream().filter(p -> p.getCurrentPosition().getY() == 3).findFirst()
+                    .orElseThrow();
+            assertEquals(List.of(survivor), engine.getPlayers());
+            assertTrue(engine.isTerminated());
+        }
+    }
+
+    private static List<String> describe(List<Cell> cells) {
+        return cells.stream().map(c -> c.getX() + "," + c.getY() + ":" + c.getCellType()).toList();
+    }
+}
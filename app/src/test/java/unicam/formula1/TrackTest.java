@@ -2,8 +2,16 @@ package unicam.formula1;
 
 import org.junit.jupiter.api.Test;
 import unicam.formula1.model.Cell;
+import unicam.formula1.model.CircuitParser;
 import unicam.formula1.model.Track;
 import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.model.sim.TransitionGraph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,5 +30,60 @@ public class TrackTest {
         Track track = new Track(10, 10);
         assertNull(track.getCell(11, 10), "Accessing out-of-bounds should return null.");
     }
-}
 
+    @Test
+    void testSparseTrackStoresOnlyDrivableTiles() throws IOException {
+        int size = 1024;
+        StringBuilder content = new StringBuilder(size + " " + size + "\n");
+        for (int y = 0; y < size; y++) {
+            char[] row = "#".repeat(size).toCharArray();
+            if (y >= 500 && y < 503) {
+                for (int x = 10; x < size - 10; x++) {
+                    row[x] = x == 10 ? 'S' : x == size - 11 ? 'F' : '.';
+                }
+            }
+            content.append(row).append("\n");
+        }
+        Track track = new CircuitParser().parseFile(new BufferedReader(new StringReader(content.toString())));
+        assertEquals(size / 16, track.getCellTileCount(), "Only the tiles crossed by the road hold cells.");
+        assertTrue(track.getTypeTileCount() < 10, "Identical tiles share their types: " + track.getTypeTileCount());
+        assertEquals(CellType.OFF_TRACK, track.getCell(3, 3).getCellType());
+        assertEquals(3, track.getStartPositions().size());
+        Cell road = track.getCell(500, 501);
+        assertEquals(CellType.TRACK, road.getCellType());
+        assertEquals(8, road.getNeighbors().size());
+        assertEquals(5, track.getCell(500, 500).getNeighbors().size(), "Off-track cells are not linked.");
+        assertSame(road, track.getCell(500, 500).getNeighbors().get(2));
+
+        TrackGrid grid = TrackGrid.of(track);
+        assertTrue(grid.getTileArrayCount() < 10, "The grid shares tiles too: " + grid.getTileArrayCount());
+        assertEquals(3, grid.cellsOf(CellType.START).length);
+        assertEquals(3 * (size - 22), grid.cellsOf(CellType.TRACK).length);
+        assertTrue(grid.isCrash(grid.index(3, 3)));
+        assertSame(road, grid.cell(grid.index(500, 501)));
+        assertEquals(CellType.FINISH, grid.type(grid.index(size - 11, 502)));
+    }
+
+    @Test
+    void testTransitionGraphKeepsOnlySafeMoves() throws IOException {
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/track.txt")))));
+        TransitionGraph graph = grid.transitions();
+        assertSame(graph, grid.transitions(), "The graph is compiled once per grid.");
+        int edges = 0;
+        for (int cell = 0; cell < grid.size(); cell++) {
+            int edge = graph.begin(cell);
+            for (int d = 0; d < TrackGrid.DIRECTIONS; d++) {
+                int neighbor = grid.neighbor(cell, d);
+                if (neighbor != TrackGrid.NO_CELL && grid.type(neighbor).isDrivable()) {
+                    assertEquals(neighbor, graph.target(edge));
+                    assertEquals(d, graph.direction(edge++));
+                }
+            }
+            assertEquals(graph.end(cell), edge);
+            assertEquals(Integer.bitCount(graph.mask(cell)), graph.degree(cell));
+            edges += graph.degree(cell);
+        }
+        assertEquals(graph.edgeCount(), edges);
+    }
+}
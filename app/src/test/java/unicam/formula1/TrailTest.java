@@ -0,0 +1,43 @@
+package unicam.formula1;
+
+import org.junit.jupiter.api.Test;
+import unicam.formula1.model.CircuitParser;
+import unicam.formula1.model.abstracts.CellType;
+import unicam.formula1.model.sim.TrackGrid;
+import unicam.formula1.model.stats.GhostLap;
+import unicam.formula1.view.TrailBuffer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrailTest {
+
+    @Test
+    void testTrailKeepsNewestPoints() {
+        TrailBuffer trail = new TrailBuffer(3);
+        for (int i = 0; i < 5; i++) {
+            trail.add(i, 10 + i);
+        }
+        assertEquals(3, trail.size());
+        assertEquals(2, trail.x(0));
+        assertEquals(14, trail.y(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> trail.x(3));
+        trail.clear();
+        assertEquals(0, trail.size());
+    }
+
+    @Test
+    void testGhostLapGoesFromStartToFinish() throws IOException {
+        TrackGrid grid = TrackGrid.of(new CircuitParser().parseFile(
+                new BufferedReader(new StringReader("7 4\n#######\n#SS..F#\n#.....#\n#######\n"))));
+        GhostLap ghost = GhostLap.fastest(grid, 200, 100, 3);
+        assertNotNull(ghost);
+        assertEquals(CellType.START, grid.type(ghost.cell(0)));
+        assertEquals(CellType.FINISH, grid.type(ghost.cell(ghost.getTicks())));
+        assertEquals(ghost.cell(ghost.getTicks()), ghost.cell(ghost.getTicks() + 5));
+        assertTrue(ghost.getTicks() >= 3, "The finish is at least three cells away from the start.");
+    }
+}